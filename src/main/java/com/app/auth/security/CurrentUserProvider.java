@@ -0,0 +1,137 @@
+package com.app.auth.security;
+
+import com.app.common.exception.UnauthorizedException;
+import com.app.user.dto.UserSummary;
+import com.app.user.entity.User;
+import com.app.user.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the authenticated user from the principal set by {@link com.app.config.JwtAuthenticationFilter}.
+ * The result is memoized for the current request and kept in a small LRU cache keyed by username,
+ * so repeated lookups within and across requests never touch the users table. Cached entries
+ * expire after {@code app.current-user.cache-ttl-ms}, so a renamed or deleted user, including one
+ * changed on another instance, is seen again within that time.
+ */
+@Component
+public class CurrentUserProvider {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUserProvider.class.getName() + ".CURRENT_USER";
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final Map<String, Entry> cache;
+
+    public CurrentUserProvider(UserRepository userRepository,
+                               @Value("${app.current-user.cache-size:1024}") int cacheSize,
+                               @Value("${app.current-user.cache-ttl-ms:60000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Summary of the authenticated user, or empty for anonymous requests
+     */
+    public Optional<UserSummary> findCurrentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object memoized = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (memoized instanceof UserSummary summary) {
+                return Optional.of(summary);
+            }
+        }
+
+        Optional<UserSummary> summary = currentUsername().map(this::loadSummary);
+        if (attributes != null && summary.isPresent()) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, summary.get(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return summary;
+    }
+
+    /**
+     * ID of the authenticated user, or empty for anonymous requests
+     */
+    public Optional<UUID> findCurrentUserId() {
+        return findCurrentUser().map(UserSummary::getId);
+    }
+
+    public UserSummary getCurrentUserSummary() {
+        return findCurrentUser().orElseThrow(() -> new UnauthorizedException("Authentication required"));
+    }
+
+    public UUID getCurrentUserId() {
+        return getCurrentUserSummary().getId();
+    }
+
+    /**
+     * Entity reference for the authenticated user. No select is issued until a non-id
+     * attribute of the returned proxy is accessed.
+     */
+    public User getCurrentUser() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
+    /**
+     * Drop a cached entry, e.g. after the user's profile changed
+     */
+    public void evict(String username) {
+        cache.remove(username);
+    }
+
+    private Optional<String> currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(authentication.getName());
+    }
+
+    private UserSummary loadSummary(String username) {
+        long now = System.nanoTime();
+        Entry cached = cache.get(username);
+        if (cached != null && now - cached.expiresAtNanos < 0) {
+            return cached.summary;
+        }
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UnauthorizedException("User not found"));
+        UserSummary summary = UserSummary.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .name(user.getDisplayName())
+                .avatar(user.getAvatarUrl())
+                .build();
+        cache.put(username, new Entry(summary, now + ttlNanos));
+        return summary;
+    }
+
+    private static final class Entry {
+        private final UserSummary summary;
+        private final long expiresAtNanos;
+
+        private Entry(UserSummary summary, long expiresAtNanos) {
+            this.summary = summary;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -7,8 +7,11 @@ import com.app.common.exception.BadRequestException;
 import com.app.common.exception.UnauthorizedException;
 import com.app.user.dto.UserSummary;
 import com.app.user.entity.User;
+import com.app.user.event.UserAuthenticatedEvent;
+import com.app.user.event.UserCreatedEvent;
 import com.app.user.repo.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.app.auth.security.JwtService;
@@ -23,6 +26,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public AuthResponse login(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
@@ -39,6 +43,7 @@ public class AuthService {
                 .name(user.getDisplayName())
                 .avatar(user.getAvatarUrl())
                 .build();
+        eventPublisher.publishEvent(new UserAuthenticatedEvent(user.getId()));
         
         return AuthResponse.builder()
                 .token(token)
@@ -75,6 +80,7 @@ public class AuthService {
                 .name(user.getDisplayName())
                 .avatar(user.getAvatarUrl())
                 .build();
+        eventPublisher.publishEvent(new UserCreatedEvent(userSummary));
         
         return AuthResponse.builder()
                 .token(token)
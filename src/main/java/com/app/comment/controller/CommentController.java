@@ -3,12 +3,14 @@ package com.app.comment.controller;
 import com.app.comment.dto.CommentRequest;
 import com.app.comment.dto.CommentResponse;
 import com.app.comment.service.CommentService;
+import com.app.common.pagination.CursorPage;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -18,6 +20,9 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class CommentController {
 
+    public static final String HAS_NEXT_HEADER = "X-Has-Next";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final CommentService commentService;
 
     /**
@@ -31,38 +36,78 @@ public class CommentController {
     }
 
     /**
-     * Get all comments for a post with pagination
+     * Get the top-level comments for a post, oldest first.
+     * Passing a cursor (empty for the first page) switches to keyset pagination, which returns
+     * a nextCursor and no total; otherwise the legacy page/size offset mode is used. Either way
+     * at most 100 comments are returned.
      */
     @GetMapping("/posts/{postId}/comments")
     public ResponseEntity<Map<String, Object>> getCommentsByPost(
             @PathVariable UUID postId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(toBody(commentService.getTopLevelCommentsByPostId(postId, cursor, size)));
+        }
+
         Page<CommentResponse> commentsPage = commentService.getCommentsByPostId(postId, page, size);
         
         return ResponseEntity.ok(Map.of(
             "comments", commentsPage.getContent(),
             "total", commentsPage.getTotalElements(),
             "page", page,
-            "size", size,
+            "size", commentsPage.getSize(),
             "hasNext", commentsPage.hasNext()
         ));
     }
 
     /**
-     * Get top-level comments for a post (no replies)
+     * Get a post's comments with replies nested, down to the given depth (at most 10 levels)
+     */
+    @GetMapping("/posts/{postId}/comments/thread")
+    public ResponseEntity<List<CommentResponse>> getCommentThread(
+            @PathVariable UUID postId,
+            @RequestParam(defaultValue = "3") int depth) {
+        return ResponseEntity.ok(commentService.getCommentThread(postId, depth));
+    }
+
+    /**
+     * Get top-level comments for a post (no replies), oldest first and at most {@code limit}
+     * (capped at 100). Without a cursor the first page is returned as a plain list; if there are
+     * more, the X-Has-Next and X-Next-Cursor headers say so, and passing that cursor continues
+     * in keyset mode. Passing a cursor (empty for the first page) returns a keyset page with a
+     * nextCursor.
      */
     @GetMapping("/posts/{postId}/comments/top-level")
-    public ResponseEntity<List<CommentResponse>> getTopLevelComments(@PathVariable UUID postId) {
-        return ResponseEntity.ok(commentService.getTopLevelCommentsByPostId(postId));
+    public ResponseEntity<?> getTopLevelComments(
+            @PathVariable UUID postId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<CommentResponse> comments = commentService.getTopLevelCommentsByPostId(postId, cursor, limit);
+        return cursor != null ? ResponseEntity.ok(toBody(comments)) : toList(comments);
     }
 
     /**
-     * Get replies for a specific comment
+     * Get replies for a specific comment, paged like {@link #getTopLevelComments}
      */
     @GetMapping("/comments/{commentId}/replies")
-    public ResponseEntity<List<CommentResponse>> getCommentReplies(@PathVariable UUID commentId) {
-        return ResponseEntity.ok(commentService.getRepliesByCommentId(commentId));
+    public ResponseEntity<?> getCommentReplies(
+            @PathVariable UUID commentId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<CommentResponse> replies = commentService.getRepliesByCommentId(commentId, cursor, limit);
+        return cursor != null ? ResponseEntity.ok(toBody(replies)) : toList(replies);
+    }
+
+    /**
+     * Get a comment with its replies nested, down to the given depth below it (at most 10 levels)
+     */
+    @GetMapping("/comments/{commentId}/thread")
+    public ResponseEntity<CommentResponse> getCommentSubtree(
+            @PathVariable UUID commentId,
+            @RequestParam(defaultValue = "3") int depth) {
+        return ResponseEntity.ok(commentService.getCommentSubtree(commentId, depth));
     }
 
     /**
@@ -84,7 +129,7 @@ public class CommentController {
     }
 
     /**
-     * Delete a comment (only by original author)
+     * Delete a comment and its replies (only by original author)
      */
     @DeleteMapping("/comments/{commentId}")
     public ResponseEntity<Void> deleteComment(@PathVariable UUID commentId) {
@@ -101,21 +146,49 @@ public class CommentController {
     }
 
     /**
-     * Get comments by a specific user
+     * Get comments by a specific user, newest first, paged like {@link #getCommentsByPost}
      */
     @GetMapping("/users/{userId}/comments")
     public ResponseEntity<Map<String, Object>> getUserComments(
             @PathVariable UUID userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(toBody(commentService.getCommentsByUserId(userId, cursor, size)));
+        }
+
         Page<CommentResponse> commentsPage = commentService.getCommentsByUserId(userId, page, size);
         
         return ResponseEntity.ok(Map.of(
             "comments", commentsPage.getContent(),
             "total", commentsPage.getTotalElements(),
             "page", page,
-            "size", size,
+            "size", commentsPage.getSize(),
             "hasNext", commentsPage.hasNext()
         ));
     }
+
+    /**
+     * First page as a plain list for clients that predate paging; whether it is complete goes in
+     * headers so the body keeps its shape
+     */
+    private static ResponseEntity<List<CommentResponse>> toList(CursorPage<CommentResponse> comments) {
+        if (!comments.isHasNext()) {
+            return ResponseEntity.ok(comments.getItems());
+        }
+        return ResponseEntity.ok()
+                .header(HAS_NEXT_HEADER, "true")
+                .header(NEXT_CURSOR_HEADER, comments.getNextCursor())
+                .body(comments.getItems());
+    }
+
+    private static Map<String, Object> toBody(CursorPage<CommentResponse> comments) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("comments", comments.getItems());
+        body.put("size", comments.getSize());
+        body.put("hasNext", comments.isHasNext());
+        body.put("nextCursor", comments.getNextCursor());
+        return body;
+    }
 }
\ No newline at end of file
@@ -18,7 +18,9 @@ public class CommentResponse {
     private UUID parentCommentId;
     private int likeCount;
     private boolean isLiked; // Whether current user liked this comment
-    private List<CommentResponse> replies; // For nested comments
+    private int replyCount; // Direct replies, whether or not they are loaded
+    private List<CommentResponse> replies; // Nested replies in a thread; null when not loaded
+    private Long descendantCount; // Replies at any depth; only filled in for a single comment
     private Instant createdAt;
     private Instant updatedAt;
 }
\ No newline at end of file
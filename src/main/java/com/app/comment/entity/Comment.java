@@ -31,7 +31,27 @@ public class Comment {
     @JoinColumn(name = "parent_comment_id")
     private Comment parentComment;
 
+    /**
+     * Ids of the ancestors, root first, each as 32 hex digits followed by '/'; empty for
+     * top-level comments
+     */
+    @Column(columnDefinition = "text", nullable = false, updatable = false)
+    private String path;
+
+    /**
+     * 1 for top-level comments, 2 for their replies, and so on
+     */
+    @Column(nullable = false, updatable = false)
+    private int depth;
+
     private int likeCount;
+
+    /**
+     * Number of direct replies. Adjusted in SQL by CommentRepository, so it is never written
+     * back from a loaded entity.
+     */
+    @Column(nullable = false, updatable = false)
+    private int replyCount;
     
     private Instant createdAt;
     private Instant updatedAt;
@@ -5,9 +5,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -48,4 +52,39 @@ public interface CommentLikeRepository extends JpaRepository<CommentLike, UUID>
      */
     @Query("SELECT cl.comment.id FROM CommentLike cl WHERE cl.user.id = :userId")
     List<UUID> findLikedCommentIdsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Get the subset of the given comment IDs that a user has liked, in a single query
+     */
+    @Query("SELECT cl.comment.id FROM CommentLike cl WHERE cl.user.id = :userId AND cl.comment.id IN :commentIds")
+    Set<UUID> findLikedCommentIdsByUserIdAndCommentIdIn(@Param("userId") UUID userId,
+                                                        @Param("commentIds") Collection<UUID> commentIds);
+
+    /**
+     * Like a comment and bump comments.like_count in one statement.
+     * Returns the new like count, or empty if the like already exists or the comment does not.
+     */
+    @Transactional
+    @Query(value = "WITH inserted AS (" +
+                   "    INSERT INTO purchase_service.comment_likes (user_id, comment_id, created_at) " +
+                   "    SELECT :userId, c.id, :now FROM purchase_service.comments c WHERE c.id = :commentId " +
+                   "    ON CONFLICT (user_id, comment_id) DO NOTHING " +
+                   "    RETURNING comment_id" +
+                   ") " +
+                   "UPDATE purchase_service.comments SET like_count = like_count + 1, updated_at = :now " +
+                   "WHERE id IN (SELECT comment_id FROM inserted) RETURNING like_count", nativeQuery = true)
+    Optional<Integer> insertLike(@Param("userId") UUID userId, @Param("commentId") UUID commentId, @Param("now") Instant now);
+
+    /**
+     * Unlike a comment and decrement comments.like_count in one statement.
+     * Returns the new like count, or empty if there was no like to remove.
+     */
+    @Transactional
+    @Query(value = "WITH deleted AS (" +
+                   "    DELETE FROM purchase_service.comment_likes WHERE user_id = :userId AND comment_id = :commentId " +
+                   "    RETURNING comment_id" +
+                   ") " +
+                   "UPDATE purchase_service.comments SET like_count = GREATEST(like_count - 1, 0), updated_at = :now " +
+                   "WHERE id IN (SELECT comment_id FROM deleted) RETURNING like_count", nativeQuery = true)
+    Optional<Integer> deleteLike(@Param("userId") UUID userId, @Param("commentId") UUID commentId, @Param("now") Instant now);
 }
\ No newline at end of file
@@ -3,29 +3,34 @@ package com.app.comment.repo;
 import com.app.comment.entity.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * List queries load each comment's author in the same select; the post is never needed beyond
+ * its id, which Hibernate reads from the foreign key without loading it.
+ */
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, UUID> {
     
     /**
-     * Find all comments for a specific post, ordered by creation date
+     * Find the top-level comments for a specific post, ordered by creation date
      */
-    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.parentComment IS NULL ORDER BY c.createdAt ASC")
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.parentComment IS NULL ORDER BY c.createdAt ASC, c.id ASC")
     Page<Comment> findByPostIdOrderByCreatedAtAsc(@Param("postId") UUID postId, Pageable pageable);
     
-    /**
-     * Find all reply comments for a specific parent comment
-     */
-    @Query("SELECT c FROM Comment c WHERE c.parentComment.id = :parentCommentId ORDER BY c.createdAt ASC")
-    List<Comment> findRepliesByParentCommentId(@Param("parentCommentId") UUID parentCommentId);
-    
     /**
      * Count total comments for a post (including replies)
      */
@@ -35,12 +40,129 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     /**
      * Find comments by author
      */
-    @Query("SELECT c FROM Comment c WHERE c.author.id = :authorId ORDER BY c.createdAt DESC")
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.author.id = :authorId ORDER BY c.createdAt DESC, c.id DESC")
     Page<Comment> findByAuthorIdOrderByCreatedAtDesc(@Param("authorId") UUID authorId, Pageable pageable);
     
+    /*
+     * Keyset pages on (createdAt, id). Each returns a List so no count query is issued; the
+     * ...After variants start strictly after the given position and are index range scans on
+     * idx_comments_post_parent_created_at_id, idx_comments_parent_created_at_id and
+     * idx_comments_author_created_at_id.
+     */
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findTopLevelPage(@Param("postId") UUID postId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "AND (c.createdAt, c.id) > (:createdAt, :id) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findTopLevelPageAfter(@Param("postId") UUID postId, @Param("createdAt") Instant createdAt,
+                                        @Param("id") UUID id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.parentComment.id = :parentCommentId " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesPage(@Param("parentCommentId") UUID parentCommentId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.parentComment.id = :parentCommentId " +
+           "AND (c.createdAt, c.id) > (:createdAt, :id) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesPageAfter(@Param("parentCommentId") UUID parentCommentId,
+                                       @Param("createdAt") Instant createdAt,
+                                       @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * A user's comments, newest first
+     */
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.author.id = :authorId ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findByAuthorPage(@Param("authorId") UUID authorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.author.id = :authorId " +
+           "AND (c.createdAt, c.id) < (:createdAt, :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findByAuthorPageAfter(@Param("authorId") UUID authorId, @Param("createdAt") Instant createdAt,
+                                        @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * A post's comments down to {@code maxDepth} levels (1 is top-level comments only), read from
+     * idx_comments_post_depth_created_at_id. Ordered by level, then oldest first, so every comment
+     * comes after its parent; past the page size the deepest and newest are cut.
+     */
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.depth <= :maxDepth " +
+           "ORDER BY c.depth ASC, c.createdAt ASC, c.id ASC")
+    List<Comment> findThreadByPostId(@Param("postId") UUID postId, @Param("maxDepth") int maxDepth,
+                                     Pageable pageable);
+
+    /*
+     * Subtree queries. A comment's descendants are the comments whose path lies in
+     * [from, to), where from is its path plus its id and to is the first string past that
+     * prefix (see CommentServiceImpl#descendantsFrom); each is one range scan on idx_comments_path.
+     */
+
+    /**
+     * The comment and its descendants down to {@code maxDepth}, ordered like a thread
+     */
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT c FROM Comment c WHERE (c.id = :id OR (c.path >= :from AND c.path < :to)) " +
+           "AND c.depth <= :maxDepth " +
+           "ORDER BY c.depth ASC, c.createdAt ASC, c.id ASC")
+    List<Comment> findSubtree(@Param("id") UUID id, @Param("from") String from, @Param("to") String to,
+                              @Param("maxDepth") int maxDepth, Pageable pageable);
+
+    @Query("SELECT COUNT(c) FROM Comment c WHERE c.path >= :from AND c.path < :to")
+    long countDescendants(@Param("from") String from, @Param("to") String to);
+
+    /**
+     * Delete the comment and all of its descendants; their likes go with them (ON DELETE
+     * CASCADE). Returns the number of comments deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.id = :id OR (c.path >= :from AND c.path < :to)")
+    int deleteSubtree(@Param("id") UUID id, @Param("from") String from, @Param("to") String to);
+
+    /**
+     * Current like count, or empty if the comment does not exist
+     */
+    @Query("SELECT c.likeCount FROM Comment c WHERE c.id = :id")
+    Optional<Integer> findLikeCountById(@Param("id") UUID id);
+
+    /**
+     * Atomically adjust a comment's reply count in one UPDATE ... RETURNING, like the post
+     * counters in PostRepository. An empty result means the comment does not exist.
+     */
+    @Transactional
+    @Query(value = "UPDATE purchase_service.comments SET reply_count = GREATEST(reply_count + :delta, 0) " +
+                   "WHERE id = :id RETURNING reply_count", nativeQuery = true)
+    Optional<Integer> adjustReplyCount(@Param("id") UUID id, @Param("delta") int delta);
+
+    /*
+     * Reply count reconciliation, one chunk per transaction: lock the chunk, then recount it in a
+     * new statement, whose snapshot includes every reply committed by writers it waited for.
+     */
+
+    @Query(value = "SELECT id FROM purchase_service.comments WHERE id > :after ORDER BY id LIMIT :limit FOR UPDATE",
+           nativeQuery = true)
+    List<UUID> lockIdsAfter(@Param("after") UUID after, @Param("limit") int limit);
+
     /**
-     * Find top-level comments (no parent) for a post
+     * Set reply_count to the actual number of replies where they differ. Returns the number of
+     * comments corrected.
      */
-    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.parentComment IS NULL ORDER BY c.createdAt ASC")
-    List<Comment> findTopLevelCommentsByPostId(@Param("postId") UUID postId);
+    @Modifying
+    @Query(value = "UPDATE purchase_service.comments c SET reply_count = actual.n " +
+                   "FROM (" +
+                   "    SELECT p.id, count(r.id) AS n FROM purchase_service.comments p " +
+                   "    LEFT JOIN purchase_service.comments r ON r.parent_comment_id = p.id " +
+                   "    WHERE p.id IN (:ids) GROUP BY p.id" +
+                   ") actual " +
+                   "WHERE c.id = actual.id AND c.reply_count <> actual.n", nativeQuery = true)
+    int reconcileReplyCounts(@Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.app.comment.service;
 
 import com.app.comment.dto.CommentRequest;
 import com.app.comment.dto.CommentResponse;
+import com.app.common.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -16,22 +17,40 @@ public interface CommentService {
     CommentResponse createComment(UUID postId, CommentRequest request);
     
     /**
-     * Get all comments for a specific post with pagination
+     * Get the top-level comments for a specific post with offset pagination; size is capped
+     * server-side
      */
     Page<CommentResponse> getCommentsByPostId(UUID postId, int page, int size);
     
     /**
-     * Get all top-level comments for a post (no replies)
+     * Keyset page of a post's top-level comments (no replies), oldest first
+     * @param cursor Position returned as nextCursor by the previous page; null or blank for the first page
+     * @param limit Page size, capped server-side
      */
-    List<CommentResponse> getTopLevelCommentsByPostId(UUID postId);
+    CursorPage<CommentResponse> getTopLevelCommentsByPostId(UUID postId, String cursor, int limit);
     
     /**
-     * Get replies for a specific comment
+     * A post's comments as a tree, each with its replies nested, oldest first at every level
+     * @param depth Levels to load, 1 for top-level comments only; capped server-side. Replies of
+     *              the deepest loaded level are null (not loaded) rather than empty.
      */
-    List<CommentResponse> getRepliesByCommentId(UUID commentId);
+    List<CommentResponse> getCommentThread(UUID postId, int depth);
+
+    /**
+     * A comment with its replies nested like {@link #getCommentThread}
+     * @param depth Levels of replies to load below the comment, capped server-side; 0 loads none
+     */
+    CommentResponse getCommentSubtree(UUID commentId, int depth);
+
+    /**
+     * Keyset page of the replies to a specific comment, oldest first
+     * @param cursor Position returned as nextCursor by the previous page; null or blank for the first page
+     * @param limit Page size, capped server-side
+     */
+    CursorPage<CommentResponse> getRepliesByCommentId(UUID commentId, String cursor, int limit);
     
     /**
-     * Get a specific comment by ID
+     * Get a specific comment by ID, with its number of descendants
      */
     CommentResponse getCommentById(UUID commentId);
     
@@ -41,7 +60,7 @@ public interface CommentService {
     CommentResponse updateComment(UUID commentId, CommentRequest request);
     
     /**
-     * Delete a comment (only by original author)
+     * Delete a comment and all of its replies (only by original author)
      */
     void deleteComment(UUID commentId);
     
@@ -51,7 +70,14 @@ public interface CommentService {
     Map<String, Object> likeComment(UUID commentId);
     
     /**
-     * Get comments by a specific user
+     * Get comments by a specific user with offset pagination; size is capped server-side
      */
     Page<CommentResponse> getCommentsByUserId(UUID userId, int page, int size);
+
+    /**
+     * Keyset page of a user's comments, newest first
+     * @param cursor Position returned as nextCursor by the previous page; null or blank for the first page
+     * @param limit Page size, capped server-side
+     */
+    CursorPage<CommentResponse> getCommentsByUserId(UUID userId, String cursor, int limit);
 }
\ No newline at end of file
@@ -1,20 +1,24 @@
 package com.app.comment.service;
 
+import com.app.auth.security.CurrentUserProvider;
 import com.app.comment.dto.CommentRequest;
 import com.app.comment.dto.CommentResponse;
 import com.app.comment.entity.Comment;
-import com.app.comment.entity.CommentLike;
 import com.app.comment.repo.CommentRepository;
 import com.app.comment.repo.CommentLikeRepository;
+import com.app.common.exception.BadRequestException;
 import com.app.common.exception.NotFoundException;
 import com.app.common.exception.UnauthorizedException;
+import com.app.common.pagination.Cursor;
+import com.app.common.pagination.CursorPage;
 import com.app.post.entity.Post;
+import com.app.post.event.PostInteractionEvent;
 import com.app.post.repo.PostRepository;
 import com.app.user.dto.UserSummary;
 import com.app.user.entity.User;
 import com.app.user.mapper.UserMapper;
-import com.app.user.repo.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -23,9 +27,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,23 +40,26 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CommentServiceImpl implements CommentService {
 
+    static final int MAX_THREAD_DEPTH = 10;
+    static final int MAX_THREAD_COMMENTS = 500;
+    static final int MAX_PAGE_SIZE = 100;
+    /**
+     * Keeps paths well within the btree entry size limit of idx_comments_path
+     */
+    static final int MAX_REPLY_DEPTH = 64;
+
     private final CommentRepository commentRepository;
     private final CommentLikeRepository commentLikeRepository;
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
     private final UserMapper userMapper;
     private final SimpMessagingTemplate messagingTemplate;
-
-    // TODO: replace with security context lookup
-    private User getCurrentUser() {
-        return userRepository.findAll().stream().findFirst()
-                .orElseThrow(() -> new NotFoundException("No users in DB"));
-    }
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public CommentResponse createComment(UUID postId, CommentRequest request) {
-        User author = getCurrentUser();
+        User author = currentUserProvider.getCurrentUser();
         
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new NotFoundException("Post not found"));
@@ -58,6 +68,12 @@ public class CommentServiceImpl implements CommentService {
         if (request.getParentCommentId() != null) {
             parentComment = commentRepository.findById(request.getParentCommentId())
                     .orElseThrow(() -> new NotFoundException("Parent comment not found"));
+            if (!parentComment.getPost().getId().equals(postId)) {
+                throw new BadRequestException("Parent comment belongs to a different post");
+            }
+            if (parentComment.getDepth() >= MAX_REPLY_DEPTH) {
+                throw new BadRequestException("Replies can be nested at most " + MAX_REPLY_DEPTH + " levels deep");
+            }
         }
 
         Comment comment = Comment.builder()
@@ -65,6 +81,8 @@ public class CommentServiceImpl implements CommentService {
                 .author(author)
                 .text(request.getText())
                 .parentComment(parentComment)
+                .path(parentComment == null ? "" : descendantsFrom(parentComment))
+                .depth(parentComment == null ? 1 : parentComment.getDepth() + 1)
                 .likeCount(0)
                 .createdAt(Instant.now())
                 .updatedAt(Instant.now())
@@ -72,53 +90,119 @@ public class CommentServiceImpl implements CommentService {
 
         comment = commentRepository.save(comment);
 
-        // Update post comment count
-        post.setCommentCount(post.getCommentCount() + 1);
-        post.setUpdatedAt(Instant.now());
-        postRepository.save(post);
+        // Update post comment count and the parent's reply count atomically in the database
+        postRepository.adjustCommentCount(postId, 1, Instant.now());
+        if (parentComment != null) {
+            commentRepository.adjustReplyCount(parentComment.getId(), 1);
+        }
+        eventPublisher.publishEvent(new PostInteractionEvent(postId, author.getId(), PostInteractionEvent.Type.COMMENTED));
+
+        // A new comment has no likes, and the author is the cached current user
+        CommentResponse response = toCommentResponse(comment, false, currentUserProvider.getCurrentUserSummary());
 
         // Send WebSocket notification for new comment
         messagingTemplate.convertAndSend("/topic/posts", Map.of(
             "type", "NEW_COMMENT",
             "payload", Map.of(
-                "comment", toCommentResponse(comment),
+                "comment", response,
                 "postId", postId.toString()
             ),
             "timestamp", Instant.now().toString()
         ));
 
-        return toCommentResponse(comment);
+        return response;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CommentResponse> getCommentsByPostId(UUID postId, int page, int size) {
-        return commentRepository.findByPostIdOrderByCreatedAtAsc(
-                postId, 
-                PageRequest.of(page, size)
-        ).map(this::toCommentResponse);
+        Page<Comment> comments = commentRepository.findByPostIdOrderByCreatedAtAsc(postId,
+                PageRequest.of(page, pageSize(size)));
+        Set<UUID> likedIds = findLikedCommentIds(comments.getContent());
+        return comments.map(comment -> toCommentResponse(comment, likedIds.contains(comment.getId())));
     }
 
     @Override
-    public List<CommentResponse> getTopLevelCommentsByPostId(UUID postId) {
-        return commentRepository.findTopLevelCommentsByPostId(postId)
-                .stream()
-                .map(this::toCommentResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<CommentResponse> getTopLevelCommentsByPostId(UUID postId, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        // Fetch one extra row to learn whether another page exists without counting
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        Cursor position = decode(cursor);
+        List<Comment> rows = position == null
+                ? commentRepository.findTopLevelPage(postId, pageRequest)
+                : commentRepository.findTopLevelPageAfter(postId, position.getCreatedAt(), position.getId(), pageRequest);
+        return toCursorPage(rows, pageSize);
     }
 
     @Override
-    public List<CommentResponse> getRepliesByCommentId(UUID commentId) {
-        return commentRepository.findRepliesByParentCommentId(commentId)
-                .stream()
-                .map(this::toCommentResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<CommentResponse> getCommentThread(UUID postId, int depth) {
+        int maxDepth = Math.max(1, Math.min(depth, MAX_THREAD_DEPTH));
+        List<Comment> comments = commentRepository.findThreadByPostId(postId, maxDepth,
+                PageRequest.of(0, MAX_THREAD_COMMENTS));
+        return toTree(comments, 1, maxDepth);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CommentResponse getCommentSubtree(UUID commentId, int depth) {
+        Comment comment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new NotFoundException("Comment not found"));
+        int lastDepth = comment.getDepth() + Math.max(0, Math.min(depth, MAX_THREAD_DEPTH));
+        List<Comment> comments = commentRepository.findSubtree(commentId, descendantsFrom(comment),
+                descendantsTo(comment), lastDepth, PageRequest.of(0, MAX_THREAD_COMMENTS));
+        return toTree(comments, comment.getDepth(), lastDepth).get(0);
+    }
+
+    /**
+     * Nest comments ordered by depth under their parents, in one pass since parents come first.
+     * Comments at {@code lastDepth} get null replies (not loaded) rather than empty ones.
+     */
+    private List<CommentResponse> toTree(List<Comment> comments, int firstDepth, int lastDepth) {
+        Set<UUID> likedIds = findLikedCommentIds(comments);
+        Map<UUID, CommentResponse> byId = new HashMap<>();
+        List<CommentResponse> roots = new ArrayList<>();
+        for (Comment comment : comments) {
+            CommentResponse response = toCommentResponse(comment, likedIds.contains(comment.getId()));
+            if (comment.getDepth() < lastDepth) {
+                response.setReplies(new ArrayList<>());
+            }
+            if (comment.getDepth() == firstDepth) {
+                roots.add(response);
+            } else {
+                CommentResponse parent = byId.get(response.getParentCommentId());
+                if (parent == null) {
+                    // Orphaned by a delete from before subtrees were deleted together
+                    continue;
+                }
+                parent.getReplies().add(response);
+            }
+            byId.put(response.getId(), response);
+        }
+        return roots;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CommentResponse> getRepliesByCommentId(UUID commentId, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        Cursor position = decode(cursor);
+        List<Comment> rows = position == null
+                ? commentRepository.findRepliesPage(commentId, pageRequest)
+                : commentRepository.findRepliesPageAfter(commentId, position.getCreatedAt(), position.getId(), pageRequest);
+        return toCursorPage(rows, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public CommentResponse getCommentById(UUID commentId) {
-        return commentRepository.findById(commentId)
-                .map(this::toCommentResponse)
+        Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new NotFoundException("Comment not found"));
+        CommentResponse response = toCommentResponse(comment);
+        response.setDescendantCount(commentRepository.countDescendants(descendantsFrom(comment), descendantsTo(comment)));
+        return response;
     }
 
     @Override
@@ -127,8 +211,8 @@ public class CommentServiceImpl implements CommentService {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new NotFoundException("Comment not found"));
 
-        User currentUser = getCurrentUser();
-        if (!comment.getAuthor().getId().equals(currentUser.getId())) {
+        UUID currentUserId = currentUserProvider.getCurrentUserId();
+        if (!comment.getAuthor().getId().equals(currentUserId)) {
             throw new UnauthorizedException("You can only edit your own comments");
         }
 
@@ -145,25 +229,28 @@ public class CommentServiceImpl implements CommentService {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new NotFoundException("Comment not found"));
 
-        User currentUser = getCurrentUser();
-        if (!comment.getAuthor().getId().equals(currentUser.getId())) {
+        UUID currentUserId = currentUserProvider.getCurrentUserId();
+        if (!comment.getAuthor().getId().equals(currentUserId)) {
             throw new UnauthorizedException("You can only delete your own comments");
         }
 
-        // Update post comment count
-        Post post = comment.getPost();
-        post.setCommentCount(Math.max(0, post.getCommentCount() - 1));
-        post.setUpdatedAt(Instant.now());
-        postRepository.save(post);
+        // Replies go with the comment. Reading the post id does not load the Post.
+        UUID postId = comment.getPost().getId();
+        int deleted = commentRepository.deleteSubtree(commentId, descendantsFrom(comment), descendantsTo(comment));
 
-        commentRepository.delete(comment);
+        // Update post comment count and the parent's reply count atomically
+        postRepository.adjustCommentCount(postId, -deleted, Instant.now());
+        if (comment.getParentComment() != null) {
+            commentRepository.adjustReplyCount(comment.getParentComment().getId(), -1);
+        }
 
         // Send WebSocket notification for comment deletion
         messagingTemplate.convertAndSend("/topic/posts", Map.of(
             "type", "COMMENT_DELETED",
             "payload", Map.of(
                 "commentId", commentId.toString(),
-                "postId", post.getId().toString()
+                "postId", postId.toString(),
+                "deletedCount", deleted
             ),
             "timestamp", Instant.now().toString()
         ));
@@ -172,44 +259,28 @@ public class CommentServiceImpl implements CommentService {
     @Override
     @Transactional
     public Map<String, Object> likeComment(UUID commentId) {
-        User currentUser = getCurrentUser();
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new NotFoundException("Comment not found"));
-        
-        // Check if user has already liked this comment
-        Optional<CommentLike> existingLike = commentLikeRepository.findByUserIdAndCommentId(currentUser.getId(), commentId);
-        
-        boolean isLiked;
-        int newLikeCount;
-        
-        if (existingLike.isPresent()) {
-            // User has already liked, so unlike it
-            commentLikeRepository.delete(existingLike.get());
-            newLikeCount = Math.max(0, comment.getLikeCount() - 1);
+        UUID userId = currentUserProvider.getCurrentUserId();
+        Instant now = Instant.now();
+
+        // Toggle in at most two statements, each adjusting like_count in the same round-trip
+        boolean isLiked = true;
+        Optional<Integer> likeCount = commentLikeRepository.insertLike(userId, commentId, now);
+        if (likeCount.isEmpty()) {
             isLiked = false;
-        } else {
-            // User hasn't liked, so like it
-            CommentLike commentLike = CommentLike.builder()
-                    .user(currentUser)
-                    .comment(comment)
-                    .createdAt(Instant.now())
-                    .build();
-            commentLikeRepository.save(commentLike);
-            newLikeCount = comment.getLikeCount() + 1;
-            isLiked = true;
+            likeCount = commentLikeRepository.deleteLike(userId, commentId, now);
         }
-        
-        // Update comment like count
-        comment.setLikeCount(newLikeCount);
-        comment.setUpdatedAt(Instant.now());
-        comment = commentRepository.save(comment);
+        if (likeCount.isEmpty()) {
+            // Neither matched: the comment is gone, or a concurrent request removed the like first
+            likeCount = commentRepository.findLikeCountById(commentId);
+        }
+        int newLikeCount = likeCount.orElseThrow(() -> new NotFoundException("Comment not found"));
 
         // Send WebSocket notification for comment like/unlike
         messagingTemplate.convertAndSend("/topic/posts", Map.of(
             "type", isLiked ? "COMMENT_LIKED" : "COMMENT_UNLIKED",
             "payload", Map.of(
                 "commentId", commentId.toString(),
-                "userId", currentUser.getId().toString(),
+                "userId", userId.toString(),
                 "likesCount", newLikeCount
             ),
             "timestamp", Instant.now().toString()
@@ -222,20 +293,103 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<CommentResponse> getCommentsByUserId(UUID userId, int page, int size) {
-        return commentRepository.findByAuthorIdOrderByCreatedAtDesc(
-                userId,
-                PageRequest.of(page, size)
-        ).map(this::toCommentResponse);
+        Page<Comment> comments = commentRepository.findByAuthorIdOrderByCreatedAtDesc(userId,
+                PageRequest.of(page, pageSize(size)));
+        Set<UUID> likedIds = findLikedCommentIds(comments.getContent());
+        return comments.map(comment -> toCommentResponse(comment, likedIds.contains(comment.getId())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CommentResponse> getCommentsByUserId(UUID userId, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        Cursor position = decode(cursor);
+        List<Comment> rows = position == null
+                ? commentRepository.findByAuthorPage(userId, pageRequest)
+                : commentRepository.findByAuthorPageAfter(userId, position.getCreatedAt(), position.getId(), pageRequest);
+        return toCursorPage(rows, pageSize);
+    }
+
+    /**
+     * Smallest path of the comment's descendants: its own path plus its id. Also the path of its
+     * direct replies.
+     */
+    static String descendantsFrom(Comment comment) {
+        return comment.getPath() + comment.getId().toString().replace("-", "") + "/";
+    }
+
+    /**
+     * First path past every descendant: the trailing '/' of {@link #descendantsFrom} bumped to
+     * the next character, '0'. Ids are fixed-length, so no other path falls in between.
+     */
+    static String descendantsTo(Comment comment) {
+        String from = descendantsFrom(comment);
+        return from.substring(0, from.length() - 1) + "0";
+    }
+
+    private static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    private static Cursor decode(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : Cursor.decode(cursor);
+    }
+
+    /**
+     * Trim the extra row fetched beyond the page and point the cursor at the last comment kept
+     */
+    private CursorPage<CommentResponse> toCursorPage(List<Comment> rows, int pageSize) {
+        boolean hasNext = rows.size() > pageSize;
+        List<Comment> page = hasNext ? rows.subList(0, pageSize) : rows;
+        Comment last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPage.<CommentResponse>builder()
+                .items(toCommentResponses(page))
+                .nextCursor(hasNext ? new Cursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasNext(hasNext)
+                .size(pageSize)
+                .build();
+    }
+
+    /**
+     * Map a list of comments with the viewer's like status looked up for all of them at once
+     */
+    private List<CommentResponse> toCommentResponses(List<Comment> comments) {
+        Set<UUID> likedIds = findLikedCommentIds(comments);
+        return comments.stream()
+                .map(comment -> toCommentResponse(comment, likedIds.contains(comment.getId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Ids among the comments that the current user has liked, in one query; none for anonymous
+     * viewers
+     */
+    private Set<UUID> findLikedCommentIds(List<Comment> comments) {
+        if (comments.isEmpty()) {
+            return Set.of();
+        }
+        return currentUserProvider.findCurrentUserId()
+                .map(userId -> commentLikeRepository.findLikedCommentIdsByUserIdAndCommentIdIn(userId,
+                        comments.stream().map(Comment::getId).collect(Collectors.toList())))
+                .orElse(Set.of());
     }
 
     private CommentResponse toCommentResponse(Comment comment) {
-        UserSummary authorSummary = userMapper.toDto(comment.getAuthor());
-        
         // Check if current user has liked this comment
-        User currentUser = getCurrentUser();
-        boolean isLiked = commentLikeRepository.existsByUserIdAndCommentId(currentUser.getId(), comment.getId());
-        
+        boolean isLiked = currentUserProvider.findCurrentUserId()
+                .map(userId -> commentLikeRepository.existsByUserIdAndCommentId(userId, comment.getId()))
+                .orElse(false);
+        return toCommentResponse(comment, isLiked);
+    }
+
+    private CommentResponse toCommentResponse(Comment comment, boolean isLiked) {
+        return toCommentResponse(comment, isLiked, userMapper.toDto(comment.getAuthor()));
+    }
+
+    private CommentResponse toCommentResponse(Comment comment, boolean isLiked, UserSummary authorSummary) {
         return CommentResponse.builder()
                 .id(comment.getId())
                 .text(comment.getText())
@@ -244,7 +398,8 @@ public class CommentServiceImpl implements CommentService {
                 .parentCommentId(comment.getParentComment() != null ? comment.getParentComment().getId() : null)
                 .likeCount(comment.getLikeCount())
                 .isLiked(isLiked)
-                .replies(null) // TODO: load replies if needed
+                .replyCount(comment.getReplyCount())
+                .replies(null) // Only filled in by getCommentThread
                 .createdAt(comment.getCreatedAt())
                 .updatedAt(comment.getUpdatedAt())
                 .build();
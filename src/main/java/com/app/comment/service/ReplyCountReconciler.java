@@ -0,0 +1,80 @@
+package com.app.comment.service;
+
+import com.app.comment.repo.CommentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically corrects comments whose reply_count differs from their stored replies, which
+ * should only happen after manual data changes or a bug in the counter updates.
+ *
+ * <p>Comments are walked in id order, {@code app.comments.reply-count-reconcile-chunk-size} at a
+ * time, each chunk locked and recounted in its own short transaction so replies being written
+ * concurrently are neither missed nor counted twice.
+ */
+@Slf4j
+@Component
+public class ReplyCountReconciler {
+
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Counter corrections;
+
+    public ReplyCountReconciler(CommentRepository commentRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.comments.reply-count-reconcile-chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("app.comments.reply-count-reconcile-chunk-size must be positive");
+        }
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.corrections = Counter.builder("comments.reply_count.corrections")
+                .description("Comments whose reply count was wrong and has been corrected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recount every comment's replies; returns the number of comments corrected
+     */
+    @Scheduled(initialDelayString = "${app.comments.reply-count-reconcile-interval-ms:3600000}",
+               fixedDelayString = "${app.comments.reply-count-reconcile-interval-ms:3600000}")
+    public synchronized long reconcile() {
+        AtomicLong corrected = new AtomicLong();
+        UUID after = LOWEST_ID;
+        List<UUID> chunk;
+        do {
+            UUID from = after;
+            chunk = transactionTemplate.execute(status -> {
+                List<UUID> ids = commentRepository.lockIdsAfter(from, chunkSize);
+                if (!ids.isEmpty()) {
+                    corrected.addAndGet(commentRepository.reconcileReplyCounts(ids));
+                }
+                return ids;
+            });
+            if (!chunk.isEmpty()) {
+                after = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == chunkSize);
+
+        if (corrected.get() > 0) {
+            corrections.increment(corrected.get());
+            log.warn("Corrected the reply counts of {} comments", corrected.get());
+        }
+        return corrected.get();
+    }
+}
@@ -0,0 +1,19 @@
+package com.app.common.pagination;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. There is deliberately no total: computing it
+ * would cost the full COUNT(*) that cursor paging exists to avoid.
+ */
+@Data
+@Builder
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor; // null on the last page
+    private boolean hasNext;
+    private int size; // page size actually applied, after any cap on the requested one
+}
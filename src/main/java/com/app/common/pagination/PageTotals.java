@@ -0,0 +1,64 @@
+package com.app.common.pagination;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Builds pages from a query that fetched one row more than the page size, so whether another
+ * page exists is known without counting. The result is a {@link Page} unless the mode is
+ * {@link TotalMode#NONE}.
+ */
+public final class PageTotals {
+
+    private PageTotals() {
+    }
+
+    /**
+     * @param rows up to {@code pageable.getPageSize() + 1} rows from the page offset
+     * @param count exact number of matches, only called for {@link TotalMode#EXACT}
+     * @param estimate estimated number of matches, only called for {@link TotalMode#ESTIMATED}
+     */
+    public static <T> Slice<T> of(List<T> rows, Pageable pageable, TotalMode mode,
+                                  LongSupplier count, LongSupplier estimate) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return of(new SliceImpl<>(content, pageable, hasNext), mode, count, estimate);
+    }
+
+    /**
+     * Add a total to a slice that was fetched without counting
+     */
+    public static <T> Slice<T> of(Slice<T> slice, TotalMode mode, LongSupplier count, LongSupplier estimate) {
+        if (mode == TotalMode.NONE) {
+            return slice;
+        }
+        Pageable pageable = slice.getPageable();
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            // This page shows where the results end
+            return new PageImpl<>(slice.getContent(), pageable, seen);
+        }
+        if (mode == TotalMode.EXACT) {
+            return new PageImpl<>(slice.getContent(), pageable, count.getAsLong());
+        }
+        // An estimate must not contradict what this page has already shown
+        long atLeast = seen + (slice.hasNext() ? 1 : 0);
+        return new PageImpl<>(slice.getContent(), pageable, Math.max(estimate.getAsLong(), atLeast));
+    }
+
+    /**
+     * The same page with its content replaced, e.g. ids swapped for the loaded entities
+     */
+    public static <T> Slice<T> withContent(Slice<?> source, List<T> content) {
+        if (source instanceof Page<?> page) {
+            return new PageImpl<>(content, source.getPageable(), page.getTotalElements());
+        }
+        return new SliceImpl<>(content, source.getPageable(), source.hasNext());
+    }
+}
@@ -0,0 +1,29 @@
+package com.app.common.pagination;
+
+import com.app.common.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * How an offset-paginated list reports its total. Counting every match costs about as much as
+ * finding them, so list endpoints let the client choose.
+ */
+public enum TotalMode {
+    /** Exact count, one extra COUNT(*) query whenever the page is not the last */
+    EXACT,
+    /** The query planner's row estimate; exact on the last page */
+    ESTIMATED,
+    /** No total, only whether there is a next page */
+    NONE;
+
+    /**
+     * Parse a request parameter value such as "estimated"
+     */
+    public static TotalMode fromParam(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("total must be one of exact, estimated or none");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.config;
 
+import com.app.comment.controller.CommentController;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -46,6 +47,10 @@ public class CorsConfig {
             }
         }
         
+        // Let browsers read whether a plain comment list was cut short
+        config.addExposedHeader(CommentController.HAS_NEXT_HEADER);
+        config.addExposedHeader(CommentController.NEXT_CURSOR_HEADER);
+
         config.setAllowCredentials(allowCredentials);
         
         source.registerCorsConfiguration("/**", config);
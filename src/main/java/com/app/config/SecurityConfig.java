@@ -1,7 +1,9 @@
 package com.app.config;
 
+import com.app.auth.security.CurrentUserProvider;
 import com.app.auth.security.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +31,8 @@ public class SecurityConfig {
 
     private final JwtService jwtService;
     private final com.app.user.repo.UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -39,7 +43,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/posts").permitAll()
                 .requestMatchers("/api/posts/**").permitAll()  // Allow all post-related endpoints including comments
                 .requestMatchers("/api/comments/**").permitAll()  // Allow all comment endpoints
+                .requestMatchers("/api/search/**").permitAll()
                 .requestMatchers("/api/trending").permitAll()
+                .requestMatchers("/api/trending/**").permitAll()
                 .requestMatchers("/api/stats").permitAll()
                 .requestMatchers("/api/platforms").permitAll()
                 .requestMatchers("/api/users/**").permitAll()
@@ -90,6 +96,6 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtService, userDetailsService());
+        return new JwtAuthenticationFilter(jwtService, userDetailsService(), currentUserProvider, eventPublisher);
     }
 }
@@ -1,5 +1,6 @@
 package com.app.media.service;
 
+import com.app.auth.security.CurrentUserProvider;
 import com.app.common.exception.NotFoundException;
 import com.app.media.azure.AzureSasUrlGenerator;
 import com.app.media.dto.PresignedUrlRequest;
@@ -7,7 +8,6 @@ import com.app.media.dto.PresignedUrlResponse;
 import com.app.media.entity.Media;
 import com.app.media.repo.MediaRepository;
 import com.app.user.entity.User;
-import com.app.user.repo.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,18 +22,12 @@ public class MediaServiceImpl implements MediaService {
 
     private final AzureSasUrlGenerator generator;
     private final MediaRepository mediaRepository;
-    private final UserRepository userRepository;
-
-    // TODO: replace with real security principal lookup
-    private User getCurrentUser() {
-        return userRepository.findAll().stream().findFirst()
-                .orElseThrow(() -> new NotFoundException("No user in DB"));
-    }
+    private final CurrentUserProvider currentUserProvider;
 
     @Override
     @Transactional
     public PresignedUrlResponse createPresignedUpload(PresignedUrlRequest request) {
-        User uploader = getCurrentUser();
+        User uploader = currentUserProvider.getCurrentUser();
 
         Media media = Media.builder()
                 .uploader(uploader)
@@ -66,7 +60,7 @@ public class MediaServiceImpl implements MediaService {
             return List.of();
         }
 
-        User currentUser = getCurrentUser();
+        UUID currentUserId = currentUserProvider.getCurrentUserId();
         List<Media> mediaList = mediaRepository.findAllById(mediaIds);
         
         // Validate that all requested media IDs were found
@@ -76,7 +70,7 @@ public class MediaServiceImpl implements MediaService {
         
         // Validate that all media belongs to the current user
         for (Media media : mediaList) {
-            if (!media.getUploader().getId().equals(currentUser.getId())) {
+            if (!media.getUploader().getId().equals(currentUserId)) {
                 throw new NotFoundException("Media not found or access denied");
             }
         }
@@ -1,16 +1,19 @@
 package com.app.post.controller;
 
+import com.app.common.pagination.CursorPage;
+import com.app.common.pagination.TotalMode;
 import com.app.post.dto.PostCreateRequest;
 import com.app.post.dto.PostResponse;
+import com.app.post.search.SearchFilters;
 import com.app.post.service.PostService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,21 +30,41 @@ public class PostController {
         return ResponseEntity.ok(postService.createPost(request));
     }
 
+    /**
+     * List posts, newest first.
+     * Passing a cursor (empty for the first page) switches to keyset pagination, which returns
+     * a nextCursor and no total; otherwise the legacy page/limit offset mode is used, with the
+     * total as chosen by {@code total}: exact by default, estimated or none.
+     */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getPosts(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "exact") String total) {
+        if (cursor != null) {
+            CursorPage<PostResponse> feed = postService.getFeed(cursor, limit);
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("posts", feed.getItems());
+            body.put("limit", feed.getSize());
+            body.put("hasNext", feed.isHasNext());
+            body.put("nextCursor", feed.getNextCursor());
+            return ResponseEntity.ok(body);
+        }
+
         // Convert to 0-based page for Spring Data
         int springPage = page - 1;
-        Page<PostResponse> postsPage = postService.getAllPosts(springPage, limit);
+        TotalMode totals = TotalMode.fromParam(total);
+        Slice<PostResponse> postsPage = postService.getAllPosts(springPage, limit, totals);
         
-        return ResponseEntity.ok(Map.of(
-            "posts", postsPage.getContent(),
-            "total", postsPage.getTotalElements(),
-            "page", page,
-            "limit", limit,
-            "hasNext", postsPage.hasNext()
-        ));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("posts", postsPage.getContent());
+        putTotal(body, postsPage, totals);
+        body.put("page", page);
+        body.put("limit", postsPage.getSize());
+        body.put("hasNext", postsPage.hasNext());
+        return ResponseEntity.ok(body);
     }
 
     @GetMapping("/{id}")
@@ -75,14 +98,20 @@ public class PostController {
     }
 
     /**
-     * Search posts by keyword
-     * Searches across post text, author information, and platform name
+     * Search posts by keyword and/or filters (platformId, minPrice, maxPrice, currency,
+     * purchasedFrom, purchasedTo). Searches across post text, author information, and platform
+     * name. Facet counts per platform and price range are included with facets=true; they cost
+     * a scan of every match, so they are off by default. The total is exact by default;
+     * {@code total} can ask for an estimate or none instead.
      */
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> searchPosts(
             @RequestParam(required = false) String keyword,
+            SearchFilters filters,
+            @RequestParam(defaultValue = "false") boolean facets,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "exact") String total) {
         
         if (keyword != null && keyword.trim().length() < 2) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -95,15 +124,29 @@ public class PostController {
             ));
         }
         
-        Page<PostResponse> postsPage = postService.searchPosts(keyword, page, size);
+        TotalMode totals = TotalMode.fromParam(total);
+        Slice<PostResponse> postsPage = postService.searchPosts(keyword, filters, page, size, totals);
         
-        return ResponseEntity.ok(Map.of(
-            "posts", postsPage.getContent(),
-            "total", postsPage.getTotalElements(),
-            "page", page,
-            "size", size,
-            "hasNext", postsPage.hasNext(),
-            "keyword", keyword != null ? keyword : ""
-        ));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("posts", postsPage.getContent());
+        putTotal(body, postsPage, totals);
+        body.put("page", page);
+        body.put("size", size);
+        body.put("hasNext", postsPage.hasNext());
+        body.put("keyword", keyword != null ? keyword : "");
+        if (facets) {
+            body.put("facets", postService.getSearchFacets(keyword, filters));
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * "total" is left out when none was asked for; "totalEstimated" says whether it may be off
+     */
+    private static void putTotal(Map<String, Object> body, Slice<?> slice, TotalMode totals) {
+        if (slice instanceof Page<?> page) {
+            body.put("total", page.getTotalElements());
+            body.put("totalEstimated", totals == TotalMode.ESTIMATED && page.hasNext());
+        }
     }
 }
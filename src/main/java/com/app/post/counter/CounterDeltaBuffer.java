@@ -0,0 +1,173 @@
+package com.app.post.counter;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory counter deltas per post, split into lock stripes by post id so that writers to
+ * different posts never contend. Deltas move through two stages: pending, then in flight while
+ * a flush writes them, so readers can keep adding both to the persisted value until the flush
+ * commits.
+ *
+ * <p>Not safe for concurrent flushes; callers serialise {@link #drain()}, {@link #complete()}
+ * and {@link #restore()}.
+ */
+public class CounterDeltaBuffer {
+
+    private static final int COUNTERS = PostCounter.values().length;
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final Stripe[] stripes;
+
+    public CounterDeltaBuffer(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("stripeCount must be positive");
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Record a delta and return the post's total unflushed delta for that counter
+     */
+    public long add(UUID postId, PostCounter counter, long delta) {
+        Stripe stripe = stripeFor(postId);
+        synchronized (stripe) {
+            if (stripe.pending.isEmpty()) {
+                stripe.oldestNanos = System.nanoTime();
+            }
+            long[] deltas = stripe.pending.computeIfAbsent(postId, id -> new long[COUNTERS]);
+            deltas[counter.ordinal()] += delta;
+            return deltas[counter.ordinal()] + valueOf(stripe.inFlight.get(postId), counter);
+        }
+    }
+
+    /**
+     * Unflushed deltas for a post indexed by {@link PostCounter#ordinal()}, or null if there are none
+     */
+    public long[] pending(UUID postId) {
+        Stripe stripe = stripeFor(postId);
+        synchronized (stripe) {
+            long[] pending = stripe.pending.get(postId);
+            long[] inFlight = stripe.inFlight.get(postId);
+            if (pending == null && inFlight == null) {
+                return null;
+            }
+            long[] total = new long[COUNTERS];
+            for (int i = 0; i < COUNTERS; i++) {
+                total[i] = (pending == null ? 0 : pending[i]) + (inFlight == null ? 0 : inFlight[i]);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Number of posts with deltas that have not been handed to a flush yet
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.pending.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Move every pending delta to in flight and return them
+     */
+    public Drain drain() {
+        List<Map.Entry<UUID, long[]>> deltas = new ArrayList<>();
+        long oldestNanos = NONE;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                stripe.inFlight = stripe.pending;
+                stripe.inFlightOldestNanos = stripe.oldestNanos;
+                stripe.pending = new HashMap<>();
+                deltas.addAll(stripe.inFlight.entrySet());
+                oldestNanos = Math.min(oldestNanos, stripe.oldestNanos);
+            }
+        }
+        return new Drain(deltas, oldestNanos);
+    }
+
+    /**
+     * The drained deltas are persisted; stop reporting them
+     */
+    public void complete() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.inFlight = Map.of();
+            }
+        }
+    }
+
+    /**
+     * The flush failed; put the drained deltas back so the next flush retries them
+     */
+    public void restore() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.inFlight.isEmpty()) {
+                    continue;
+                }
+                // Deltas recorded since the drain are younger than the ones being put back
+                stripe.oldestNanos = stripe.inFlightOldestNanos;
+                stripe.inFlight.forEach((postId, deltas) -> {
+                    long[] pending = stripe.pending.computeIfAbsent(postId, id -> new long[COUNTERS]);
+                    for (int i = 0; i < COUNTERS; i++) {
+                        pending[i] += deltas[i];
+                    }
+                });
+                stripe.inFlight = Map.of();
+            }
+        }
+    }
+
+    private Stripe stripeFor(UUID postId) {
+        int hash = postId.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private static long valueOf(long[] deltas, PostCounter counter) {
+        return deltas == null ? 0 : deltas[counter.ordinal()];
+    }
+
+    private static final class Stripe {
+        private Map<UUID, long[]> pending = new HashMap<>();
+        private Map<UUID, long[]> inFlight = Map.of();
+        private long oldestNanos;
+        private long inFlightOldestNanos;
+    }
+
+    /**
+     * Deltas taken by one flush, with the time the oldest of them was recorded
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Drain {
+        private final List<Map.Entry<UUID, long[]>> deltas;
+        private final long oldestNanos;
+
+        public boolean isEmpty() {
+            return deltas.isEmpty();
+        }
+
+        public long lagNanos() {
+            return isEmpty() ? 0 : System.nanoTime() - oldestNanos;
+        }
+    }
+}
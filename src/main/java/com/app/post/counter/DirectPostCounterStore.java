@@ -0,0 +1,59 @@
+package com.app.post.counter;
+
+import com.app.post.dto.PostResponse;
+import com.app.post.repo.PostLikeRepository;
+import com.app.post.repo.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Default mode: every interaction updates the posts row immediately with an atomic
+ * UPDATE ... RETURNING, so responses always show the persisted value.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.counters.mode", havingValue = "direct", matchIfMissing = true)
+public class DirectPostCounterStore implements PostCounterStore {
+
+    private final PostRepository postRepository;
+    private final PostLikeRepository postLikeRepository;
+
+    @Override
+    public Optional<LikeToggle> toggleLike(UUID userId, UUID postId, Instant now) {
+        // Try to like, and if the like already exists, unlike. Each statement adjusts like_count
+        // in the same round-trip, so concurrent double-taps can neither hit the unique constraint
+        // nor lose a counter update.
+        Optional<Integer> liked = postLikeRepository.insertLike(userId, postId, now);
+        if (liked.isPresent()) {
+            return Optional.of(new LikeToggle(true, liked.get()));
+        }
+
+        Optional<Integer> unliked = postLikeRepository.deleteLike(userId, postId, now);
+        if (unliked.isPresent()) {
+            return Optional.of(new LikeToggle(false, unliked.get()));
+        }
+
+        // Neither matched: the post is gone, or a concurrent request removed the like first
+        return postRepository.findLikeCountById(postId).map(likeCount -> new LikeToggle(false, likeCount));
+    }
+
+    @Override
+    public Optional<Integer> increment(UUID postId, PostCounter counter, Instant now) {
+        return switch (counter) {
+            case REPOSTS -> postRepository.incrementRepostCount(postId, now);
+            case SHARES -> postRepository.incrementShareCount(postId, now);
+            case LIKES -> throw new IllegalArgumentException("Likes are changed through toggleLike");
+        };
+    }
+
+    @Override
+    public void applyPending(List<PostResponse> posts) {
+        // Nothing is ever pending
+    }
+}
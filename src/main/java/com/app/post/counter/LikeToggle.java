@@ -0,0 +1,14 @@
+package com.app.post.counter;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outcome of toggling a like: whether the post is now liked and the like count to show
+ */
+@Getter
+@RequiredArgsConstructor
+public class LikeToggle {
+    private final boolean liked;
+    private final int likeCount;
+}
@@ -0,0 +1,10 @@
+package com.app.post.counter;
+
+/**
+ * Interaction counters kept on the posts row that a {@link PostCounterStore} may buffer
+ */
+public enum PostCounter {
+    LIKES,
+    REPOSTS,
+    SHARES
+}
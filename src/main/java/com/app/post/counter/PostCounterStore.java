@@ -0,0 +1,32 @@
+package com.app.post.counter;
+
+import com.app.post.dto.PostResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Writes like, repost and share counters. The implementation is chosen per deployment
+ * with {@code app.counters.mode}.
+ */
+public interface PostCounterStore {
+
+    /**
+     * Like the post, or unlike it if the user already liked it.
+     * Returns empty if the post does not exist.
+     */
+    Optional<LikeToggle> toggleLike(UUID userId, UUID postId, Instant now);
+
+    /**
+     * Add one to a repost or share counter and return the value to show.
+     * Returns empty if the post does not exist.
+     */
+    Optional<Integer> increment(UUID postId, PostCounter counter, Instant now);
+
+    /**
+     * Add interactions that are not persisted yet to posts about to be returned
+     */
+    void applyPending(List<PostResponse> posts);
+}
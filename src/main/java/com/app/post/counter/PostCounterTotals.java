@@ -0,0 +1,10 @@
+package com.app.post.counter;
+
+import java.util.UUID;
+
+/**
+ * Counts of a post including its uncompacted shard deltas
+ */
+public interface PostCounterTotals extends PostCounts {
+    UUID getPostId();
+}
@@ -0,0 +1,18 @@
+package com.app.post.counter;
+
+/**
+ * Persisted interaction counters of a post, read without loading the entity
+ */
+public interface PostCounts {
+    Integer getLikeCount();
+    Integer getRepostCount();
+    Integer getShareCount();
+
+    default int get(PostCounter counter) {
+        return switch (counter) {
+            case LIKES -> getLikeCount();
+            case REPOSTS -> getRepostCount();
+            case SHARES -> getShareCount();
+        };
+    }
+}
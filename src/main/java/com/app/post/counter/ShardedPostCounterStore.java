@@ -0,0 +1,152 @@
+package com.app.post.counter;
+
+import com.app.post.dto.PostResponse;
+import com.app.post.repo.PostCounterShardRepository;
+import com.app.post.repo.PostLikeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Durable mode for hot posts: each interaction adds to one of {@code app.counters.shards} rows
+ * in post_counter_shards, so writers to the same post only contend when they pick the same
+ * shard. Counts are the posts row plus the shard deltas, and a scheduled compaction folds the
+ * shards back into posts. Unlike write-behind, nothing is lost if an instance dies.
+ *
+ * <p>Totals for listed posts are cached briefly; the response to an interaction is always exact.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.counters.mode", havingValue = "sharded")
+public class ShardedPostCounterStore implements PostCounterStore {
+
+    private final PostLikeRepository postLikeRepository;
+    private final PostCounterShardRepository shardRepository;
+    private final int shards;
+    private final long cacheTtlNanos;
+    private final Map<UUID, CachedTotals> cache = new ConcurrentHashMap<>();
+
+    public ShardedPostCounterStore(PostLikeRepository postLikeRepository,
+                                   PostCounterShardRepository shardRepository,
+                                   @Value("${app.counters.shards:16}") int shards,
+                                   @Value("${app.counters.shard-cache-ttl-ms:1000}") long cacheTtlMs) {
+        if (shards < 1 || shards > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("app.counters.shards must be between 1 and " + Short.MAX_VALUE);
+        }
+        this.postLikeRepository = postLikeRepository;
+        this.shardRepository = shardRepository;
+        this.shards = shards;
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMs);
+    }
+
+    @Override
+    public Optional<LikeToggle> toggleLike(UUID userId, UUID postId, Instant now) {
+        boolean liked;
+        if (postLikeRepository.insertLikeRow(userId, postId, now).isPresent()) {
+            liked = true;
+        } else if (postLikeRepository.deleteLikeRow(userId, postId).isPresent()) {
+            liked = false;
+        } else {
+            // Neither matched: the post is gone, or a concurrent request removed the like first
+            return totals(postId).map(totals -> new LikeToggle(false, totals.getLikeCount()));
+        }
+
+        if (shardRepository.addToShard(postId, randomShard(), liked ? 1 : -1, 0, 0).isEmpty()) {
+            return Optional.empty();
+        }
+        return totals(postId).map(totals -> new LikeToggle(liked, totals.getLikeCount()));
+    }
+
+    @Override
+    public Optional<Integer> increment(UUID postId, PostCounter counter, Instant now) {
+        Optional<UUID> updated = switch (counter) {
+            case REPOSTS -> shardRepository.addToShard(postId, randomShard(), 0, 1, 0);
+            case SHARES -> shardRepository.addToShard(postId, randomShard(), 0, 0, 1);
+            case LIKES -> throw new IllegalArgumentException("Likes are changed through toggleLike");
+        };
+        if (updated.isEmpty()) {
+            return Optional.empty();
+        }
+        return totals(postId).map(totals -> totals.get(counter));
+    }
+
+    @Override
+    public void applyPending(List<PostResponse> posts) {
+        long now = System.nanoTime();
+        List<UUID> missing = posts.stream()
+                .map(PostResponse::getId)
+                .filter(id -> {
+                    CachedTotals cached = cache.get(id);
+                    return cached == null || cached.isExpired(now);
+                })
+                .distinct()
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            shardRepository.findTotalsByIdIn(missing).forEach(this::remember);
+        }
+
+        for (PostResponse post : posts) {
+            CachedTotals cached = cache.get(post.getId());
+            if (cached == null) {
+                continue;
+            }
+            post.setLikes(cached.totals.getLikeCount());
+            post.setReposts(cached.totals.getRepostCount());
+            post.setShares(cached.totals.getShareCount());
+        }
+    }
+
+    /**
+     * Fold all shard deltas into the posts rows. Safe to run on several instances at once:
+     * a second compaction waits on the deleted rows and then finds nothing to fold.
+     */
+    @Scheduled(fixedDelayString = "${app.counters.compaction-interval-ms:60000}")
+    public void compact() {
+        int posts = shardRepository.compactShards(Instant.now());
+        if (posts > 0) {
+            log.debug("Compacted counter shards into {} posts", posts);
+        }
+        long now = System.nanoTime();
+        cache.values().removeIf(cached -> cached.isExpired(now));
+    }
+
+    private Optional<PostCounterTotals> totals(UUID postId) {
+        Optional<PostCounterTotals> totals = shardRepository.findTotalsById(postId);
+        totals.ifPresent(this::remember);
+        return totals;
+    }
+
+    private void remember(PostCounterTotals totals) {
+        cache.put(totals.getPostId(), new CachedTotals(totals, System.nanoTime() + cacheTtlNanos));
+    }
+
+    private short randomShard() {
+        return (short) ThreadLocalRandom.current().nextInt(shards);
+    }
+
+    private static final class CachedTotals {
+        private final PostCounterTotals totals;
+        private final long expiresAtNanos;
+
+        private CachedTotals(PostCounterTotals totals, long expiresAtNanos) {
+            this.totals = totals;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.app.post.counter;
+
+import com.app.post.dto.PostResponse;
+import com.app.post.repo.PostLikeRepository;
+import com.app.post.repo.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind mode for hot posts: like, repost and share deltas are buffered in memory and
+ * applied to the posts table in one batched UPDATE per flush, instead of every interaction
+ * taking the row lock on the post. Like rows themselves are still written synchronously.
+ *
+ * <p>Responses show the persisted value plus the pending delta. Deltas buffered on an instance
+ * that dies before flushing are lost, which is why this mode is opt-in.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.counters.mode", havingValue = "write-behind")
+public class WriteBehindPostCounterStore implements PostCounterStore {
+
+    private static final String FLUSH_SQL =
+            "UPDATE purchase_service.posts SET " +
+            "like_count = GREATEST(like_count + ?, 0), " +
+            "repost_count = repost_count + ?, " +
+            "share_count = share_count + ?, " +
+            "updated_at = ? " +
+            "WHERE id = ?";
+
+    private final PostRepository postRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CounterDeltaBuffer buffer;
+    private final Timer flushLag;
+    private final Counter flushFailures;
+
+    public WriteBehindPostCounterStore(PostRepository postRepository,
+                                       PostLikeRepository postLikeRepository,
+                                       JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.counters.stripes:64}") int stripes) {
+        this.postRepository = postRepository;
+        this.postLikeRepository = postLikeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new CounterDeltaBuffer(stripes);
+        this.flushLag = Timer.builder("post.counters.flush.lag")
+                .description("Age of the oldest counter delta when it was written to the database")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("post.counters.flush.failures")
+                .description("Counter flushes that failed and were retried")
+                .register(meterRegistry);
+        meterRegistry.gauge("post.counters.pending", buffer, CounterDeltaBuffer::size);
+    }
+
+    @Override
+    public Optional<LikeToggle> toggleLike(UUID userId, UUID postId, Instant now) {
+        boolean liked;
+        if (postLikeRepository.insertLikeRow(userId, postId, now).isPresent()) {
+            liked = true;
+        } else if (postLikeRepository.deleteLikeRow(userId, postId).isPresent()) {
+            liked = false;
+        } else {
+            // Neither matched: the post is gone, or a concurrent request removed the like first
+            return postRepository.findCountsById(postId)
+                    .map(counts -> new LikeToggle(false, display(counts, postId, PostCounter.LIKES, 0)));
+        }
+
+        Optional<PostCounts> counts = postRepository.findCountsById(postId);
+        if (counts.isEmpty()) {
+            return Optional.empty();
+        }
+        int delta = liked ? 1 : -1;
+        int likeCount = display(counts.get(), postId, PostCounter.LIKES, delta);
+        addAfterCommit(postId, PostCounter.LIKES, delta);
+        return Optional.of(new LikeToggle(liked, likeCount));
+    }
+
+    @Override
+    public Optional<Integer> increment(UUID postId, PostCounter counter, Instant now) {
+        if (counter == PostCounter.LIKES) {
+            throw new IllegalArgumentException("Likes are changed through toggleLike");
+        }
+        Optional<PostCounts> counts = postRepository.findCountsById(postId);
+        if (counts.isEmpty()) {
+            return Optional.empty();
+        }
+        int value = display(counts.get(), postId, counter, 1);
+        addAfterCommit(postId, counter, 1);
+        return Optional.of(value);
+    }
+
+    @Override
+    public void applyPending(List<PostResponse> posts) {
+        for (PostResponse post : posts) {
+            long[] pending = buffer.pending(post.getId());
+            if (pending == null) {
+                continue;
+            }
+            post.setLikes(plus(post.getLikes(), pending[PostCounter.LIKES.ordinal()]));
+            post.setReposts(plus(post.getReposts(), pending[PostCounter.REPOSTS.ordinal()]));
+            post.setShares(plus(post.getShares(), pending[PostCounter.SHARES.ordinal()]));
+        }
+    }
+
+    /**
+     * Write all buffered deltas in one transaction. On failure they are put back and retried
+     * on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval-ms:250}")
+    public synchronized void flush() {
+        CounterDeltaBuffer.Drain drain = buffer.drain();
+        if (drain.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        // Rows are updated in id order so concurrent flushes from several instances cannot deadlock
+        List<Object[]> rows = drain.getDeltas().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+                .map(entry -> new Object[]{
+                        entry.getValue()[PostCounter.LIKES.ordinal()],
+                        entry.getValue()[PostCounter.REPOSTS.ordinal()],
+                        entry.getValue()[PostCounter.SHARES.ordinal()],
+                        now,
+                        entry.getKey()
+                })
+                .collect(Collectors.toList());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, rows));
+            buffer.complete();
+            flushLag.record(drain.lagNanos(), TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            buffer.restore();
+            flushFailures.increment();
+            log.warn("Failed to flush counters for {} posts, will retry", rows.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Persisted value plus everything buffered, including a delta about to be added
+     */
+    private int display(PostCounts counts, UUID postId, PostCounter counter, int delta) {
+        long[] pending = buffer.pending(postId);
+        long buffered = pending == null ? 0 : pending[counter.ordinal()];
+        return clamp(counts.get(counter) + buffered + delta);
+    }
+
+    /**
+     * Only count the interaction once the like row (if any) is committed, so a rolled back
+     * request never leaves a delta behind
+     */
+    private void addAfterCommit(UUID postId, PostCounter counter, int delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            buffer.add(postId, counter, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                buffer.add(postId, counter, delta);
+            }
+        });
+    }
+
+    private static int plus(Integer persisted, long pending) {
+        return clamp((persisted == null ? 0 : persisted) + pending);
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, value));
+    }
+}
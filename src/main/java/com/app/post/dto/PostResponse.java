@@ -20,6 +20,7 @@ public class PostResponse {
     private BigDecimal price;
     private String currency;
     private Platform platform;
+    private String productUrl;
     private List<MediaResponse> media;
     private String location;
     private List<String> tags;
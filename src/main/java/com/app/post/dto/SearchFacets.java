@@ -0,0 +1,40 @@
+package com.app.post.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Counts of matching posts per platform and per price range. Each facet ignores its own filter,
+ * so a client can show how many posts the other platforms or price ranges would return.
+ */
+@Data @Builder
+public class SearchFacets {
+    private List<PlatformCount> platforms;
+    private List<PriceRangeCount> prices;
+
+    @Data
+    @Builder
+    public static class PlatformCount {
+        private UUID id;
+        private String name;
+        private long count;
+    }
+
+    @Data
+    @Builder
+    public static class PriceRangeCount {
+        /**
+         * Inclusive lower bound
+         */
+        private BigDecimal min;
+        /**
+         * Exclusive upper bound; null for the open-ended top range
+         */
+        private BigDecimal max;
+        private long count;
+    }
+}
@@ -5,6 +5,7 @@ import com.app.platform.entity.Platform;
 import com.app.media.entity.Media;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -46,7 +47,9 @@ public class Post {
     private int repostCount;
     private int shareCount;
 
+    // Initialized for up to a whole page of posts with one IN query against post_media
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JoinTable(
         name = "post_media",
         schema = "purchase_service",
@@ -0,0 +1,45 @@
+package com.app.post.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * One of several rows holding not-yet-compacted counter deltas for a post.
+ * Written and read only through native queries in PostCounterShardRepository.
+ */
+@Entity
+@Table(name = "post_counter_shards", schema = "purchase_service")
+@IdClass(PostCounterShard.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCounterShard {
+    @Id
+    @Column(name = "post_id")
+    private UUID postId;
+
+    @Id
+    @Column(name = "shard")
+    private Short shard;
+
+    @Column(name = "like_delta")
+    private Integer likeDelta;
+
+    @Column(name = "repost_delta")
+    private Integer repostDelta;
+
+    @Column(name = "share_delta")
+    private Integer shareDelta;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID postId;
+        private Short shard;
+    }
+}
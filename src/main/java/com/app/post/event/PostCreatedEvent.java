@@ -0,0 +1,15 @@
+package com.app.post.event;
+
+import com.app.post.dto.PostResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published inside the transaction that creates a post; listeners that must only see committed
+ * posts use {@code @TransactionalEventListener}
+ */
+@Getter
+@RequiredArgsConstructor
+public class PostCreatedEvent {
+    private final PostResponse post;
+}
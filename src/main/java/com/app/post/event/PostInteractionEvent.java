@@ -0,0 +1,24 @@
+package com.app.post.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that records an interaction with a post; like
+ * {@link PostCreatedEvent}, listeners that must only see committed interactions use
+ * {@code @TransactionalEventListener}. Unlikes are not published.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PostInteractionEvent {
+
+    public enum Type {
+        LIKED, COMMENTED, REPOSTED, SHARED
+    }
+
+    private final UUID postId;
+    private final UUID userId;
+    private final Type type;
+}
@@ -0,0 +1,11 @@
+package com.app.post.repo;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of post prices in one currency
+ */
+public interface CurrencyTotal {
+    String getCurrency();
+    BigDecimal getTotal();
+}
@@ -0,0 +1,74 @@
+package com.app.post.repo;
+
+import com.app.post.counter.PostCounterTotals;
+import com.app.post.entity.PostCounterShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PostCounterShardRepository extends JpaRepository<PostCounterShard, PostCounterShard.Key> {
+
+    String TOTALS_SELECT =
+            "SELECT p.id AS postId, " +
+            "CAST(GREATEST(p.like_count + COALESCE(SUM(s.like_delta), 0), 0) AS INTEGER) AS likeCount, " +
+            "CAST(p.repost_count + COALESCE(SUM(s.repost_delta), 0) AS INTEGER) AS repostCount, " +
+            "CAST(p.share_count + COALESCE(SUM(s.share_delta), 0) AS INTEGER) AS shareCount " +
+            "FROM purchase_service.posts p " +
+            "LEFT JOIN purchase_service.post_counter_shards s ON s.post_id = p.id ";
+
+    /**
+     * Add deltas to one shard of a post, creating the shard row on first use.
+     * Only that shard row is locked, so concurrent writers to other shards never wait.
+     * Returns the post id, or empty if the post does not exist.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO purchase_service.post_counter_shards AS s (post_id, shard, like_delta, repost_delta, share_delta) " +
+                   "SELECT p.id, :shard, :likes, :reposts, :shares FROM purchase_service.posts p WHERE p.id = :postId " +
+                   "ON CONFLICT (post_id, shard) DO UPDATE SET " +
+                   "like_delta = s.like_delta + EXCLUDED.like_delta, " +
+                   "repost_delta = s.repost_delta + EXCLUDED.repost_delta, " +
+                   "share_delta = s.share_delta + EXCLUDED.share_delta " +
+                   "RETURNING post_id", nativeQuery = true)
+    Optional<UUID> addToShard(@Param("postId") UUID postId, @Param("shard") short shard,
+                              @Param("likes") int likes, @Param("reposts") int reposts, @Param("shares") int shares);
+
+    /**
+     * Persisted counts plus shard deltas, read in one statement so compaction can never be seen half-done
+     */
+    @Query(value = TOTALS_SELECT + "WHERE p.id = :postId GROUP BY p.id", nativeQuery = true)
+    Optional<PostCounterTotals> findTotalsById(@Param("postId") UUID postId);
+
+    @Query(value = TOTALS_SELECT + "WHERE p.id IN (:postIds) GROUP BY p.id", nativeQuery = true)
+    List<PostCounterTotals> findTotalsByIdIn(@Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Fold every shard back into its posts row and delete it, in one statement.
+     * Returns the number of posts updated.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH folded AS (" +
+                   "    DELETE FROM purchase_service.post_counter_shards " +
+                   "    RETURNING post_id, like_delta, repost_delta, share_delta" +
+                   "), sums AS (" +
+                   "    SELECT post_id, SUM(like_delta) AS likes, SUM(repost_delta) AS reposts, SUM(share_delta) AS shares " +
+                   "    FROM folded GROUP BY post_id" +
+                   ") " +
+                   "UPDATE purchase_service.posts p SET " +
+                   "like_count = GREATEST(p.like_count + sums.likes, 0), " +
+                   "repost_count = p.repost_count + sums.reposts, " +
+                   "share_count = p.share_count + sums.shares, " +
+                   "updated_at = :now " +
+                   "FROM sums WHERE p.id = sums.post_id", nativeQuery = true)
+    int compactShards(@Param("now") Instant now);
+}
@@ -5,9 +5,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -48,4 +52,60 @@ public interface PostLikeRepository extends JpaRepository<PostLike, UUID> {
      */
     @Query("SELECT pl.post.id FROM PostLike pl WHERE pl.user.id = :userId")
     List<UUID> findLikedPostIdsByUserId(@Param("userId") UUID userId);
-}
\ No newline at end of file
+    
+    /**
+     * Get the subset of the given post IDs that a user has liked, in a single query
+     */
+    @Query("SELECT pl.post.id FROM PostLike pl WHERE pl.user.id = :userId AND pl.post.id IN :postIds")
+    Set<UUID> findLikedPostIdsByUserIdAndPostIdIn(@Param("userId") UUID userId,
+                                                  @Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Like a post and bump posts.like_count in one statement.
+     * Returns the new like count, or empty if the like already exists or the post does not.
+     * Concurrent duplicates are absorbed by ON CONFLICT instead of failing the unique constraint.
+     */
+    @Transactional
+    @Query(value = "WITH inserted AS (" +
+                   "    INSERT INTO purchase_service.post_likes (user_id, post_id, created_at) " +
+                   "    SELECT :userId, p.id, :now FROM purchase_service.posts p WHERE p.id = :postId " +
+                   "    ON CONFLICT (user_id, post_id) DO NOTHING " +
+                   "    RETURNING post_id" +
+                   ") " +
+                   "UPDATE purchase_service.posts SET like_count = like_count + 1, updated_at = :now " +
+                   "WHERE id IN (SELECT post_id FROM inserted) RETURNING like_count", nativeQuery = true)
+    Optional<Integer> insertLike(@Param("userId") UUID userId, @Param("postId") UUID postId, @Param("now") Instant now);
+
+    /**
+     * Unlike a post and decrement posts.like_count in one statement.
+     * Returns the new like count, or empty if there was no like to remove.
+     */
+    @Transactional
+    @Query(value = "WITH deleted AS (" +
+                   "    DELETE FROM purchase_service.post_likes WHERE user_id = :userId AND post_id = :postId " +
+                   "    RETURNING post_id" +
+                   ") " +
+                   "UPDATE purchase_service.posts SET like_count = GREATEST(like_count - 1, 0), updated_at = :now " +
+                   "WHERE id IN (SELECT post_id FROM deleted) RETURNING like_count", nativeQuery = true)
+    Optional<Integer> deleteLike(@Param("userId") UUID userId, @Param("postId") UUID postId, @Param("now") Instant now);
+
+    /**
+     * Insert only the like row, leaving posts.like_count to the caller.
+     * Returns the post id, or empty if the like already exists or the post does not.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO purchase_service.post_likes (user_id, post_id, created_at) " +
+                   "SELECT :userId, p.id, :now FROM purchase_service.posts p WHERE p.id = :postId " +
+                   "ON CONFLICT (user_id, post_id) DO NOTHING " +
+                   "RETURNING post_id", nativeQuery = true)
+    Optional<UUID> insertLikeRow(@Param("userId") UUID userId, @Param("postId") UUID postId, @Param("now") Instant now);
+
+    /**
+     * Delete only the like row, leaving posts.like_count to the caller.
+     * Returns the post id, or empty if there was no like to remove.
+     */
+    @Transactional
+    @Query(value = "DELETE FROM purchase_service.post_likes WHERE user_id = :userId AND post_id = :postId " +
+                   "RETURNING post_id", nativeQuery = true)
+    Optional<UUID> deleteLikeRow(@Param("userId") UUID userId, @Param("postId") UUID postId);
+}
@@ -1,49 +1,120 @@
 package com.app.post.repo;
 
+import com.app.post.counter.PostCounts;
 import com.app.post.entity.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface PostRepository extends JpaRepository<Post, UUID> {
+/**
+ * Feed and search queries load author and platform in the same select via an entity graph;
+ * media is batch-fetched per page (see {@link Post#getMedia()}).
+ */
+public interface PostRepository extends JpaRepository<Post, UUID>, PostSearchRepository {
+    @EntityGraph(attributePaths = {"author", "platform"})
     Page<Post> findByAuthorId(UUID authorId, Pageable pageable);
-    
+
+    @Override
+    @EntityGraph(attributePaths = {"author", "platform"})
+    Page<Post> findAll(Pageable pageable);
+
+    /**
+     * A page of all posts without the count query; fetches one extra row to tell whether
+     * there is a next page
+     */
+    @EntityGraph(attributePaths = {"author", "platform"})
+    Slice<Post> findSliceBy(Pageable pageable);
+
+    /**
+     * First page of the keyset-paginated feed. Returns a List so no count query is issued.
+     */
+    @EntityGraph(attributePaths = {"author", "platform"})
+    @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findFeed(Pageable pageable);
+
+    /**
+     * Feed page strictly after the given (createdAt, id) position, served by idx_posts_created_at_id
+     */
+    @EntityGraph(attributePaths = {"author", "platform"})
+    @Query("SELECT p FROM Post p " +
+           "WHERE (p.createdAt, p.id) < (:createdAt, :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findFeedAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
+
     /**
-     * Search posts by keyword across multiple fields
-     * Searches in post text, author username, author display name, and platform name
+     * Oldest-first chunk of posts strictly after the given (createdAt, id) position, for
+     * streaming the whole table in bounded batches
      */
+    @EntityGraph(attributePaths = {"author", "platform"})
     @Query("SELECT p FROM Post p " +
-           "LEFT JOIN p.author a " +
-           "LEFT JOIN p.platform pl " +
-           "WHERE LOWER(p.text) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(a.username) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(a.displayName) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(pl.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "ORDER BY p.createdAt DESC")
-    Page<Post> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+           "WHERE (p.createdAt, p.id) > (:createdAt, :id) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<Post> findChunkAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Load a single post with everything needed to render it
+     */
+    @EntityGraph(attributePaths = {"author", "platform", "media"})
+    Optional<Post> findDetailedById(UUID id);
     
     /**
-     * Search posts by multiple keywords (all keywords must match)
-     */
-    @Query("SELECT DISTINCT p FROM Post p " +
-           "LEFT JOIN p.author a " +
-           "LEFT JOIN p.platform pl " +
-           "WHERE (" +
-           "    LOWER(p.text) LIKE LOWER(CONCAT('%', :keyword1, '%')) " +
-           "    OR LOWER(a.username) LIKE LOWER(CONCAT('%', :keyword1, '%')) " +
-           "    OR LOWER(a.displayName) LIKE LOWER(CONCAT('%', :keyword1, '%')) " +
-           "    OR LOWER(pl.name) LIKE LOWER(CONCAT('%', :keyword1, '%'))" +
-           ") " +
-           "AND (" +
-           "    LOWER(p.text) LIKE LOWER(CONCAT('%', :keyword2, '%')) " +
-           "    OR LOWER(a.username) LIKE LOWER(CONCAT('%', :keyword2, '%')) " +
-           "    OR LOWER(a.displayName) LIKE LOWER(CONCAT('%', :keyword2, '%')) " +
-           "    OR LOWER(pl.name) LIKE LOWER(CONCAT('%', :keyword2, '%'))" +
-           ") " +
-           "ORDER BY p.createdAt DESC")
-    Page<Post> searchByTwoKeywords(@Param("keyword1") String keyword1, @Param("keyword2") String keyword2, Pageable pageable);
+     * Load a page of posts by id with author and platform, in no particular order
+     */
+    @EntityGraph(attributePaths = {"author", "platform"})
+    List<Post> findByIdIn(Collection<UUID> ids);
+
+    /**
+     * Current like count, or empty if the post does not exist
+     */
+    @Query("SELECT p.likeCount FROM Post p WHERE p.id = :id")
+    Optional<Integer> findLikeCountById(@Param("id") UUID id);
+
+    /**
+     * Current like, repost and share counts, or empty if the post does not exist
+     */
+    @Query("SELECT p.likeCount AS likeCount, p.repostCount AS repostCount, p.shareCount AS shareCount " +
+           "FROM Post p WHERE p.id = :id")
+    Optional<PostCounts> findCountsById(@Param("id") UUID id);
+
+    /**
+     * Total price of all posts per currency code, upper-cased and trimmed; posts without a price
+     * or currency are left out
+     */
+    @Query("SELECT UPPER(TRIM(p.currency)) AS currency, SUM(p.price) AS total FROM Post p " +
+           "WHERE p.price IS NOT NULL AND TRIM(p.currency) <> '' GROUP BY UPPER(TRIM(p.currency))")
+    List<CurrencyTotal> sumPriceByCurrency();
+
+    /*
+     * Atomic counter updates. Each is a single UPDATE ... RETURNING, so concurrent interactions
+     * on the same post never lose increments and no other column is rewritten. An empty result
+     * means the post does not exist. Like counts are adjusted together with the like row in
+     * PostLikeRepository. These are plain (non-@Modifying) queries because
+     * executeUpdate cannot read the RETURNING row.
+     */
+
+    @Transactional
+    @Query(value = "UPDATE purchase_service.posts SET comment_count = GREATEST(comment_count + :delta, 0), updated_at = :updatedAt " +
+                   "WHERE id = :id RETURNING comment_count", nativeQuery = true)
+    Optional<Integer> adjustCommentCount(@Param("id") UUID id, @Param("delta") int delta, @Param("updatedAt") Instant updatedAt);
+
+    @Transactional
+    @Query(value = "UPDATE purchase_service.posts SET repost_count = repost_count + 1, updated_at = :updatedAt " +
+                   "WHERE id = :id RETURNING repost_count", nativeQuery = true)
+    Optional<Integer> incrementRepostCount(@Param("id") UUID id, @Param("updatedAt") Instant updatedAt);
+
+    @Transactional
+    @Query(value = "UPDATE purchase_service.posts SET share_count = share_count + 1, updated_at = :updatedAt " +
+                   "WHERE id = :id RETURNING share_count", nativeQuery = true)
+    Optional<Integer> incrementShareCount(@Param("id") UUID id, @Param("updatedAt") Instant updatedAt);
 }
@@ -0,0 +1,41 @@
+package com.app.post.repo;
+
+import com.app.common.pagination.PageTotals;
+import com.app.common.pagination.TotalMode;
+import com.app.post.dto.SearchFacets;
+import com.app.post.search.SearchFilters;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.UUID;
+
+/**
+ * Search queries whose SQL depends on which filters are set, so each filter only adds a
+ * predicate (and can use its index) when present. Mixed into {@link PostRepository}.
+ */
+public interface PostSearchRepository {
+
+    /**
+     * Ids of posts matching the keyword and filters, best first. Without a keyword, all posts
+     * matching the filters, newest first.
+     *
+     * @param query a prefix tsquery expression, see {@link com.app.post.search.SearchTerms}; each
+     *              term is matched stemmed against post text and as typed against names. Null
+     *              for filters only
+     * @param text the keyword as typed, compared to names by trigram similarity
+     * @param pattern an ILIKE pattern for substring matches on names
+     * @param totals whether and how to count all matches; see {@link PageTotals}
+     */
+    Slice<UUID> searchIds(String query, String text, String pattern, SearchFilters filters, Pageable pageable,
+                          TotalMode totals);
+
+    /**
+     * The query planner's estimate of how many posts pass the filters, without counting them
+     */
+    long estimateCount(SearchFilters filters);
+
+    /**
+     * Platform and price facet counts for the same matches, in one query
+     */
+    SearchFacets searchFacets(String query, String text, String pattern, SearchFilters filters);
+}
@@ -0,0 +1,255 @@
+package com.app.post.repo;
+
+import com.app.common.pagination.PageTotals;
+import com.app.common.pagination.TotalMode;
+import com.app.post.dto.SearchFacets;
+import com.app.post.search.SearchFilters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class PostSearchRepositoryImpl implements PostSearchRepository {
+
+    /*
+     * Search hits from three index-backed sources, scored per post:
+     * full-text on idx_posts_search_vector (each term stemmed for the post text and as typed for
+     * the names, matching how the vector is built), and trigram similarity or substring matches on
+     * author and platform names (idx_*_trgm), followed to posts via idx_posts_author_id and
+     * idx_posts_platform_created_at.
+     */
+    private static final String SEARCH_HITS =
+            "WITH q AS (SELECT purchase_service.post_search_query(:query) AS tsq), " +
+            "matched_authors AS (" +
+            "    SELECT u.id, GREATEST(similarity(u.username, :text), similarity(COALESCE(u.display_name, ''), :text)) AS score " +
+            "    FROM purchase_service.users u " +
+            "    WHERE u.username % :text OR u.display_name % :text " +
+            "       OR u.username ILIKE :pattern OR u.display_name ILIKE :pattern" +
+            "), " +
+            "matched_platforms AS (" +
+            "    SELECT pl.id, similarity(pl.name, :text) AS score " +
+            "    FROM purchase_service.platforms pl " +
+            "    WHERE pl.name % :text OR pl.name ILIKE :pattern" +
+            "), " +
+            "hits AS (" +
+            "    SELECT p.id, ts_rank_cd(p.search_vector, q.tsq) AS score " +
+            "    FROM purchase_service.posts p, q WHERE p.search_vector @@ q.tsq " +
+            "    UNION ALL " +
+            "    SELECT p.id, a.score FROM purchase_service.posts p JOIN matched_authors a ON a.id = p.author_id " +
+            "    UNION ALL " +
+            "    SELECT p.id, m.score FROM purchase_service.posts p JOIN matched_platforms m ON m.id = p.platform_id" +
+            ") ";
+
+    /**
+     * Upper bounds of the price facet ranges; below the first and above the last are ranges too
+     */
+    static final BigDecimal[] PRICE_BOUNDS = {
+            new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100"),
+            new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000")
+    };
+
+    private static final String PRICE_BUCKET = "width_bucket(p.price, ARRAY[25, 50, 100, 250, 500, 1000]::numeric[])";
+
+    /**
+     * Most hit rows read to count matches for an estimated total
+     */
+    static final int COUNT_LIMIT = 1000;
+
+    // e.g. "Limit  (cost=0.14..8.16 rows=12 width=16)"
+    private static final Pattern PLAN_ROWS = Pattern.compile("\\brows=(\\d+)");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Slice<UUID> searchIds(String query, String text, String pattern, SearchFilters filters, Pageable pageable,
+                                 TotalMode totals) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                // One extra row tells whether there is a next page
+                .addValue("limit", pageable.getPageSize() + 1)
+                .addValue("offset", pageable.getOffset());
+        List<String> conditions = new ArrayList<>();
+        addPlatformCondition(filters, conditions, params);
+        addPriceConditions(filters, conditions, params);
+        addOtherConditions(filters, conditions, params);
+        String where = where(conditions);
+
+        String select;
+        String hits;
+        if (query == null) {
+            select = "SELECT p.id FROM purchase_service.posts p" + where +
+                     " ORDER BY p.created_at DESC, p.id DESC";
+            hits = "SELECT p.id FROM purchase_service.posts p" + where;
+        } else {
+            addKeyword(query, text, pattern, params);
+            String matches = " FROM hits h JOIN purchase_service.posts p ON p.id = h.id" + where;
+            select = SEARCH_HITS + "SELECT h.id" + matches +
+                     " GROUP BY h.id, p.created_at ORDER BY SUM(h.score) DESC, p.created_at DESC, h.id DESC";
+            hits = SEARCH_HITS + "SELECT h.id" + matches;
+        }
+
+        List<UUID> ids = jdbcTemplate.queryForList(select + " LIMIT :limit OFFSET :offset", params, UUID.class);
+        return PageTotals.of(ids, pageable, totals,
+                () -> jdbcTemplate.queryForObject(countSql(hits), params, Long.class),
+                () -> estimateMatches(hits, params));
+    }
+
+    @Override
+    public long estimateCount(SearchFilters filters) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = new ArrayList<>();
+        addPlatformCondition(filters, conditions, params);
+        addPriceConditions(filters, conditions, params);
+        addOtherConditions(filters, conditions, params);
+        return estimateRows("SELECT p.id FROM purchase_service.posts p" + where(conditions), params);
+    }
+
+    @Override
+    public SearchFacets searchFacets(String query, String text, String pattern, SearchFilters filters) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> platform = new ArrayList<>();
+        List<String> price = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        addPlatformCondition(filters, platform, params);
+        addPriceConditions(filters, price, params);
+        addOtherConditions(filters, others, params);
+
+        // Every match once, with whether it passes the platform and price filters; each facet
+        // then counts the matches that pass all filters except its own
+        String source = "FROM purchase_service.posts p";
+        String prefix = "WITH ";
+        if (query != null) {
+            addKeyword(query, text, pattern, params);
+            source = "FROM (SELECT DISTINCT id FROM hits) h JOIN purchase_service.posts p ON p.id = h.id";
+            prefix = SEARCH_HITS + ", ";
+        }
+        String matches = prefix + "matches AS (SELECT p.platform_id, " + PRICE_BUCKET + " AS bucket, " +
+                         flag(platform) + " AS platform_ok, " + flag(price) + " AS price_ok " +
+                         source + where(others) + ") ";
+
+        String sql = matches +
+                "SELECT 'platform' AS facet, m.platform_id AS platform_id, pl.name AS name, NULL AS bucket, count(*) AS posts " +
+                "FROM matches m JOIN purchase_service.platforms pl ON pl.id = m.platform_id " +
+                "WHERE m.price_ok GROUP BY m.platform_id, pl.name " +
+                "UNION ALL " +
+                "SELECT 'price', NULL, NULL, m.bucket, count(*) " +
+                "FROM matches m WHERE m.platform_ok AND m.bucket IS NOT NULL GROUP BY m.bucket";
+
+        List<SearchFacets.PlatformCount> platforms = new ArrayList<>();
+        List<SearchFacets.PriceRangeCount> prices = new ArrayList<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            if ("platform".equals(rs.getString("facet"))) {
+                platforms.add(SearchFacets.PlatformCount.builder()
+                        .id(rs.getObject("platform_id", UUID.class))
+                        .name(rs.getString("name"))
+                        .count(rs.getLong("posts"))
+                        .build());
+            } else {
+                int bucket = rs.getInt("bucket");
+                prices.add(SearchFacets.PriceRangeCount.builder()
+                        .min(bucket == 0 ? BigDecimal.ZERO : PRICE_BOUNDS[bucket - 1])
+                        .max(bucket == PRICE_BOUNDS.length ? null : PRICE_BOUNDS[bucket])
+                        .count(rs.getLong("posts"))
+                        .build());
+            }
+        });
+
+        platforms.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        prices.sort((a, b) -> a.getMin().compareTo(b.getMin()));
+        return SearchFacets.builder().platforms(platforms).prices(prices).build();
+    }
+
+    /**
+     * Counts matches while there are few, which is the common case for keyword searches and
+     * costs little; once {@link #COUNT_LIMIT} hit rows are read it asks the planner instead.
+     * Planner estimates alone are poor here: full-text prefix matches and the union of hit
+     * sources both get fixed-guess selectivities.
+     *
+     * <p>Whether the limit was reached is decided on hit rows, not distinct posts: a post can be
+     * hit by its text, author and platform, so the distinct count of a full window can be far
+     * below the limit while there are many more matches.
+     */
+    private long estimateMatches(String hits, MapSqlParameterSource params) {
+        long[] counted = jdbcTemplate.queryForObject(
+                "SELECT count(*), count(DISTINCT id) FROM (" + hits + " LIMIT " + COUNT_LIMIT + ") counted",
+                params, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        long rows = counted[0];
+        long distinct = counted[1];
+        if (rows < COUNT_LIMIT) {
+            return distinct;
+        }
+        return Math.max(distinct, estimateRows(hits, params));
+    }
+
+    /**
+     * Distinct posts among the hits; a post can be hit by its text, author and platform
+     */
+    private static String countSql(String hits) {
+        return "SELECT count(DISTINCT id) FROM (" + hits + ") counted";
+    }
+
+    /**
+     * Row count the planner expects from the query, read from the top node of its plan. Costs a
+     * planning pass, not an execution; as accurate as the table statistics.
+     */
+    private long estimateRows(String sql, MapSqlParameterSource params) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, params, String.class);
+        Matcher rows = PLAN_ROWS.matcher(plan.isEmpty() ? "" : plan.get(0));
+        return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+    }
+
+    private static void addKeyword(String query, String text, String pattern, MapSqlParameterSource params) {
+        params.addValue("query", query).addValue("text", text).addValue("pattern", pattern);
+    }
+
+    private static void addPlatformCondition(SearchFilters filters, List<String> conditions, MapSqlParameterSource params) {
+        if (filters.getPlatformId() != null) {
+            conditions.add("p.platform_id = :platformId");
+            params.addValue("platformId", filters.getPlatformId());
+        }
+    }
+
+    private static void addPriceConditions(SearchFilters filters, List<String> conditions, MapSqlParameterSource params) {
+        if (filters.getMinPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            params.addValue("minPrice", filters.getMinPrice());
+        }
+        if (filters.getMaxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            params.addValue("maxPrice", filters.getMaxPrice());
+        }
+    }
+
+    private static void addOtherConditions(SearchFilters filters, List<String> conditions, MapSqlParameterSource params) {
+        if (filters.getCurrency() != null && !filters.getCurrency().isBlank()) {
+            conditions.add("p.currency = :currency");
+            params.addValue("currency", filters.getCurrency().trim().toUpperCase(Locale.ROOT));
+        }
+        if (filters.getPurchasedFrom() != null) {
+            conditions.add("p.purchase_date >= :purchasedFrom");
+            params.addValue("purchasedFrom", Date.valueOf(filters.getPurchasedFrom()));
+        }
+        if (filters.getPurchasedTo() != null) {
+            conditions.add("p.purchase_date <= :purchasedTo");
+            params.addValue("purchasedTo", Date.valueOf(filters.getPurchasedTo()));
+        }
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String flag(List<String> conditions) {
+        return conditions.isEmpty() ? "TRUE" : "(" + String.join(" AND ", conditions) + ")";
+    }
+}
@@ -0,0 +1,65 @@
+package com.app.post.search;
+
+import com.app.common.pagination.TotalMode;
+import com.app.post.dto.SearchFacets;
+import com.app.post.repo.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Default engine: full-text search on posts.search_vector plus trigram matching on author and
+ * platform names, with filters and facets, all answered by Postgres indexes
+ */
+@Component
+public class DatabasePostSearchEngine implements PostSearchEngine {
+
+    private final PostRepository postRepository;
+    private final Timer queryTimer;
+
+    public DatabasePostSearchEngine(PostRepository postRepository, MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.queryTimer = Timer.builder("search.query")
+                .description("Time to find the ids of a page of search results")
+                .tag("engine", "database")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Slice<UUID> searchIds(String keyword, SearchFilters filters, Pageable pageable, TotalMode totals) {
+        if (isBlank(keyword)) {
+            return queryTimer.record(() -> postRepository.searchIds(null, null, null, filters, pageable, totals));
+        }
+        List<List<String>> groups = SearchTerms.parse(keyword);
+        if (groups.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        String text = keyword.trim();
+        return queryTimer.record(() -> postRepository.searchIds(SearchTerms.toPrefixQueryGroups(groups), text,
+                SearchTerms.toContainsPattern(text), filters, pageable, totals));
+    }
+
+    @Override
+    public SearchFacets facets(String keyword, SearchFilters filters) {
+        if (isBlank(keyword)) {
+            return postRepository.searchFacets(null, null, null, filters);
+        }
+        List<List<String>> groups = SearchTerms.parse(keyword);
+        if (groups.isEmpty()) {
+            return SearchFacets.builder().platforms(List.of()).prices(List.of()).build();
+        }
+        String text = keyword.trim();
+        return postRepository.searchFacets(SearchTerms.toPrefixQueryGroups(groups), text,
+                SearchTerms.toContainsPattern(text), filters);
+    }
+
+    private static boolean isBlank(String keyword) {
+        return keyword == null || keyword.isBlank();
+    }
+}
@@ -0,0 +1,160 @@
+package com.app.post.search;
+
+import com.app.common.pagination.TotalMode;
+import com.app.platform.entity.Platform;
+import com.app.post.dto.PostResponse;
+import com.app.post.dto.SearchFacets;
+import com.app.post.entity.Post;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.repo.PostRepository;
+import com.app.user.entity.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Answers searches from an {@link InvertedIndex} held in this instance's memory, ranked with BM25.
+ *
+ * <p>The index is built by streaming posts oldest first in chunks of
+ * {@code app.search.memory.chunk-size}; until that first pass finishes, searches go to the
+ * database engine. Posts created on this instance are indexed as soon as they commit, and a
+ * periodic catch-up picks up posts created on other instances.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class InMemoryPostSearchEngine implements PostSearchEngine {
+
+    private static final Instant BEGINNING = Instant.EPOCH;
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
+    /**
+     * How far before the newest indexed post each catch-up restarts, for posts whose transaction
+     * committed after a later post was already indexed. Re-indexing a post is harmless.
+     */
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(1);
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final PostRepository postRepository;
+    private final DatabasePostSearchEngine fallback;
+    private final int chunkSize;
+    private final Timer queryTimer;
+
+    private volatile boolean ready;
+    private Instant watermark = BEGINNING;
+
+    public InMemoryPostSearchEngine(PostRepository postRepository,
+                                    DatabasePostSearchEngine fallback,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.search.memory.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("app.search.memory.chunk-size must be positive");
+        }
+        this.postRepository = postRepository;
+        this.fallback = fallback;
+        this.chunkSize = chunkSize;
+        this.queryTimer = Timer.builder("search.query")
+                .description("Time to find the ids of a page of search results")
+                .tag("engine", "memory")
+                .register(meterRegistry);
+        meterRegistry.gauge("search.index.documents", index, InvertedIndex::documentCount);
+        meterRegistry.gauge("search.index.terms", index, InvertedIndex::termCount);
+        FunctionCounter.builder("search.index.truncated.prefixes", index, InvertedIndex::truncatedPrefixCount)
+                .description("Query prefixes that matched more index terms than are expanded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Filtered searches go to the database, which has the filter columns indexed. The index
+     * counts every match anyway, so its pages always carry the exact total.
+     */
+    @Override
+    public Slice<UUID> searchIds(String keyword, SearchFilters filters, Pageable pageable, TotalMode totals) {
+        if (!ready || filters.hasAny() || keyword == null || keyword.isBlank()) {
+            return fallback.searchIds(keyword, filters, pageable, totals);
+        }
+        List<List<String>> groups = SearchTerms.parse(keyword);
+        if (groups.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return queryTimer.record(() -> index.search(groups, pageable));
+    }
+
+    @Override
+    public SearchFacets facets(String keyword, SearchFilters filters) {
+        return fallback.facets(keyword, filters);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostCreated(PostCreatedEvent event) {
+        PostResponse post = event.getPost();
+        index.add(post.getId(), post.getTimestamp(), post.getContent(),
+                post.getUser() == null ? null : post.getUser().getUsername(),
+                post.getUser() == null ? null : post.getUser().getName(),
+                post.getPlatform() == null ? null : post.getPlatform().getName());
+    }
+
+    /**
+     * Index every post created since the last run, one chunk at a time. The first run builds
+     * the whole index.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.search.memory.catch-up-interval-ms:30000}")
+    public synchronized void catchUp() {
+        long started = System.nanoTime();
+        Instant createdAt = watermark.equals(BEGINNING) ? BEGINNING : watermark.minus(CATCH_UP_OVERLAP);
+        UUID id = LOWEST_ID;
+        int indexed = 0;
+
+        List<Post> chunk;
+        do {
+            chunk = postRepository.findChunkAfter(createdAt, id, PageRequest.of(0, chunkSize));
+            for (Post post : chunk) {
+                add(post);
+            }
+            if (!chunk.isEmpty()) {
+                Post last = chunk.get(chunk.size() - 1);
+                createdAt = last.getCreatedAt();
+                id = last.getId();
+            }
+            indexed += chunk.size();
+        } while (chunk.size() == chunkSize);
+
+        if (createdAt.isAfter(watermark)) {
+            watermark = createdAt;
+        }
+        if (!ready) {
+            ready = true;
+            log.info("Built search index of {} posts and {} terms in {} ms", index.documentCount(),
+                    index.termCount(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } else if (indexed > 0) {
+            log.debug("Search index caught up on {} posts", indexed);
+        }
+    }
+
+    private void add(Post post) {
+        User author = post.getAuthor();
+        Platform platform = post.getPlatform();
+        index.add(post.getId(), post.getCreatedAt(), post.getText(),
+                author == null ? null : author.getUsername(),
+                author == null ? null : author.getDisplayName(),
+                platform == null ? null : platform.getName());
+    }
+}
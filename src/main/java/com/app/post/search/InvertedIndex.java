@@ -0,0 +1,263 @@
+package com.app.post.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Thread-safe in-memory inverted index of posts with BM25 ranking. Every query term matches as
+ * a prefix, like the database engine. Queries share a read lock; adding a post takes the write
+ * lock for the time it takes to update its postings.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * Upper bound on index terms a single query prefix expands to, so "a" cannot score the
+     * postings of the whole dictionary. The terms in the most posts are kept; the database engine
+     * has no such limit, so every prefix that hits it is counted.
+     */
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    // Fewest posts first, and alphabetically last among equals, so the head is the next to drop
+    private static final Comparator<Map.Entry<String, Map<UUID, Integer>>> LEAST_FREQUENT = Comparator
+            .comparingInt((Map.Entry<String, Map<UUID, Integer>> entry) -> entry.getValue().size())
+            .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator
+            .comparingDouble((Hit hit) -> hit.score).reversed()
+            .thenComparing(hit -> hit.createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(hit -> hit.postId, Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+    private final Map<UUID, Document> documents = new HashMap<>();
+    private long totalLength;
+    private final AtomicLong truncatedPrefixes = new AtomicLong();
+
+    /**
+     * Index a post, replacing any previous version of it
+     *
+     * @param fields post text, author names, platform name; nulls are skipped
+     */
+    public void add(UUID postId, Instant createdAt, String... fields) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = 0;
+        for (String field : fields) {
+            for (String word : SearchTerms.words(field)) {
+                termFrequencies.merge(word, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+            termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(postId, frequency));
+            documents.put(postId, new Document(createdAt, length, termFrequencies.keySet()));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Query prefixes that matched more than {@link #MAX_PREFIX_EXPANSIONS} terms and were cut
+     */
+    public long truncatedPrefixCount() {
+        return truncatedPrefixes.get();
+    }
+
+    /**
+     * Posts matching every term of at least one group, ranked by BM25 summed over the matched
+     * terms, then newest first
+     */
+    public Page<UUID> search(List<List<String>> groups, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            Map<UUID, Double> scores = new HashMap<>();
+            for (List<String> group : groups) {
+                matchAll(group).forEach((postId, score) -> scores.merge(postId, score, Double::sum));
+            }
+            return page(scores, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<UUID, Double> matchAll(List<String> terms) {
+        Map<UUID, Double> scores = null;
+        for (String term : terms) {
+            Map<UUID, Double> termScores = scoreTerm(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                // AND: keep only posts that also match this term
+                Map<UUID, Double> both = new HashMap<>();
+                for (Map.Entry<UUID, Double> entry : scores.entrySet()) {
+                    Double termScore = termScores.get(entry.getKey());
+                    if (termScore != null) {
+                        both.put(entry.getKey(), entry.getValue() + termScore);
+                    }
+                }
+                scores = both;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores == null ? Map.of() : scores;
+    }
+
+    /**
+     * BM25 contribution of a query term for every post containing a word it is a prefix of
+     */
+    private Map<UUID, Double> scoreTerm(String prefix) {
+        Map<UUID, Double> scores = new HashMap<>();
+        int documentCount = documents.size();
+        double averageLength = documentCount == 0 ? 0 : (double) totalLength / documentCount;
+        for (Map.Entry<String, Map<UUID, Integer>> entry : expand(prefix)) {
+            Map<UUID, Integer> posting = entry.getValue();
+            double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+            posting.forEach((postId, frequency) -> {
+                int length = documents.get(postId).length;
+                double norm = averageLength == 0 ? 1 : 1 - B + B * length / averageLength;
+                double score = idf * frequency * (K1 + 1) / (frequency + K1 * norm);
+                scores.merge(postId, score, Double::sum);
+            });
+        }
+        return scores;
+    }
+
+    /**
+     * Index terms starting with the prefix: all of them, or the {@link #MAX_PREFIX_EXPANSIONS}
+     * in the most posts
+     */
+    private Iterable<Map.Entry<String, Map<UUID, Integer>>> expand(String prefix) {
+        PriorityQueue<Map.Entry<String, Map<UUID, Integer>>> kept = new PriorityQueue<>(LEAST_FREQUENT);
+        boolean truncated = false;
+        for (Map.Entry<String, Map<UUID, Integer>> entry : postings.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            kept.add(entry);
+            if (kept.size() > MAX_PREFIX_EXPANSIONS) {
+                kept.poll();
+                truncated = true;
+            }
+        }
+        if (truncated) {
+            truncatedPrefixes.incrementAndGet();
+        }
+        return kept;
+    }
+
+    private Page<UUID> page(Map<UUID, Double> scores, Pageable pageable) {
+        long end = pageable.getOffset() + pageable.getPageSize();
+        if (scores.isEmpty() || pageable.getOffset() >= scores.size()) {
+            return new PageImpl<>(List.of(), pageable, scores.size());
+        }
+
+        // Keep only the best offset + size hits instead of sorting every match
+        PriorityQueue<Hit> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        scores.forEach((postId, score) -> {
+            best.add(new Hit(postId, score, documents.get(postId).createdAt));
+            if (best.size() > end) {
+                best.poll();
+            }
+        });
+
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        List<UUID> ids = ranked.subList((int) pageable.getOffset(), ranked.size()).stream()
+                .map(hit -> hit.postId)
+                .collect(Collectors.toList());
+        return new PageImpl<>(ids, pageable, scores.size());
+    }
+
+    private void removeLocked(UUID postId) {
+        Document previous = documents.remove(postId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length;
+        for (String term : previous.terms) {
+            Map<UUID, Integer> posting = postings.get(term);
+            posting.remove(postId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static final class Document {
+        private final Instant createdAt;
+        private final int length;
+        private final Set<String> terms;
+
+        private Document(Instant createdAt, int length, Set<String> terms) {
+            this.createdAt = createdAt;
+            this.length = length;
+            this.terms = new HashSet<>(terms);
+        }
+    }
+
+    private static final class Hit {
+        private final UUID postId;
+        private final double score;
+        private final Instant createdAt;
+
+        private Hit(UUID postId, double score, Instant createdAt) {
+            this.postId = postId;
+            this.score = score;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.app.post.search;
+
+import com.app.common.pagination.TotalMode;
+import com.app.post.dto.SearchFacets;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.UUID;
+
+/**
+ * Finds posts for a search string (see {@link SearchTerms} for the syntax) and filters. The
+ * engine is chosen per deployment with {@code app.search.engine}.
+ */
+public interface PostSearchEngine {
+
+    /**
+     * Ids of matching posts for the requested page, best match first, newest first among equals.
+     * A blank keyword matches every post that passes the filters, newest first.
+     *
+     * @param totals how to count all matches; an engine that gets the exact total for free may
+     *               return it regardless
+     */
+    Slice<UUID> searchIds(String keyword, SearchFilters filters, Pageable pageable, TotalMode totals);
+
+    /**
+     * Platform and price range counts for the same matches
+     */
+    SearchFacets facets(String keyword, SearchFilters filters);
+}
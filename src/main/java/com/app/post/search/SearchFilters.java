@@ -0,0 +1,49 @@
+package com.app.post.search;
+
+import com.app.common.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Structured restrictions applied on top of the keyword; bound from the search request's query
+ * parameters. Every field is optional and ranges are inclusive.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFilters {
+    private UUID platformId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String currency;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate purchasedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate purchasedTo;
+
+    public static SearchFilters none() {
+        return new SearchFilters();
+    }
+
+    public boolean hasAny() {
+        return platformId != null || minPrice != null || maxPrice != null || currency != null
+                || purchasedFrom != null || purchasedTo != null;
+    }
+
+    public void validate() {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+        if (purchasedFrom != null && purchasedTo != null && purchasedFrom.isAfter(purchasedTo)) {
+            throw new BadRequestException("purchasedFrom must not be after purchasedTo");
+        }
+    }
+}
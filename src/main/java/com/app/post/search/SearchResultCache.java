@@ -0,0 +1,184 @@
+package com.app.post.search;
+
+import com.app.common.pagination.TotalMode;
+import com.app.post.event.PostCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of search result pages (post ids and total), keyed by the parsed query, the raw
+ * text, the filters and the total mode. The raw text is part of the key because the trigram and
+ * ILIKE matches see it, not the parsed terms; it is trimmed and lower-cased, as both matches
+ * ignore case, so "iPhone" and " iphone" still share an entry. Bounded by the total number of
+ * cached ids rather than entries, since a page of 100 costs ten times a page of 10.
+ *
+ * <p>Any committed post can change any result, so creating one clears the cache. Entries also
+ * expire after {@code app.search.cache.ttl-ms} to bound staleness from posts created on other
+ * instances. Setting {@code app.search.cache.max-ids} to 0 disables caching.
+ */
+@Component
+public class SearchResultCache {
+
+    private static final long NO_TOTAL = -1;
+
+    private final int maxIds;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedIds;
+    // Bumped on every invalidation so a search that started before it is not cached after it
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${app.search.cache.max-ids:50000}") int maxIds,
+                             @Value("${app.search.cache.ttl-ms:30000}") long ttlMs) {
+        this.maxIds = maxIds;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.hits = Counter.builder("search.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("search.cache.misses").register(meterRegistry);
+        this.evictions = Counter.builder("search.cache.evictions")
+                .description("Entries dropped to stay within app.search.cache.max-ids")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("search.cache.invalidations")
+                .description("Times the whole cache was cleared because a post was created")
+                .register(meterRegistry);
+        meterRegistry.gauge("search.cache.entries", this, SearchResultCache::size);
+        meterRegistry.gauge("search.cache.ids", this, SearchResultCache::idCount);
+    }
+
+    /**
+     * Cached page for the query, or the result of {@code search}, which is then cached
+     */
+    public Slice<UUID> get(String keyword, SearchFilters filters, Pageable pageable, TotalMode totals,
+                           Supplier<Slice<UUID>> search) {
+        if (maxIds <= 0) {
+            return search.get();
+        }
+        String key = key(keyword, filters, pageable, totals);
+        long startedGeneration;
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null && !cached.isExpired(System.nanoTime())) {
+                hits.increment();
+                return cached.toSlice(pageable);
+            }
+            if (cached != null) {
+                remove(key);
+            }
+            startedGeneration = generation;
+        }
+
+        misses.increment();
+        Slice<UUID> result = search.get();
+        put(key, startedGeneration, result);
+        return result;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostCreated(PostCreatedEvent event) {
+        invalidate();
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        if (!entries.isEmpty()) {
+            entries.clear();
+            cachedIds = 0;
+            invalidations.increment();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long idCount() {
+        return cachedIds;
+    }
+
+    private synchronized void put(String key, long startedGeneration, Slice<UUID> result) {
+        int weight = weight(result.getContent());
+        if (startedGeneration != generation || weight > maxIds) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(List.copyOf(result.getContent()), result.hasNext(),
+                result instanceof Page<UUID> page ? page.getTotalElements() : NO_TOTAL, System.nanoTime() + ttlNanos));
+        if (previous != null) {
+            cachedIds -= weight(previous.ids);
+        }
+        cachedIds += weight;
+
+        // Least recently used first
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (cachedIds > maxIds && eldest.hasNext()) {
+            Map.Entry<String, Entry> entry = eldest.next();
+            cachedIds -= weight(entry.getValue().ids);
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            cachedIds -= weight(removed.ids);
+        }
+    }
+
+    private static String key(String keyword, SearchFilters filters, Pageable pageable, TotalMode totals) {
+        return SearchTerms.toPrefixQueryGroups(SearchTerms.parse(keyword))
+                + "#" + (keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT)) + "#" + filters
+                + "#" + pageable.getPageNumber() + "x" + pageable.getPageSize() + "#" + totals;
+    }
+
+    /**
+     * An empty page still costs a slot
+     */
+    private static int weight(List<UUID> ids) {
+        return Math.max(1, ids.size());
+    }
+
+    private static final class Entry {
+        private final List<UUID> ids;
+        private final boolean hasNext;
+        private final long total;
+        private final long expiresAtNanos;
+
+        private Entry(List<UUID> ids, boolean hasNext, long total, long expiresAtNanos) {
+            this.ids = ids;
+            this.hasNext = hasNext;
+            this.total = total;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private Slice<UUID> toSlice(Pageable pageable) {
+            return total == NO_TOTAL ? new SliceImpl<>(ids, pageable, hasNext) : new PageImpl<>(ids, pageable, total);
+        }
+
+        private boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+    }
+}
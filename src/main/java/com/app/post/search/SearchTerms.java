@@ -0,0 +1,116 @@
+package com.app.post.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a free-text search string into terms and into a Postgres tsquery.
+ *
+ * <p>Query syntax shared by every search engine: words are ANDed, and an upper-case {@code OR}
+ * between words separates alternatives, so {@code sony headphones OR bose} means
+ * (sony AND headphones) OR bose. Every word also matches as a prefix.
+ */
+public final class SearchTerms {
+
+    /**
+     * Upper bound on terms per query so a pasted paragraph cannot build an unbounded tsquery
+     */
+    public static final int MAX_TERMS = 32;
+
+    private static final String OR = "OR";
+    private static final String WORD_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+    private SearchTerms() {
+    }
+
+    /**
+     * Every lower-cased word of the text in order, duplicates included
+     */
+    public static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split(WORD_SEPARATOR))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Lower-cased, de-duplicated words of the input. Anything that is not a letter or a digit
+     * separates words, so the result is always safe to embed in a tsquery.
+     */
+    public static List<String> tokenize(String text) {
+        return words(text).stream()
+                .distinct()
+                .limit(MAX_TERMS)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Alternatives of the query, each a list of terms that must all match. Empty if nothing
+     * searchable is left, e.g. only punctuation.
+     */
+    public static List<List<String>> parse(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<List<String>> groups = new ArrayList<>();
+        List<String> group = new ArrayList<>();
+        int terms = 0;
+        for (String token : text.trim().split("\\s+")) {
+            if (OR.equals(token)) {
+                addGroup(groups, group);
+                group = new ArrayList<>();
+                continue;
+            }
+            for (String word : words(token)) {
+                if (terms < MAX_TERMS && !group.contains(word)) {
+                    group.add(word);
+                    terms++;
+                }
+            }
+        }
+        addGroup(groups, group);
+        return groups;
+    }
+
+    /**
+     * tsquery requiring every term, each as a prefix so partial words still match
+     * (e.g. "head" finds "headphones"): {@code head:* & sony:*}
+     */
+    public static String toPrefixQuery(List<String> terms) {
+        return terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & "));
+    }
+
+    /**
+     * tsquery for parsed alternatives: {@code (sony:* & head:*) | (bose:*)}
+     */
+    public static String toPrefixQueryGroups(List<List<String>> groups) {
+        if (groups.size() == 1) {
+            return toPrefixQuery(groups.get(0));
+        }
+        return groups.stream()
+                .map(group -> "(" + toPrefixQuery(group) + ")")
+                .collect(Collectors.joining(" | "));
+    }
+
+    /**
+     * ILIKE pattern matching the text anywhere, with LIKE wildcards in the text escaped
+     */
+    public static String toContainsPattern(String text) {
+        String escaped = text.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static void addGroup(List<List<String>> groups, List<String> group) {
+        if (!group.isEmpty()) {
+            groups.add(group);
+        }
+    }
+}
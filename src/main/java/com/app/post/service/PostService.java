@@ -1,8 +1,12 @@
 package com.app.post.service;
 
+import com.app.common.pagination.CursorPage;
+import com.app.common.pagination.TotalMode;
 import com.app.post.dto.PostCreateRequest;
 import com.app.post.dto.PostResponse;
-import org.springframework.data.domain.Page;
+import com.app.post.dto.SearchFacets;
+import com.app.post.search.SearchFilters;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Map;
@@ -12,17 +16,38 @@ public interface PostService {
     PostResponse createPost(PostCreateRequest request);
     PostResponse getPostById(UUID id);
     List<PostResponse> getUserPosts(UUID userId, int page, int size);
-    Page<PostResponse> getAllPosts(int page, int size);
+
+    /**
+     * Posts newest first, by page number
+     * @param totals Whether the result carries an exact total, an estimate, or none (a plain Slice)
+     */
+    Slice<PostResponse> getAllPosts(int page, int size, TotalMode totals);
+
+    /**
+     * Keyset-paginated feed, newest first
+     * @param cursor Opaque cursor from a previous page, or null/blank for the first page
+     * @param limit Number of posts per page
+     * @return Page of posts with the cursor for the next page
+     */
+    CursorPage<PostResponse> getFeed(String cursor, int limit);
     Map<String, Object> likePost(UUID postId);
     Map<String, Object> repostPost(UUID postId);
     Map<String, Object> sharePost(UUID postId);
     
     /**
-     * Search posts by keyword across multiple fields
-     * @param keyword The search keyword
+     * Full-text search across post text, author names and platform name, best matches first.
+     * Every word of the keyword must match, as a word or a word prefix.
+     * @param keyword The search keyword; blank lists posts matching the filters, newest first
+     * @param filters Platform, price, currency and purchase date restrictions
      * @param page Page number (0-based)
      * @param size Number of posts per page
+     * @param totals Whether the result carries an exact total, an estimate, or none (a plain Slice)
      * @return Page of matching posts
      */
-    Page<PostResponse> searchPosts(String keyword, int page, int size);
+    Slice<PostResponse> searchPosts(String keyword, SearchFilters filters, int page, int size, TotalMode totals);
+
+    /**
+     * Posts per platform and per price range for the same search
+     */
+    SearchFacets getSearchFacets(String keyword, SearchFilters filters);
 }
@@ -1,22 +1,35 @@
 package com.app.post.service;
 
+import com.app.auth.security.CurrentUserProvider;
 import com.app.common.exception.NotFoundException;
+import com.app.common.pagination.Cursor;
+import com.app.common.pagination.CursorPage;
+import com.app.common.pagination.PageTotals;
+import com.app.common.pagination.TotalMode;
 import com.app.media.repo.MediaRepository;
 import com.app.media.service.MediaService;
 import com.app.media.entity.Media;
+import com.app.post.counter.LikeToggle;
+import com.app.post.counter.PostCounter;
+import com.app.post.counter.PostCounterStore;
 import com.app.post.dto.PostCreateRequest;
 import com.app.post.dto.PostResponse;
+import com.app.post.dto.SearchFacets;
 import com.app.post.entity.Post;
-import com.app.post.entity.PostLike;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.event.PostInteractionEvent;
 import com.app.post.mapper.PostMapper;
 import com.app.post.repo.PostRepository;
 import com.app.post.repo.PostLikeRepository;
+import com.app.post.search.PostSearchEngine;
+import com.app.post.search.SearchFilters;
+import com.app.post.search.SearchResultCache;
 import com.app.platform.repo.PlatformRepository;
 import com.app.user.entity.User;
-import com.app.user.repo.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -24,32 +37,36 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PostServiceImpl implements PostService {
 
+    private static final int MAX_FEED_LIMIT = 100;
+
     private final PostRepository postRepository;
     private final PostLikeRepository postLikeRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final PostCounterStore postCounterStore;
     private final PlatformRepository platformRepository;
     private final MediaService mediaService;
     private final PostMapper postMapper;
     private final SimpMessagingTemplate messagingTemplate;
-
-    // TODO: replace with security context lookup
-    private User getCurrentUser() {
-        return userRepository.findAll().stream().findFirst().orElseThrow(() -> new NotFoundException("No users in DB"));
-    }
+    private final PostSearchEngine postSearchEngine;
+    private final SearchResultCache searchResultCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public PostResponse createPost(PostCreateRequest request) {
-        User author = getCurrentUser();
+        User author = currentUserProvider.getCurrentUser();
 
         var platform = request.getPlatformId() == null ? null : platformRepository.findById(request.getPlatformId())
                 .orElseThrow(() -> new NotFoundException("Platform not found"));
@@ -59,7 +76,7 @@ public class PostServiceImpl implements PostService {
                 .text(request.getText())
                 .purchaseDate(request.getPurchaseDate())
                 .price(request.getPrice())
-                .currency(request.getCurrency())
+                .currency(normalizeCurrency(request.getCurrency()))
                 .platform(platform)
                 .productUrl(request.getProductUrl())
                 .visibility(request.getVisibility() == null ? "public" : request.getVisibility())
@@ -88,81 +105,98 @@ public class PostServiceImpl implements PostService {
         ));
 
         PostResponse response = postMapper.toDto(post);
-        setLikeStatus(response);
+        eventPublisher.publishEvent(new PostCreatedEvent(response));
+        enrich(List.of(response));
         return response;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PostResponse getPostById(UUID id) {
-        PostResponse response = postRepository.findById(id).map(postMapper::toDto)
+        PostResponse response = postRepository.findDetailedById(id).map(postMapper::toDto)
                 .orElseThrow(() -> new NotFoundException("Post not found"));
         
         // Set the like status for current user
-        setLikeStatus(response);
+        enrich(List.of(response));
         return response;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PostResponse> getUserPosts(UUID userId, int page, int size) {
         List<PostResponse> posts = postRepository.findByAuthorId(userId, PageRequest.of(page, size)).stream()
                 .map(postMapper::toDto).collect(Collectors.toList());
         
-        // Set like status for each post
-        posts.forEach(this::setLikeStatus);
+        // Set like status for the whole page at once
+        enrich(posts);
         return posts;
     }
 
     @Override
-    public Page<PostResponse> getAllPosts(int page, int size) {
-        Page<PostResponse> postsPage = postRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")))
-                .map(postMapper::toDto);
+    @Transactional(readOnly = true)
+    public Slice<PostResponse> getAllPosts(int page, int size, TotalMode totals) {
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Slice<Post> posts = totals == TotalMode.EXACT
+                ? postRepository.findAll(pageRequest)
+                : PageTotals.of(postRepository.findSliceBy(pageRequest), totals,
+                        postRepository::count, () -> postRepository.estimateCount(SearchFilters.none()));
+        Slice<PostResponse> postsPage = posts.map(postMapper::toDto);
         
-        // Set like status for each post
-        postsPage.forEach(this::setLikeStatus);
+        // Set like status for the whole page at once
+        enrich(postsPage.getContent());
         return postsPage;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getFeed(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_LIMIT));
+        // Fetch one extra row to learn whether another page exists without counting
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+
+        List<Post> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = postRepository.findFeed(pageRequest);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            rows = postRepository.findFeedAfter(position.getCreatedAt(), position.getId(), pageRequest);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<Post> pagePosts = hasNext ? rows.subList(0, pageSize) : rows;
+
+        List<PostResponse> posts = pagePosts.stream().map(postMapper::toDto).collect(Collectors.toList());
+        enrich(posts);
+
+        Post last = pagePosts.isEmpty() ? null : pagePosts.get(pagePosts.size() - 1);
+        return CursorPage.<PostResponse>builder()
+                .items(posts)
+                .nextCursor(hasNext ? new Cursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasNext(hasNext)
+                .size(pageSize)
+                .build();
+    }
+
     @Override
     @Transactional
     public Map<String, Object> likePost(UUID postId) {
-        User currentUser = getCurrentUser();
-        Post post = postRepository.findById(postId)
+        UUID userId = currentUserProvider.getCurrentUserId();
+        Instant now = Instant.now();
+
+        LikeToggle toggle = postCounterStore.toggleLike(userId, postId, now)
                 .orElseThrow(() -> new NotFoundException("Post not found"));
-        
-        // Check if user has already liked this post
-        Optional<PostLike> existingLike = postLikeRepository.findByUserIdAndPostId(currentUser.getId(), postId);
-        
-        boolean isLiked;
-        int newLikeCount;
-        
-        if (existingLike.isPresent()) {
-            // User has already liked, so unlike it
-            postLikeRepository.delete(existingLike.get());
-            newLikeCount = Math.max(0, post.getLikeCount() - 1);
-            isLiked = false;
-        } else {
-            // User hasn't liked, so like it
-            PostLike postLike = PostLike.builder()
-                    .user(currentUser)
-                    .post(post)
-                    .createdAt(Instant.now())
-                    .build();
-            postLikeRepository.save(postLike);
-            newLikeCount = post.getLikeCount() + 1;
-            isLiked = true;
+        boolean isLiked = toggle.isLiked();
+        int newLikeCount = toggle.getLikeCount();
+        if (isLiked) {
+            eventPublisher.publishEvent(new PostInteractionEvent(postId, userId, PostInteractionEvent.Type.LIKED));
         }
-        
-        // Update post like count
-        post.setLikeCount(newLikeCount);
-        post.setUpdatedAt(Instant.now());
-        post = postRepository.save(post);
 
         // Send WebSocket notification for post like/unlike
         messagingTemplate.convertAndSend("/topic/posts", Map.of(
             "type", isLiked ? "POST_LIKED" : "POST_UNLIKED",
             "payload", Map.of(
                 "postId", postId.toString(),
-                "userId", currentUser.getId().toString(),
+                "userId", userId.toString(),
                 "likesCount", newLikeCount
             ),
             "timestamp", Instant.now().toString()
@@ -177,104 +211,119 @@ public class PostServiceImpl implements PostService {
     @Override
     @Transactional
     public Map<String, Object> repostPost(UUID postId) {
-        Post post = postRepository.findById(postId)
+        UUID userId = currentUserProvider.getCurrentUserId();
+        int repostsCount = postCounterStore.increment(postId, PostCounter.REPOSTS, Instant.now())
                 .orElseThrow(() -> new NotFoundException("Post not found"));
-        
-        post.setRepostCount(post.getRepostCount() + 1);
-        post.setUpdatedAt(Instant.now());
-        post = postRepository.save(post);
+        eventPublisher.publishEvent(new PostInteractionEvent(postId, userId, PostInteractionEvent.Type.REPOSTED));
 
         // Send WebSocket notification for post repost
         messagingTemplate.convertAndSend("/topic/posts", Map.of(
             "type", "POST_REPOSTED",
             "payload", Map.of(
                 "postId", postId.toString(),
-                "userId", getCurrentUser().getId().toString(),
-                "repostsCount", post.getRepostCount()
+                "userId", userId.toString(),
+                "repostsCount", repostsCount
             ),
             "timestamp", Instant.now().toString()
         ));
 
         return Map.of(
             "reposted", true,
-            "repostsCount", post.getRepostCount()
+            "repostsCount", repostsCount
         );
     }
 
     @Override
     @Transactional
     public Map<String, Object> sharePost(UUID postId) {
-        Post post = postRepository.findById(postId)
+        UUID userId = currentUserProvider.getCurrentUserId();
+        int sharesCount = postCounterStore.increment(postId, PostCounter.SHARES, Instant.now())
                 .orElseThrow(() -> new NotFoundException("Post not found"));
-        
-        post.setShareCount(post.getShareCount() + 1);
-        post.setUpdatedAt(Instant.now());
-        post = postRepository.save(post);
+        eventPublisher.publishEvent(new PostInteractionEvent(postId, userId, PostInteractionEvent.Type.SHARED));
 
         // Send WebSocket notification for post share
         messagingTemplate.convertAndSend("/topic/posts", Map.of(
             "type", "POST_SHARED",
             "payload", Map.of(
                 "postId", postId.toString(),
-                "userId", getCurrentUser().getId().toString(),
-                "sharesCount", post.getShareCount()
+                "userId", userId.toString(),
+                "sharesCount", sharesCount
             ),
             "timestamp", Instant.now().toString()
         ));
 
         return Map.of(
             "shared", true,
-            "sharesCount", post.getShareCount()
+            "sharesCount", sharesCount
         );
     }
 
     @Override
-    public Page<PostResponse> searchPosts(String keyword, int page, int size) {
-        if (keyword == null || keyword.trim().isEmpty()) {
-            // If no keyword provided, return all posts
-            return getAllPosts(page, size);
+    @Transactional(readOnly = true)
+    public Slice<PostResponse> searchPosts(String keyword, SearchFilters filters, int page, int size, TotalMode totals) {
+        filters.validate();
+        if ((keyword == null || keyword.trim().isEmpty()) && !filters.hasAny()) {
+            // If no keyword or filter provided, return all posts
+            return getAllPosts(page, size, totals);
         }
-        
-        // Clean and prepare the keyword
-        String cleanKeyword = keyword.trim();
-        
-        // Check if keyword contains multiple words
-        String[] keywords = cleanKeyword.split("\\s+");
-        
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        
-        Page<PostResponse> postsPage;
-        if (keywords.length == 1) {
-            // Single keyword search
-            postsPage = postRepository.searchByKeyword(cleanKeyword, pageRequest)
-                    .map(postMapper::toDto);
-        } else if (keywords.length == 2) {
-            // Two keywords search (both must match)
-            postsPage = postRepository.searchByTwoKeywords(keywords[0], keywords[1], pageRequest)
-                    .map(postMapper::toDto);
-        } else {
-            // For more than 2 keywords, search with the first keyword only
-            // This can be enhanced later for more complex multi-keyword searches
-            postsPage = postRepository.searchByKeyword(keywords[0], pageRequest)
-                    .map(postMapper::toDto);
+
+        // Rank ids first (cached for repeated queries), then load just this page of posts
+        PageRequest pageRequest = PageRequest.of(page, size);
+        Slice<UUID> ids = searchResultCache.get(keyword, filters, pageRequest, totals,
+                () -> postSearchEngine.searchIds(keyword, filters, pageRequest, totals));
+        if (ids.isEmpty()) {
+            return PageTotals.withContent(ids, List.of());
         }
-        
-        // Set like status for each post
-        postsPage.forEach(this::setLikeStatus);
-        return postsPage;
+        Map<UUID, Post> postsById = postRepository.findByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<PostResponse> posts = ids.getContent().stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .map(postMapper::toDto)
+                .collect(Collectors.toList());
+
+        // Set like status for the whole page at once
+        enrich(posts);
+        return PageTotals.withContent(ids, posts);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SearchFacets getSearchFacets(String keyword, SearchFilters filters) {
+        filters.validate();
+        return postSearchEngine.facets(keyword, filters);
     }
     
     /**
-     * Helper method to set the like status for a post based on current user
+     * Bring counters up to date with buffered interactions and set the viewer's like status
+     */
+    private void enrich(List<PostResponse> posts) {
+        postCounterStore.applyPending(posts);
+        setLikeStatus(posts);
+    }
+
+    /**
+     * Helper method to set the like status for a page of posts based on current user.
+     * Issues at most one query regardless of page size.
      */
-    private void setLikeStatus(PostResponse postResponse) {
-        try {
-            User currentUser = getCurrentUser();
-            boolean isLiked = postLikeRepository.existsByUserIdAndPostId(currentUser.getId(), postResponse.getId());
-            postResponse.setIsLiked(isLiked);
-        } catch (Exception e) {
-            // If there's no current user or any error, default to false
-            postResponse.setIsLiked(false);
+    private void setLikeStatus(List<PostResponse> posts) {
+        if (posts.isEmpty()) {
+            return;
         }
+
+        // Anonymous viewers never have liked anything, so skip the lookup entirely
+        Set<UUID> likedPostIds = currentUserProvider.findCurrentUserId()
+                .map(userId -> postLikeRepository.findLikedPostIdsByUserIdAndPostIdIn(userId,
+                        posts.stream().map(PostResponse::getId).collect(Collectors.toList())))
+                .orElse(Set.of());
+        posts.forEach(post -> post.setIsLiked(likedPostIds.contains(post.getId())));
+    }
+
+    /**
+     * Currency codes are stored upper-cased and trimmed, so filters and indexes on posts.currency
+     * match however the code was typed
+     */
+    private static String normalizeCurrency(String currency) {
+        return currency == null ? null : currency.trim().toUpperCase(Locale.ROOT);
     }
 }
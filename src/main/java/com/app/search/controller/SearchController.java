@@ -0,0 +1,27 @@
+package com.app.search.controller;
+
+import com.app.search.dto.Suggestion;
+import com.app.search.service.SuggestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SuggestionService suggestionService;
+
+    /**
+     * Typeahead for the search box: users, platforms and post words starting with q, most
+     * popular first. Served from memory, so it is cheap enough to call on every keystroke.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam(defaultValue = "") String q,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestionService.suggest(q, limit));
+    }
+}
@@ -0,0 +1,27 @@
+package com.app.search.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data @Builder
+public class Suggestion {
+    /**
+     * user, platform or term
+     */
+    private String type;
+    /**
+     * What to put in the search box: a username, platform name or word
+     */
+    private String text;
+    /**
+     * Display name for users, otherwise the same as text
+     */
+    private String label;
+    /**
+     * User or platform id; null for terms
+     */
+    private UUID id;
+    private Long popularity;
+}
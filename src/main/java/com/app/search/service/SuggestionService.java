@@ -0,0 +1,206 @@
+package com.app.search.service;
+
+import com.app.platform.entity.Platform;
+import com.app.platform.repo.PlatformRepository;
+import com.app.post.dto.PostResponse;
+import com.app.post.entity.Post;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.repo.PostRepository;
+import com.app.post.search.SearchTerms;
+import com.app.search.dto.Suggestion;
+import com.app.user.dto.UserSummary;
+import com.app.user.entity.User;
+import com.app.user.event.UserCreatedEvent;
+import com.app.user.repo.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Typeahead over usernames, display names, platform names and words used in posts, ranked by
+ * popularity: followers plus posts for users, posts for platforms, and the number of posts
+ * containing a word for terms.
+ *
+ * <p>Suggestions come from a {@link SuggestionTrie} in memory. It is rebuilt from the database
+ * every {@code app.search.suggest.rebuild-interval-ms}, which also picks up changes made on
+ * other instances, and posts and users created here are added as soon as they commit.
+ */
+@Slf4j
+@Service
+public class SuggestionService {
+
+    public static final String USER = "user";
+    public static final String PLATFORM = "platform";
+    public static final String TERM = "term";
+
+    /**
+     * Words too short or too common to be worth suggesting
+     */
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "and", "are", "but", "for", "from", "had", "has", "have", "her", "his", "its", "just",
+            "not", "our", "she", "that", "the", "their", "them", "then", "there", "they", "this",
+            "was", "were", "what", "when", "which", "who", "will", "with", "you", "your");
+
+    private static final Instant BEGINNING = Instant.EPOCH;
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PlatformRepository platformRepository;
+    private final int capacity;
+    private final int chunkSize;
+    private final Timer suggestTimer;
+
+    private volatile SuggestionTrie current;
+    // Trie being rebuilt; events are applied to it too so nothing is lost when it is swapped in
+    private volatile SuggestionTrie building;
+
+    public SuggestionService(PostRepository postRepository,
+                             UserRepository userRepository,
+                             PlatformRepository platformRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.search.suggest.capacity:10}") int capacity,
+                             @Value("${app.search.suggest.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("app.search.suggest.chunk-size must be positive");
+        }
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.platformRepository = platformRepository;
+        this.capacity = capacity;
+        this.chunkSize = chunkSize;
+        this.current = new SuggestionTrie(capacity);
+        this.suggestTimer = Timer.builder("search.suggest")
+                .description("Time to answer a typeahead lookup")
+                .register(meterRegistry);
+        meterRegistry.gauge("search.suggest.entries", this, service -> service.current.size());
+    }
+
+    /**
+     * Most popular suggestions starting with the prefix; empty until the first build finishes
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        int size = Math.max(1, Math.min(limit, capacity));
+        return suggestTimer.record(() -> current.suggest(prefix, size));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostCreated(PostCreatedEvent event) {
+        PostResponse post = event.getPost();
+        apply(trie -> {
+            addTerms(trie, post.getContent());
+            UserSummary author = post.getUser();
+            if (author != null) {
+                trie.add(USER, author.getUsername(), author.getName(), author.getId(), 1);
+            }
+            PostResponse.Platform platform = post.getPlatform();
+            if (platform != null) {
+                trie.add(PLATFORM, platform.getName(), null, platform.getId(), 1);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        UserSummary user = event.getUser();
+        apply(trie -> trie.add(USER, user.getUsername(), user.getName(), user.getId(), 0));
+    }
+
+    /**
+     * Build a fresh trie from posts, users and platforms, streamed in chunks, and swap it in
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.search.suggest.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        SuggestionTrie trie = new SuggestionTrie(capacity);
+        building = trie;
+        try {
+            Map<UUID, Long> postsByAuthor = new HashMap<>();
+            Map<UUID, Long> postsByPlatform = new HashMap<>();
+            streamPosts(post -> {
+                addTerms(trie, post.getText());
+                if (post.getAuthor() != null) {
+                    postsByAuthor.merge(post.getAuthor().getId(), 1L, Long::sum);
+                }
+                if (post.getPlatform() != null) {
+                    postsByPlatform.merge(post.getPlatform().getId(), 1L, Long::sum);
+                }
+            });
+            streamUsers(user -> trie.add(USER, user.getUsername(), user.getDisplayName(), user.getId(),
+                    postsByAuthor.getOrDefault(user.getId(), 0L)
+                            + (user.getFollowersCount() == null ? 0 : user.getFollowersCount())));
+            for (Platform platform : platformRepository.findAll()) {
+                trie.add(PLATFORM, platform.getName(), null, platform.getId(),
+                        postsByPlatform.getOrDefault(platform.getId(), 0L));
+            }
+            current = trie;
+        } finally {
+            building = null;
+        }
+        log.info("Built typeahead index of {} entries in {} ms", trie.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private void streamPosts(Consumer<Post> consumer) {
+        Instant createdAt = BEGINNING;
+        UUID id = LOWEST_ID;
+        List<Post> chunk;
+        do {
+            chunk = postRepository.findChunkAfter(createdAt, id, PageRequest.of(0, chunkSize));
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                Post last = chunk.get(chunk.size() - 1);
+                createdAt = last.getCreatedAt();
+                id = last.getId();
+            }
+        } while (chunk.size() == chunkSize);
+    }
+
+    private void streamUsers(Consumer<User> consumer) {
+        UUID id = LOWEST_ID;
+        List<User> chunk;
+        do {
+            chunk = userRepository.findByIdGreaterThanOrderByIdAsc(id, PageRequest.of(0, chunkSize));
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                id = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == chunkSize);
+    }
+
+    private void apply(Consumer<SuggestionTrie> update) {
+        update.accept(current);
+        SuggestionTrie pending = building;
+        if (pending != null && pending != current) {
+            update.accept(pending);
+        }
+    }
+
+    /**
+     * Count each word once per post, so a term's popularity is the number of posts using it
+     */
+    private static void addTerms(SuggestionTrie trie, String text) {
+        for (String word : new LinkedHashSet<>(SearchTerms.words(text))) {
+            if (word.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(word)) {
+                trie.add(TERM, word, null, null, 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.app.search.service;
+
+import com.app.search.dto.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Prefix trie of suggestions where every node keeps its {@code capacity} most popular entries,
+ * so a lookup walks the prefix and copies a ready-made list instead of visiting the subtree.
+ *
+ * <p>Names are reachable from the start of every word ("doe" finds "John Doe"). Popularity only
+ * grows, which is what keeps the per-node lists exact under incremental updates.
+ */
+public class SuggestionTrie {
+
+    /**
+     * Keys are cut to this many characters to bound the depth of the trie
+     */
+    static final int MAX_KEY_LENGTH = 48;
+
+    private static final Comparator<Entry> MOST_POPULAR = Comparator
+            .comparingLong((Entry entry) -> entry.popularity).reversed()
+            .thenComparing(entry -> entry.text);
+
+    private final int capacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public SuggestionTrie(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Add popularity to an entry, creating it on first use. Users and platforms are identified
+     * by id, terms by their text.
+     *
+     * @param label display name, also searchable; may be null
+     */
+    public void add(String type, String text, String label, UUID id, long popularity) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String identity = type + ":" + (id != null ? id : normalize(text));
+
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.computeIfAbsent(identity, key -> new Entry(type, text, label, id));
+            entry.popularity += popularity;
+            for (String key : keys(text, label)) {
+                Node node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                    node.offer(entry, capacity);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Most popular entries with a word starting with the prefix, at most {@code capacity}
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return node.top.stream()
+                    .limit(limit)
+                    .map(Entry::toSuggestion)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<String> keys(String text, String label) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWordStarts(keys, text);
+        addWordStarts(keys, label);
+        return keys;
+    }
+
+    private static void addWordStarts(Set<String> keys, String name) {
+        String normalized = normalize(name);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                String key = normalized.substring(i);
+                keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Entry> top = new ArrayList<>();
+
+        /**
+         * Put the entry in this node's list if it is, or has just become, popular enough
+         */
+        private void offer(Entry entry, int capacity) {
+            if (!top.remove(entry)
+                    && top.size() >= capacity
+                    && MOST_POPULAR.compare(entry, top.get(top.size() - 1)) >= 0) {
+                return;
+            }
+            int position = Collections.binarySearch(top, entry, MOST_POPULAR);
+            top.add(position < 0 ? -position - 1 : position, entry);
+            if (top.size() > capacity) {
+                top.remove(top.size() - 1);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String type;
+        private final String text;
+        private final String label;
+        private final UUID id;
+        private long popularity;
+
+        private Entry(String type, String text, String label, UUID id) {
+            this.type = type;
+            this.text = text;
+            this.label = label;
+            this.id = id;
+        }
+
+        private Suggestion toSuggestion() {
+            return Suggestion.builder()
+                    .type(type)
+                    .text(text)
+                    .label(label != null ? label : text)
+                    .id(id)
+                    .popularity(popularity)
+                    .build();
+        }
+    }
+}
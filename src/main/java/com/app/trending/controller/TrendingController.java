@@ -1,13 +1,20 @@
 package com.app.trending.controller;
 
+import com.app.trending.dto.RollupBucket;
 import com.app.trending.dto.Stats;
 import com.app.trending.dto.TrendingItem;
+import com.app.trending.service.ActiveUserService;
+import com.app.trending.service.RollupService;
+import com.app.trending.service.StatsService;
 import com.app.trending.service.TrendingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api")
@@ -15,14 +22,38 @@ import java.util.List;
 public class TrendingController {
 
     private final TrendingService trendingService;
+    private final StatsService statsService;
+    private final ActiveUserService activeUserService;
+    private final RollupService rollupService;
 
     @GetMapping("/trending")
-    public ResponseEntity<List<TrendingItem>> getTrendingItems() {
-        return ResponseEntity.ok(trendingService.getTrendingItems());
+    public ResponseEntity<List<TrendingItem>> getTrendingItems(@RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(trendingService.getTrendingItems(limit));
+    }
+
+    @GetMapping("/trending/products")
+    public ResponseEntity<List<TrendingItem>> getTrendingProducts(@RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(trendingService.getTrendingProducts(limit));
     }
 
     @GetMapping("/stats")
     public ResponseEntity<Stats> getStats() {
-        return ResponseEntity.ok(trendingService.getStats());
+        return ResponseEntity.ok(statsService.getStats());
+    }
+
+    @GetMapping("/stats/active-users")
+    public ResponseEntity<Map<String, Object>> getActiveUsers(@RequestParam(defaultValue = "7") int days) {
+        return ResponseEntity.ok(Map.of(
+            "days", days,
+            "activeUsers", activeUserService.countActiveUsers(days)
+        ));
+    }
+
+    @GetMapping("/stats/rollups")
+    public ResponseEntity<List<RollupBucket>> getRollups(@RequestParam Instant from,
+                                                         @RequestParam(required = false) Instant to,
+                                                         @RequestParam(defaultValue = "hour") String granularity,
+                                                         @RequestParam(required = false) UUID platformId) {
+        return ResponseEntity.ok(rollupService.getRollups(from, to == null ? Instant.now() : to, granularity, platformId));
     }
 }
\ No newline at end of file
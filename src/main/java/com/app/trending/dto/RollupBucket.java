@@ -0,0 +1,22 @@
+package com.app.trending.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Data @Builder
+public class RollupBucket {
+    // Start of the hour or UTC day
+    private Instant start;
+    // Null for posts without a platform
+    private UUID platformId;
+    private String platformName;
+    private Long posts;
+    private Long likes;
+    // Sum of post prices per currency code
+    private Map<String, BigDecimal> spendByCurrency;
+}
@@ -3,9 +3,18 @@ package com.app.trending.dto;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
+import java.util.Map;
+
 @Data @Builder
 public class Stats {
-    private Integer totalPosts;
+    private Long totalPosts;
+    private Long totalUsers;
+    // Spent in the currency below; other currencies are only in moneySpentByCurrency
     private Double totalMoneySpent;
-    private Integer activeUsers;
+    private String currency;
+    private Map<String, BigDecimal> moneySpentByCurrency;
+    // Distinct users active over the last 7 days, and today (UTC)
+    private Long activeUsers;
+    private Long activeUsersToday;
 }
\ No newline at end of file
@@ -15,4 +15,5 @@ public class TrendingItem {
     private Integer rank;
     private Boolean isHot;
     private Boolean isRising;
+    private Double score;
 }
\ No newline at end of file
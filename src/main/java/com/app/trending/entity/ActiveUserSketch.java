@@ -0,0 +1,28 @@
+package com.app.trending.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * HyperLogLog sketch of the users active on one UTC day, see
+ * {@link com.app.trending.service.HyperLogLog#toBytes()}
+ */
+@Entity
+@Table(name = "active_user_sketches", schema = "purchase_service")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveUserSketch {
+    @Id
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private byte[] sketch;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.app.trending.repo;
+
+import com.app.trending.entity.ActiveUserSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface ActiveUserSketchRepository extends JpaRepository<ActiveUserSketch, LocalDate> {
+
+    /**
+     * Store the day's first sketch; returns 0 if another flush stored one first
+     */
+    @Modifying
+    @Query(value = "INSERT INTO purchase_service.active_user_sketches (day, sketch, updated_at) " +
+                   "VALUES (:day, :sketch, :updatedAt) ON CONFLICT (day) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("day") LocalDate day, @Param("sketch") byte[] sketch, @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * The day's sketch, locked until the transaction ends so concurrent merges are serialized
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ActiveUserSketch s WHERE s.day = :day")
+    Optional<ActiveUserSketch> findForUpdate(@Param("day") LocalDate day);
+
+    List<ActiveUserSketch> findByDayBetween(LocalDate from, LocalDate to);
+}
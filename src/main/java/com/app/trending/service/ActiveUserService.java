@@ -0,0 +1,202 @@
+package com.app.trending.service;
+
+import com.app.common.exception.BadRequestException;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.event.PostInteractionEvent;
+import com.app.trending.entity.ActiveUserSketch;
+import com.app.trending.repo.ActiveUserSketchRepository;
+import com.app.user.event.UserAuthenticatedEvent;
+import com.app.user.event.UserCreatedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distinct active users per UTC day: anyone who posted, liked, commented, reposted, shared,
+ * registered, logged in or made an authenticated request. Each day is a {@link HyperLogLog}
+ * sketch, so memory and storage stay at 16 KB per day however many users are active.
+ *
+ * <p>Today's sketch is kept in memory and merged into its active_user_sketches row every
+ * {@code app.active-users.flush-interval-ms}; since merging is idempotent, every instance can
+ * flush the same day. Counts over several days merge the stored sketches and never read the
+ * interaction tables.
+ */
+@Slf4j
+@Service
+public class ActiveUserService {
+
+    /**
+     * Longest range {@link #countActiveUsers} accepts, at 16 KB read per day
+     */
+    public static final int MAX_DAYS = 366;
+
+    private final ActiveUserSketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<LocalDate, Day> days = new ConcurrentHashMap<>();
+    private volatile long activeToday;
+    private volatile long activeThisWeek;
+
+    public ActiveUserService(ActiveUserSketchRepository sketchRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostCreated(PostCreatedEvent event) {
+        if (event.getPost().getUser() != null) {
+            record(event.getPost().getUser().getId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostInteraction(PostInteractionEvent event) {
+        record(event.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        record(event.getUser().getId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAuthenticated(UserAuthenticatedEvent event) {
+        record(event.getUserId());
+    }
+
+    public void record(UUID userId) {
+        record(userId, today());
+    }
+
+    void record(UUID userId, LocalDate day) {
+        if (userId == null) {
+            return;
+        }
+        Day sketch = days.computeIfAbsent(day, d -> new Day());
+        synchronized (sketch) {
+            if (sketch.hll.add(userId)) {
+                sketch.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Distinct users active today, as of the last flush
+     */
+    public long getActiveToday() {
+        return activeToday;
+    }
+
+    /**
+     * Distinct users active over the last 7 days including today, as of the last flush
+     */
+    public long getActiveThisWeek() {
+        return activeThisWeek;
+    }
+
+    /**
+     * Distinct users active over the last {@code days} days including today, from the stored
+     * sketches and any not yet flushed
+     */
+    public long countActiveUsers(int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new BadRequestException("days must be between 1 and " + MAX_DAYS);
+        }
+        LocalDate today = today();
+        LocalDate from = today.minusDays(days - 1);
+        HyperLogLog merged = new HyperLogLog();
+        for (ActiveUserSketch stored : sketchRepository.findByDayBetween(from, today)) {
+            merged.merge(HyperLogLog.fromBytes(stored.getSketch()));
+        }
+        this.days.forEach((day, sketch) -> {
+            if (!day.isBefore(from) && !day.isAfter(today)) {
+                synchronized (sketch) {
+                    merged.merge(sketch.hll);
+                }
+            }
+        });
+        return merged.estimate();
+    }
+
+    /**
+     * Merge every changed day into its stored sketch and take back what other instances stored,
+     * then drop days before yesterday from memory
+     */
+    @Scheduled(fixedDelayString = "${app.active-users.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        LocalDate yesterday = today().minusDays(1);
+        for (Map.Entry<LocalDate, Day> entry : days.entrySet()) {
+            LocalDate day = entry.getKey();
+            Day sketch = entry.getValue();
+            HyperLogLog pending;
+            synchronized (sketch) {
+                pending = sketch.dirty ? sketch.hll.copy() : null;
+                sketch.dirty = false;
+            }
+            if (pending != null) {
+                try {
+                    HyperLogLog stored = transactionTemplate.execute(status -> store(day, pending));
+                    synchronized (sketch) {
+                        sketch.hll.merge(stored);
+                    }
+                } catch (RuntimeException e) {
+                    synchronized (sketch) {
+                        sketch.dirty = true;
+                    }
+                    log.warn("Failed to store the active users of {}, will retry", day, e);
+                    continue;
+                }
+            }
+            if (day.isBefore(yesterday)) {
+                synchronized (sketch) {
+                    if (!sketch.dirty) {
+                        days.remove(day, sketch);
+                    }
+                }
+            }
+        }
+        activeToday = countActiveUsers(1);
+        activeThisWeek = countActiveUsers(7);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private HyperLogLog store(LocalDate day, HyperLogLog sketch) {
+        Instant now = Instant.now();
+        if (sketchRepository.insertIfAbsent(day, sketch.toBytes(), now) == 1) {
+            return sketch;
+        }
+        ActiveUserSketch row = sketchRepository.findForUpdate(day)
+                .orElseThrow(() -> new IllegalStateException("Active user sketch of " + day + " disappeared"));
+        HyperLogLog stored = HyperLogLog.fromBytes(row.getSketch());
+        stored.merge(sketch);
+        row.setSketch(stored.toBytes());
+        row.setUpdatedAt(now);
+        return stored;
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private static final class Day {
+        private final HyperLogLog hll = new HyperLogLog();
+        private boolean dirty;
+    }
+}
@@ -0,0 +1,99 @@
+package com.app.trending.service;
+
+import java.util.UUID;
+
+/**
+ * Count-Min Sketch of non-negative weights keyed by UUID, in {@code depth x width} doubles
+ * however many keys are added. An estimate is never below the true total and exceeds it only
+ * through hash collisions.
+ *
+ * <p>Uses conservative update: an add only raises the cells that are below the key's new
+ * estimate, which keeps collisions from inflating every row. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final double[][] cells;
+    private final int mask;
+
+    /**
+     * @param width cells per row, rounded up to a power of two
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        int size = Integer.highestOneBit(width);
+        if (size < width) {
+            size <<= 1;
+        }
+        this.cells = new double[depth][size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add weight to the key and return its new estimate
+     */
+    public double add(UUID key, double weight) {
+        int[] index = indexes(key);
+        double estimate = estimate(index) + weight;
+        for (int row = 0; row < cells.length; row++) {
+            if (cells[row][index[row]] < estimate) {
+                cells[row][index[row]] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    public double estimate(UUID key) {
+        return estimate(indexes(key));
+    }
+
+    /**
+     * Multiply every cell by the factor, e.g. to apply decay to all keys at once
+     */
+    public void scale(double factor) {
+        for (double[] row : cells) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] *= factor;
+            }
+        }
+    }
+
+    public int width() {
+        return mask + 1;
+    }
+
+    public int depth() {
+        return cells.length;
+    }
+
+    private double estimate(int[] index) {
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < cells.length; row++) {
+            min = Math.min(min, cells[row][index[row]]);
+        }
+        return min;
+    }
+
+    /**
+     * One cell per row from two independent hashes of the key (Kirsch-Mitzenmacher)
+     */
+    private int[] indexes(UUID key) {
+        long h1 = mix(key.getMostSignificantBits() ^ 0x9E3779B97F4A7C15L * key.getLeastSignificantBits());
+        long h2 = mix(key.getLeastSignificantBits() + 0xC2B2AE3D27D4EB4FL) | 1;
+        int[] index = new int[cells.length];
+        for (int row = 0; row < cells.length; row++) {
+            index[row] = (int) ((h1 + row * h2) >>> 32) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Finalizer of SplitMix64, so that UUIDs differing in a few bits land far apart
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,102 @@
+package com.app.trending.service;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * HyperLogLog estimate of the number of distinct UUIDs added, in {@code 2^PRECISION} one-byte
+ * registers (16 KB) however many are added; the standard error is about 0.8%. Sketches merge
+ * losslessly by taking the maximum of each register, so a merge of daily sketches counts the
+ * distinct ids over all those days, and merging the same sketch twice changes nothing.
+ *
+ * <p>Not thread-safe.
+ */
+public class HyperLogLog {
+
+    static final int PRECISION = 14;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Read a sketch written by {@link #toBytes()}
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length != REGISTERS + 1 || bytes[0] != PRECISION) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+        }
+        return new HyperLogLog(Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+
+    /**
+     * Returns whether the sketch changed
+     */
+    public boolean add(UUID id) {
+        long hash = mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Position of the first set bit in the rest of the hash; the low PRECISION bits are padding
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        // Small cardinalities: linear counting over the empty registers is more accurate
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(registers.clone());
+    }
+
+    /**
+     * The precision followed by the registers
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[REGISTERS + 1];
+        bytes[0] = PRECISION;
+        System.arraycopy(registers, 0, bytes, 1, REGISTERS);
+        return bytes;
+    }
+
+    /**
+     * Finalizer of SplitMix64
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
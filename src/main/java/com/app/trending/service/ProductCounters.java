@@ -0,0 +1,166 @@
+package com.app.trending.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Purchases per product over the last 24 hours, in a ring of hourly buckets per product. At
+ * most {@code capacity} products are kept: recording a new product beyond that evicts the one
+ * purchased least recently, and products without a purchase in the window are dropped.
+ *
+ * <p>Hot and rising compare buckets: a product is rising when the last 3 hours had more
+ * purchases than the 3 before, and hot when the last 3 hours ran at twice its 24 hour average.
+ *
+ * @param <D> what to show for a product, replaced by the latest purchase's
+ */
+public class ProductCounters<D> {
+
+    static final int BUCKETS = 24;
+    static final int RECENT_HOURS = 3;
+    static final int MIN_RISING = 2;
+    static final int MIN_HOT = 3;
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final Comparator<Stats<?>> RANKING = Comparator
+            .comparingInt((Stats<?> stats) -> stats.purchasesToday).reversed()
+            .thenComparing(Comparator.comparingInt((Stats<?> stats) -> stats.recent).reversed())
+            .thenComparing(stats -> stats.key);
+
+    private final int capacity;
+    // In order of the latest purchase, so the first entry is the coldest
+    private final LinkedHashMap<String, Product<D>> products;
+
+    public ProductCounters(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.products = new LinkedHashMap<>();
+    }
+
+    /**
+     * Count a purchase at {@code atMillis}; purchases older than the window are ignored
+     */
+    public synchronized void record(String key, D details, long atMillis) {
+        long hour = Math.floorDiv(atMillis, HOUR_MILLIS);
+        // Re-inserted, so it moves behind every product purchased earlier
+        Product<D> product = products.remove(key);
+        if (product == null) {
+            if (products.size() >= capacity) {
+                Iterator<Product<D>> coldest = products.values().iterator();
+                coldest.next();
+                coldest.remove();
+            }
+            product = new Product<>(hour);
+        }
+        products.put(key, product);
+        if (product.add(hour)) {
+            product.details = details;
+        }
+    }
+
+    /**
+     * Counts of one product as of {@code nowMillis}, or null if it has no purchase in the window
+     */
+    public synchronized Stats<D> get(String key, long nowMillis) {
+        Product<D> product = products.get(key);
+        return product == null ? null : product.stats(key, Math.floorDiv(nowMillis, HOUR_MILLIS));
+    }
+
+    /**
+     * Products with purchases in the window, most purchased first; drops the others
+     */
+    public synchronized List<Stats<D>> top(long nowMillis, int limit) {
+        long hour = Math.floorDiv(nowMillis, HOUR_MILLIS);
+        List<Stats<D>> all = new ArrayList<>();
+        Iterator<Map.Entry<String, Product<D>>> entries = products.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Product<D>> entry = entries.next();
+            Stats<D> stats = entry.getValue().stats(entry.getKey(), hour);
+            if (stats == null) {
+                entries.remove();
+            } else {
+                all.add(stats);
+            }
+        }
+        all.sort(RANKING);
+        return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    public synchronized int size() {
+        return products.size();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Stats<D> {
+        private final String key;
+        private final D details;
+        private final int purchasesToday;
+        private final int recent;
+        private final int previous;
+        private final boolean hot;
+        private final boolean rising;
+    }
+
+    private static final class Product<D> {
+        private final int[] buckets = new int[BUCKETS];
+        // Hour of the newest bucket; the ring covers the BUCKETS hours up to it
+        private long lastHour;
+        private D details;
+
+        private Product(long hour) {
+            this.lastHour = hour;
+        }
+
+        private boolean add(long hour) {
+            if (hour <= lastHour - BUCKETS) {
+                return false;
+            }
+            if (hour > lastHour) {
+                for (long h = Math.max(lastHour + 1, hour - BUCKETS + 1); h <= hour; h++) {
+                    buckets[(int) Math.floorMod(h, BUCKETS)] = 0;
+                }
+                lastHour = hour;
+            }
+            buckets[(int) Math.floorMod(hour, BUCKETS)]++;
+            return hour == lastHour || details == null;
+        }
+
+        private int count(long hour, long nowHour) {
+            if (hour > lastHour || hour <= lastHour - BUCKETS || hour <= nowHour - BUCKETS) {
+                return 0;
+            }
+            return buckets[(int) Math.floorMod(hour, BUCKETS)];
+        }
+
+        private Stats<D> stats(String key, long nowHour) {
+            int total = 0;
+            int recent = 0;
+            int previous = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                int count = count(nowHour - i, nowHour);
+                total += count;
+                if (i < RECENT_HOURS) {
+                    recent += count;
+                } else if (i < 2 * RECENT_HOURS) {
+                    previous += count;
+                }
+            }
+            if (total == 0) {
+                return null;
+            }
+            boolean rising = recent >= MIN_RISING && recent > previous;
+            // Hourly rate of the last hours against the average hourly rate of the window
+            boolean hot = recent >= MIN_HOT && recent * BUCKETS >= 2 * RECENT_HOURS * total;
+            return new Stats<>(key, details, total, recent, previous, hot, rising);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.trending.service;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Identifies the product a post is about from its platform and http(s) product URL, so
+ * different links to the same product page count together: the host is lower-cased and stripped
+ * of {@code www.} and {@code m.}, the path is lower-cased with empty segments and a trailing
+ * slash removed, and the scheme, port, query and fragment are ignored. Amazon paths are reduced
+ * to their {@code /dp/<ASIN>} part, since the same product is linked under many slugs.
+ */
+public final class ProductKey {
+
+    private static final Set<String> WEB_SCHEMES = Set.of("http", "https");
+    private static final Pattern OTHER_SCHEME = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*:(?!\\d)");
+    private static final Pattern MOBILE_OR_WWW = Pattern.compile("^(www|m)\\.");
+    private static final Pattern DUPLICATE_SLASHES = Pattern.compile("/{2,}");
+    private static final Pattern AMAZON_PRODUCT = Pattern.compile("/(?:dp|gp/product)/([a-z0-9]{10})(?:/|$)");
+
+    private ProductKey() {
+    }
+
+    /**
+     * {@code <platform id or "-">|<host><path>}, or empty if the URL has no host
+     */
+    public static Optional<String> of(UUID platformId, String productUrl) {
+        return canonicalUrl(productUrl)
+                .map(url -> (platformId == null ? "-" : platformId.toString()) + "|" + url);
+    }
+
+    /**
+     * Host and path of the URL in canonical form, e.g. {@code amazon.com/dp/b0cmz4s8vs}
+     */
+    static Optional<String> canonicalUrl(String productUrl) {
+        if (productUrl == null || productUrl.isBlank()) {
+            return Optional.empty();
+        }
+        String url = productUrl.strip();
+        if (!url.contains("://")) {
+            // A link without a scheme, unless it has a non-web one such as mailto:
+            if (OTHER_SCHEME.matcher(url).find()) {
+                return Optional.empty();
+            }
+            url = "https://" + url;
+        }
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            return Optional.empty();
+        }
+        if (uri.getHost() == null || !WEB_SCHEMES.contains(uri.getScheme().toLowerCase(Locale.ROOT))) {
+            return Optional.empty();
+        }
+
+        String host = MOBILE_OR_WWW.matcher(uri.getHost().toLowerCase(Locale.ROOT)).replaceFirst("");
+        String path = uri.getPath() == null ? "" : uri.getPath().toLowerCase(Locale.ROOT);
+        path = DUPLICATE_SLASHES.matcher(path).replaceAll("/");
+        if (host.startsWith("amazon.")) {
+            Matcher product = AMAZON_PRODUCT.matcher(path);
+            if (product.find()) {
+                path = "/dp/" + product.group(1);
+            }
+        }
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return Optional.of(host + path);
+    }
+}
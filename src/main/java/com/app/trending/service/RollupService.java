@@ -0,0 +1,497 @@
+package com.app.trending.service;
+
+import com.app.common.exception.BadRequestException;
+import com.app.post.dto.PostResponse;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.event.PostInteractionEvent;
+import com.app.trending.dto.RollupBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Hourly rollups of posts, likes and spend per platform in {@code platform_hourly_rollups} and
+ * {@code spend_hourly_rollups}, so dashboards read a few hundred rows instead of the source tables.
+ *
+ * <p>Each instance buffers the posts and likes committed on it and adds them to the current
+ * hours' rows every {@code app.rollups.flush-interval-ms}. Once an hour has been over for
+ * {@code app.rollups.seal-delay-minutes} it belongs to {@link #seal()}, which recomputes the
+ * last hours from the source tables; deltas that arrive later are dropped rather than counted
+ * twice. Flushes and recomputes take the same Postgres advisory lock, on every instance, and a
+ * flush only decides which hours are sealed once it holds it, so it cannot add to an hour that
+ * was recomputed after it drained. Recomputing overwrites rows, so it is safe to repeat:
+ * {@link #backfill()} does it for the last {@code app.rollups.backfill-days} at startup and then
+ * daily, which also fills history and picks up likes that were taken back (live deltas only ever
+ * add them).
+ */
+@Slf4j
+@Service
+public class RollupService {
+
+    static final UUID NO_PLATFORM = new UUID(0, 0);
+    static final Duration MAX_HOURLY_RANGE = Duration.ofDays(31);
+    static final Duration MAX_DAILY_RANGE = Duration.ofDays(366);
+    private static final int POSTS = 0;
+    private static final int LIKES = 1;
+    private static final int PLATFORM_LOOKUP_CHUNK = 500;
+    // Key of the transaction-scoped advisory lock that serialises flushes and recomputes
+    static final long WRITE_LOCK_KEY = 0x726f6c6c757073L;
+
+    private static final String NIL = "'" + NO_PLATFORM + "'::uuid";
+    private static final String HOUR_OF_POST =
+            "date_trunc('hour', p.created_at::timestamptz AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'";
+    private static final String HOUR_OF_LIKE =
+            "date_trunc('hour', l.created_at::timestamptz AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'";
+
+    static final String ADD_COUNTS_SQL =
+            "INSERT INTO purchase_service.platform_hourly_rollups (hour, platform_id, posts, likes) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (hour, platform_id) DO UPDATE SET " +
+            "posts = platform_hourly_rollups.posts + EXCLUDED.posts, " +
+            "likes = platform_hourly_rollups.likes + EXCLUDED.likes";
+
+    static final String ADD_SPEND_SQL =
+            "INSERT INTO purchase_service.spend_hourly_rollups (hour, platform_id, currency, purchases, amount) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (hour, platform_id, currency) DO UPDATE SET " +
+            "purchases = spend_hourly_rollups.purchases + EXCLUDED.purchases, " +
+            "amount = spend_hourly_rollups.amount + EXCLUDED.amount";
+
+    static final String WRITE_LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+
+    private static final String DELETE_COUNTS_SQL =
+            "DELETE FROM purchase_service.platform_hourly_rollups WHERE hour >= ? AND hour < ?";
+
+    private static final String DELETE_SPEND_SQL =
+            "DELETE FROM purchase_service.spend_hourly_rollups WHERE hour >= ? AND hour < ?";
+
+    // Rows are deleted first so hours whose posts are gone do not keep their old counts;
+    // ON CONFLICT covers a concurrent recompute of the same hours on another instance
+    static final String RECOMPUTE_COUNTS_SQL =
+            "INSERT INTO purchase_service.platform_hourly_rollups (hour, platform_id, posts, likes) " +
+            "SELECT hour, platform_id, SUM(posts), SUM(likes) FROM (" +
+            "    SELECT " + HOUR_OF_POST + " AS hour, COALESCE(p.platform_id, " + NIL + ") AS platform_id, " +
+            "           1 AS posts, 0 AS likes " +
+            "    FROM purchase_service.posts p " +
+            "    WHERE p.created_at >= CAST(? AS timestamptz) AND p.created_at < CAST(? AS timestamptz) " +
+            "    UNION ALL " +
+            "    SELECT " + HOUR_OF_LIKE + ", COALESCE(p.platform_id, " + NIL + "), 0, 1 " +
+            "    FROM purchase_service.post_likes l JOIN purchase_service.posts p ON p.id = l.post_id " +
+            "    WHERE l.created_at >= CAST(? AS timestamptz) AND l.created_at < CAST(? AS timestamptz)" +
+            ") source GROUP BY hour, platform_id " +
+            "ON CONFLICT (hour, platform_id) DO UPDATE SET posts = EXCLUDED.posts, likes = EXCLUDED.likes";
+
+    static final String RECOMPUTE_SPEND_SQL =
+            "INSERT INTO purchase_service.spend_hourly_rollups (hour, platform_id, currency, purchases, amount) " +
+            "SELECT " + HOUR_OF_POST + ", COALESCE(p.platform_id, " + NIL + "), UPPER(TRIM(p.currency)), " +
+            "       COUNT(*), SUM(p.price) " +
+            "FROM purchase_service.posts p " +
+            "WHERE p.created_at >= CAST(? AS timestamptz) AND p.created_at < CAST(? AS timestamptz) " +
+            "AND p.price IS NOT NULL AND TRIM(p.currency) <> '' " +
+            "GROUP BY 1, 2, 3 " +
+            "ON CONFLICT (hour, platform_id, currency) DO UPDATE SET " +
+            "purchases = EXCLUDED.purchases, amount = EXCLUDED.amount";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration sealDelay;
+    private final int sealHours;
+    private final int backfillDays;
+    private final Counter lateDeltas;
+    private final Counter flushFailures;
+
+    // Committed on this instance and not written yet. Guarded by this
+    private Deltas pending = new Deltas();
+
+    public RollupService(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.rollups.seal-delay-minutes:5}") long sealDelayMinutes,
+                         @Value("${app.rollups.seal-hours:3}") int sealHours,
+                         @Value("${app.rollups.backfill-days:30}") int backfillDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sealDelay = Duration.ofMinutes(sealDelayMinutes);
+        this.sealHours = sealHours;
+        this.backfillDays = backfillDays;
+        this.lateDeltas = Counter.builder("rollups.late.deltas")
+                .description("Buffered posts and likes dropped because their hour was already recomputed")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("rollups.flush.failures")
+                .description("Rollup flushes that failed and were retried")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onPostCreated(PostCreatedEvent event) {
+        PostResponse post = event.getPost();
+        Instant hour = hourOf(post.getTimestamp() == null ? Instant.now() : post.getTimestamp());
+        UUID platformId = post.getPlatform() == null || post.getPlatform().getId() == null
+                ? NO_PLATFORM : post.getPlatform().getId();
+        pending.counts.computeIfAbsent(new Slot(hour, platformId), slot -> new long[2])[POSTS]++;
+        String currency = normalize(post.getCurrency());
+        if (post.getPrice() != null && !currency.isEmpty()) {
+            pending.spend.computeIfAbsent(new SpendSlot(hour, platformId, currency), slot -> new Spend())
+                    .add(1, post.getPrice());
+        }
+    }
+
+    /**
+     * Likes are filed under the hour they were committed; the platform is looked up on flush
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onPostInteraction(PostInteractionEvent event) {
+        if (event.getType() == PostInteractionEvent.Type.LIKED) {
+            pending.likes.merge(new Slot(hourOf(Instant.now()), event.getPostId()), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Add the buffered deltas to the rollup rows in one transaction. On failure they are put
+     * back and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.rollups.flush-interval-ms:10000}")
+    public void flush() {
+        Deltas drained;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            drained = pending;
+            pending = new Deltas();
+        }
+
+        dropLate(drained);
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                lockWrites();
+                // A recompute may have sealed another hour while this flush waited for the lock
+                dropLate(drained);
+                if (!drained.isEmpty()) {
+                    write(drained);
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending.addAll(drained);
+            }
+            flushFailures.increment();
+            log.warn("Failed to flush rollups, will retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Recompute the hours that have just been handed over from the live deltas
+     */
+    @Scheduled(initialDelayString = "${app.rollups.seal-interval-ms:300000}",
+               fixedDelayString = "${app.rollups.seal-interval-ms:300000}")
+    public void seal() {
+        Instant to = sealedBefore(Instant.now());
+        recompute(to.minus(sealHours, ChronoUnit.HOURS), to);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.rollups.backfill-interval-ms:86400000}")
+    public void backfill() {
+        Instant to = sealedBefore(Instant.now());
+        Instant from = to.minus(backfillDays, ChronoUnit.DAYS);
+        recompute(from, to);
+        log.info("Backfilled rollups from {} to {}", from, to);
+    }
+
+    /**
+     * Recompute the hours between {@code from} and {@code to} from the source tables, a day per
+     * transaction. Hours that are still open to live deltas are left alone.
+     */
+    public void backfill(Instant from, Instant to) {
+        Instant sealed = sealedBefore(Instant.now());
+        recompute(hourOf(from), to.isAfter(sealed) ? sealed : to);
+    }
+
+    /**
+     * Posts, likes and spend per platform for the hours or UTC days starting between
+     * {@code from} (rounded down) and {@code to}, oldest first. Deltas not flushed yet are not
+     * included.
+     */
+    public List<RollupBucket> getRollups(Instant from, Instant to, String granularity, UUID platformId) {
+        ChronoUnit unit;
+        if ("hour".equalsIgnoreCase(granularity)) {
+            unit = ChronoUnit.HOURS;
+        } else if ("day".equalsIgnoreCase(granularity)) {
+            unit = ChronoUnit.DAYS;
+        } else {
+            throw new BadRequestException("granularity must be hour or day");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        Duration max = unit == ChronoUnit.HOURS ? MAX_HOURLY_RANGE : MAX_DAILY_RANGE;
+        if (Duration.between(from, to).compareTo(max) > 0) {
+            throw new BadRequestException("Range must be at most " + max.toDays() + " days for " +
+                    (unit == ChronoUnit.HOURS ? "hourly" : "daily") + " rollups");
+        }
+
+        String bucket = unit == ChronoUnit.HOURS
+                ? "r.hour"
+                : "date_trunc('day', r.hour AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'";
+        String platformFilter = platformId == null ? "" : "AND r.platform_id = ? ";
+        List<Object> args = new ArrayList<>(List.of(Timestamp.from(from.truncatedTo(unit)), Timestamp.from(to)));
+        if (platformId != null) {
+            args.add(platformId);
+        }
+
+        Map<Slot, RollupBucket> buckets = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT " + bucket + " AS start, r.platform_id, pl.name, SUM(r.posts), SUM(r.likes) " +
+                "FROM purchase_service.platform_hourly_rollups r " +
+                "LEFT JOIN purchase_service.platforms pl ON pl.id = r.platform_id " +
+                "WHERE r.hour >= ? AND r.hour < ? " + platformFilter +
+                "GROUP BY 1, 2, 3 ORDER BY 1, 2",
+                rs -> {
+                    RollupBucket row = bucket(buckets, rs.getTimestamp(1).toInstant(), rs.getObject(2, UUID.class));
+                    row.setPlatformName(rs.getString(3));
+                    row.setPosts(rs.getLong(4));
+                    row.setLikes(rs.getLong(5));
+                },
+                args.toArray());
+        jdbcTemplate.query(
+                "SELECT " + bucket + " AS start, r.platform_id, r.currency, SUM(r.amount) " +
+                "FROM purchase_service.spend_hourly_rollups r " +
+                "WHERE r.hour >= ? AND r.hour < ? " + platformFilter +
+                "GROUP BY 1, 2, 3",
+                rs -> {
+                    RollupBucket row = bucket(buckets, rs.getTimestamp(1).toInstant(), rs.getObject(2, UUID.class));
+                    row.getSpendByCurrency().put(rs.getString(3), rs.getBigDecimal(4));
+                },
+                args.toArray());
+
+        return buckets.values().stream()
+                .sorted(Comparator.comparing(RollupBucket::getStart)
+                        .thenComparing(row -> row.getPlatformId() == null ? NO_PLATFORM : row.getPlatformId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Hours before this are recomputed from the source tables; later ones take live deltas
+     */
+    Instant sealedBefore(Instant now) {
+        return hourOf(now.minus(sealDelay));
+    }
+
+    private void recompute(Instant from, Instant to) {
+        for (Instant start = from; start.isBefore(to); start = start.plus(1, ChronoUnit.DAYS)) {
+            Instant end = start.plus(1, ChronoUnit.DAYS).isBefore(to) ? start.plus(1, ChronoUnit.DAYS) : to;
+            Timestamp chunkStart = Timestamp.from(start);
+            Timestamp chunkEnd = Timestamp.from(end);
+            transactionTemplate.executeWithoutResult(status -> {
+                lockWrites();
+                jdbcTemplate.update(DELETE_COUNTS_SQL, chunkStart, chunkEnd);
+                jdbcTemplate.update(DELETE_SPEND_SQL, chunkStart, chunkEnd);
+                jdbcTemplate.update(RECOMPUTE_COUNTS_SQL, chunkStart, chunkEnd, chunkStart, chunkEnd);
+                jdbcTemplate.update(RECOMPUTE_SPEND_SQL, chunkStart, chunkEnd);
+            });
+        }
+    }
+
+    /**
+     * Held until the transaction ends; recomputes take it too, so a flush never interleaves with one
+     */
+    private void lockWrites() {
+        jdbcTemplate.queryForList(WRITE_LOCK_SQL, WRITE_LOCK_KEY);
+    }
+
+    private void dropLate(Deltas deltas) {
+        int dropped = deltas.dropBefore(sealedBefore(Instant.now()));
+        if (dropped > 0) {
+            lateDeltas.increment(dropped);
+        }
+    }
+
+    private void write(Deltas deltas) {
+        Map<Slot, long[]> counts = new HashMap<>();
+        deltas.counts.forEach((slot, values) -> counts.put(slot, values.clone()));
+        if (!deltas.likes.isEmpty()) {
+            Map<UUID, UUID> platforms = platformsOf(deltas.likes.keySet().stream()
+                    .map(Slot::getId).distinct().collect(Collectors.toList()));
+            // Likes of posts deleted since are left out
+            deltas.likes.forEach((slot, likes) -> {
+                UUID platformId = platforms.get(slot.getId());
+                if (platformId != null) {
+                    counts.computeIfAbsent(new Slot(slot.getHour(), platformId), key -> new long[2])[LIKES] += likes;
+                }
+            });
+        }
+
+        // Rows are written in key order so concurrent flushes from several instances cannot deadlock
+        List<Object[]> countRows = counts.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Slot.ORDER))
+                .map(entry -> new Object[]{
+                        Timestamp.from(entry.getKey().getHour()), entry.getKey().getId(),
+                        entry.getValue()[POSTS], entry.getValue()[LIKES]
+                })
+                .collect(Collectors.toList());
+        List<Object[]> spendRows = deltas.spend.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(SpendSlot.ORDER))
+                .map(entry -> new Object[]{
+                        Timestamp.from(entry.getKey().getHour()), entry.getKey().getPlatformId(),
+                        entry.getKey().getCurrency(), entry.getValue().purchases, entry.getValue().amount
+                })
+                .collect(Collectors.toList());
+        if (!countRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_COUNTS_SQL, countRows);
+        }
+        if (!spendRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_SPEND_SQL, spendRows);
+        }
+    }
+
+    /**
+     * Platform of each post that still exists, {@link #NO_PLATFORM} if it has none
+     */
+    private Map<UUID, UUID> platformsOf(List<UUID> postIds) {
+        Map<UUID, UUID> platforms = new HashMap<>();
+        for (int i = 0; i < postIds.size(); i += PLATFORM_LOOKUP_CHUNK) {
+            List<UUID> chunk = postIds.subList(i, Math.min(i + PLATFORM_LOOKUP_CHUNK, postIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query(
+                    "SELECT id, COALESCE(platform_id, " + NIL + ") FROM purchase_service.posts " +
+                    "WHERE id IN (" + placeholders + ")",
+                    rs -> {
+                        platforms.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+                    },
+                    chunk.toArray());
+        }
+        return platforms;
+    }
+
+    private static RollupBucket bucket(Map<Slot, RollupBucket> buckets, Instant start, UUID platformId) {
+        return buckets.computeIfAbsent(new Slot(start, platformId), slot -> RollupBucket.builder()
+                .start(start)
+                .platformId(NO_PLATFORM.equals(platformId) ? null : platformId)
+                .posts(0L)
+                .likes(0L)
+                .spendByCurrency(new TreeMap<>())
+                .build());
+    }
+
+    private static Instant hourOf(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static String normalize(String currency) {
+        return currency == null ? "" : currency.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * An hour and a platform, or for buffered likes an hour and a post
+     */
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Slot {
+        private static final Comparator<Slot> ORDER =
+                Comparator.comparing(Slot::getHour).thenComparing(Slot::getId);
+
+        private final Instant hour;
+        private final UUID id;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class SpendSlot {
+        private static final Comparator<SpendSlot> ORDER = Comparator.comparing(SpendSlot::getHour)
+                .thenComparing(SpendSlot::getPlatformId).thenComparing(SpendSlot::getCurrency);
+
+        private final Instant hour;
+        private final UUID platformId;
+        private final String currency;
+    }
+
+    private static final class Spend {
+        private long purchases;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        private void add(long purchases, BigDecimal amount) {
+            this.purchases += purchases;
+            this.amount = this.amount.add(amount);
+        }
+    }
+
+    private static final class Deltas {
+        private final Map<Slot, long[]> counts = new HashMap<>();
+        private final Map<SpendSlot, Spend> spend = new HashMap<>();
+        // Per hour and post
+        private final Map<Slot, Long> likes = new HashMap<>();
+
+        private boolean isEmpty() {
+            return counts.isEmpty() && spend.isEmpty() && likes.isEmpty();
+        }
+
+        /**
+         * Remove the deltas of hours before {@code hour} and return how many posts and likes they held
+         */
+        private int dropBefore(Instant hour) {
+            long dropped = counts.entrySet().stream()
+                    .filter(entry -> entry.getKey().getHour().isBefore(hour))
+                    .mapToLong(entry -> entry.getValue()[POSTS])
+                    .sum();
+            dropped += likes.entrySet().stream()
+                    .filter(entry -> entry.getKey().getHour().isBefore(hour))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            counts.keySet().removeIf(slot -> slot.getHour().isBefore(hour));
+            spend.keySet().removeIf(slot -> slot.getHour().isBefore(hour));
+            likes.keySet().removeIf(slot -> slot.getHour().isBefore(hour));
+            return (int) dropped;
+        }
+
+        private void addAll(Deltas other) {
+            other.counts.forEach((slot, values) -> {
+                long[] target = counts.computeIfAbsent(slot, key -> new long[2]);
+                target[POSTS] += values[POSTS];
+                target[LIKES] += values[LIKES];
+            });
+            other.spend.forEach((slot, amount) ->
+                    spend.computeIfAbsent(slot, key -> new Spend()).add(amount.purchases, amount.amount));
+            other.likes.forEach((slot, count) -> likes.merge(slot, count, Long::sum));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.app.trending.service;
+
+import com.app.post.dto.PostResponse;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.repo.CurrencyTotal;
+import com.app.post.repo.PostRepository;
+import com.app.trending.dto.Stats;
+import com.app.user.event.UserCreatedEvent;
+import com.app.user.repo.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Platform totals for {@code /api/stats}, kept in memory: post and user counts and the sum of
+ * post prices per currency, plus the active user counts of {@link ActiveUserService}. They are
+ * loaded from the database on startup, updated as posts and users are created on this instance,
+ * and reloaded every {@code app.stats.reconcile-interval-ms} to pick up rows written elsewhere
+ * (other instances, seed data, manual changes).
+ *
+ * <p>Creations that commit while a reload is running are added on top of the reloaded totals.
+ * One that commits just before the reload's snapshot may be counted twice until the next reload.
+ */
+@Slf4j
+@Service
+public class StatsService {
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final ActiveUserService activeUserService;
+    private final TransactionTemplate transactionTemplate;
+    private final String currency;
+    private final Counter corrections;
+
+    private volatile Totals totals = Totals.EMPTY;
+    // Creations recorded while a reload runs; null otherwise. Guarded by this
+    private Totals pending;
+    private boolean loaded;
+
+    public StatsService(PostRepository postRepository,
+                        UserRepository userRepository,
+                        ActiveUserService activeUserService,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.stats.currency:USD}") String currency) {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.activeUserService = activeUserService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setReadOnly(true);
+        this.currency = normalize(currency);
+        this.corrections = Counter.builder("stats.corrections")
+                .description("Reloads whose totals differed from the incrementally maintained ones")
+                .register(meterRegistry);
+    }
+
+    public Stats getStats() {
+        Totals current = totals;
+        BigDecimal spent = current.spent.getOrDefault(currency, BigDecimal.ZERO);
+        return Stats.builder()
+                .totalPosts(current.posts)
+                .totalUsers(current.users)
+                .totalMoneySpent(spent.doubleValue())
+                .currency(currency)
+                .moneySpentByCurrency(current.spent)
+                .activeUsers(activeUserService.getActiveThisWeek())
+                .activeUsersToday(activeUserService.getActiveToday())
+                .build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onPostCreated(PostCreatedEvent event) {
+        PostResponse post = event.getPost();
+        totals = totals.plusPost(post.getCurrency(), post.getPrice());
+        if (pending != null) {
+            pending = pending.plusPost(post.getCurrency(), post.getPrice());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onUserCreated(UserCreatedEvent event) {
+        totals = totals.plusUser();
+        if (pending != null) {
+            pending = pending.plusUser();
+        }
+    }
+
+    /**
+     * Reload the totals from the database in one snapshot. Returns whether they differed from
+     * the ones kept in memory.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.stats.reconcile-interval-ms:600000}")
+    public boolean reconcile() {
+        synchronized (this) {
+            if (pending != null) {
+                return false;
+            }
+            pending = Totals.EMPTY;
+        }
+        Totals stored;
+        try {
+            stored = transactionTemplate.execute(status -> load());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            Totals reconciled = stored.plus(pending);
+            boolean corrected = loaded && !reconciled.equals(totals);
+            if (corrected) {
+                corrections.increment();
+                log.info("Reconciled platform stats from {} to {}", totals, reconciled);
+            }
+            totals = reconciled;
+            pending = null;
+            loaded = true;
+            return corrected;
+        }
+    }
+
+    private Totals load() {
+        Map<String, BigDecimal> spent = new TreeMap<>();
+        for (CurrencyTotal row : postRepository.sumPriceByCurrency()) {
+            spent.put(row.getCurrency(), row.getTotal());
+        }
+        return new Totals(postRepository.count(), userRepository.count(), spent);
+    }
+
+    private static String normalize(String currency) {
+        return currency == null ? "" : currency.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Immutable, so {@link #getStats} reads a consistent set without locking
+     */
+    private static final class Totals {
+        private static final Totals EMPTY = new Totals(0, 0, Map.of());
+
+        private final long posts;
+        private final long users;
+        private final Map<String, BigDecimal> spent;
+
+        private Totals(long posts, long users, Map<String, BigDecimal> spent) {
+            this.posts = posts;
+            this.users = users;
+            this.spent = Collections.unmodifiableMap(spent);
+        }
+
+        private Totals plusPost(String currency, BigDecimal price) {
+            String code = normalize(currency);
+            if (price == null || code.isEmpty()) {
+                return new Totals(posts + 1, users, spent);
+            }
+            Map<String, BigDecimal> updated = new TreeMap<>(spent);
+            updated.merge(code, price, BigDecimal::add);
+            return new Totals(posts + 1, users, updated);
+        }
+
+        private Totals plusUser() {
+            return new Totals(posts, users + 1, spent);
+        }
+
+        private Totals plus(Totals other) {
+            Map<String, BigDecimal> updated = new TreeMap<>(spent);
+            other.spent.forEach((code, amount) -> updated.merge(code, amount, BigDecimal::add));
+            return new Totals(posts + other.posts, users + other.users, updated);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Totals other)) {
+                return false;
+            }
+            if (posts != other.posts || users != other.users || spent.size() != other.spent.size()) {
+                return false;
+            }
+            // Same amounts at a different scale, e.g. 10.0 and 10.00, are equal
+            return spent.entrySet().stream().allMatch(entry -> other.spent.containsKey(entry.getKey())
+                    && entry.getValue().compareTo(other.spent.get(entry.getKey())) == 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(posts) * 31 + Long.hashCode(users);
+        }
+
+        @Override
+        public String toString() {
+            return "posts=" + posts + ", users=" + users + ", spent=" + spent;
+        }
+    }
+}
@@ -1,93 +1,278 @@
 package com.app.trending.service;
 
+import com.app.post.dto.PostResponse;
+import com.app.post.entity.Post;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.event.PostInteractionEvent;
+import com.app.post.mapper.PostMapper;
 import com.app.post.repo.PostRepository;
-import com.app.trending.dto.Stats;
 import com.app.trending.dto.TrendingItem;
-import com.app.user.repo.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.math.BigDecimal;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
+/**
+ * Trending posts, ranked by an exponentially decayed engagement score kept in a
+ * {@link TrendingTracker}, and trending products, ranked by their purchases (posts) over the
+ * last 24 hours in {@link ProductCounters}. Post creations and interactions are recorded as they
+ * commit on this instance; on startup both are seeded from recent posts.
+ *
+ * <p>Every {@code app.trending.refresh-interval-ms} the current rankings are turned into lists of
+ * items and swapped in, so {@link #getTrendingItems} and {@link #getTrendingProducts} never touch
+ * the database.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class TrendingService {
-    
+
+    /*
+     * Weight of each signal; one like counts as much as the post being created
+     */
+    static final double CREATED_WEIGHT = 1;
+    static final double LIKED_WEIGHT = 1;
+    static final double COMMENTED_WEIGHT = 2;
+    static final double REPOSTED_WEIGHT = 3;
+    static final double SHARED_WEIGHT = 3;
+
+    private static final int NAME_LENGTH = 80;
+    private static final int SEED_CHUNK_SIZE = 500;
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+    private static final Duration PRODUCT_WINDOW = Duration.ofHours(ProductCounters.BUCKETS);
+
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
-    
-    public List<TrendingItem> getTrendingItems() {
-        // For demo purposes, generate some trending items
-        // In a real application, this would be based on actual purchase data
-        return Arrays.asList(
-            TrendingItem.builder()
-                    .id(UUID.randomUUID())
-                    .name("iPhone 15 Pro")
-                    .icon("📱")
-                    .category("Electronics")
-                    .purchasesToday(1250)
-                    .rank(1)
-                    .isHot(true)
-                    .isRising(true)
-                    .build(),
-            TrendingItem.builder()
-                    .id(UUID.randomUUID())
-                    .name("Air Jordan 1")
-                    .icon("👟")
-                    .category("Fashion")
-                    .purchasesToday(890)
-                    .rank(2)
-                    .isHot(false)
-                    .isRising(true)
-                    .build(),
-            TrendingItem.builder()
-                    .id(UUID.randomUUID())
-                    .name("PlayStation 5")
-                    .icon("🎮")
-                    .category("Gaming")
-                    .purchasesToday(756)
-                    .rank(3)
-                    .isHot(true)
-                    .isRising(false)
-                    .build(),
-            TrendingItem.builder()
-                    .id(UUID.randomUUID())
-                    .name("MacBook Pro")
-                    .icon("💻")
-                    .category("Computers")
-                    .purchasesToday(623)
-                    .rank(4)
-                    .isHot(false)
-                    .isRising(true)
-                    .build(),
-            TrendingItem.builder()
-                    .id(UUID.randomUUID())
-                    .name("AirPods Pro")
-                    .icon("🎧")
-                    .category("Audio")
-                    .purchasesToday(545)
-                    .rank(5)
-                    .isHot(false)
-                    .isRising(false)
-                    .build()
-        );
+    private final PostMapper postMapper;
+    private final TrendingTracker tracker;
+    private final ProductCounters<Details> products;
+    private final int size;
+    private final Duration seedWindow;
+
+    // Display details of posts currently in the ranking, so a refresh only loads newcomers
+    private final Map<UUID, Details> details = new ConcurrentHashMap<>();
+    private volatile List<TrendingItem> snapshot = List.of();
+    private volatile List<TrendingItem> productSnapshot = List.of();
+    private boolean seeded;
+
+    public TrendingService(PostRepository postRepository,
+                           PostMapper postMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.trending.half-life-minutes:360}") long halfLifeMinutes,
+                           @Value("${app.trending.capacity:100}") int capacity,
+                           @Value("${app.trending.size:20}") int size,
+                           @Value("${app.trending.sketch-width:16384}") int sketchWidth,
+                           @Value("${app.trending.sketch-depth:4}") int sketchDepth,
+                           @Value("${app.trending.seed-window-hours:48}") long seedWindowHours,
+                           @Value("${app.trending.product-capacity:10000}") int productCapacity) {
+        if (size < 1 || size > capacity) {
+            throw new IllegalArgumentException("app.trending.size must be between 1 and app.trending.capacity");
+        }
+        this.postRepository = postRepository;
+        this.postMapper = postMapper;
+        this.tracker = new TrendingTracker(capacity, Duration.ofMinutes(halfLifeMinutes), sketchWidth, sketchDepth,
+                Instant.now().toEpochMilli());
+        this.products = new ProductCounters<>(productCapacity);
+        this.size = size;
+        this.seedWindow = Duration.ofHours(seedWindowHours);
+        meterRegistry.gauge("trending.candidates", tracker, TrendingTracker::size);
+        meterRegistry.gauge("trending.products", products, ProductCounters::size);
+    }
+
+    /**
+     * Top trending posts as of the last refresh, at most {@code app.trending.size}
+     */
+    public List<TrendingItem> getTrendingItems(int limit) {
+        List<TrendingItem> items = snapshot;
+        return items.subList(0, Math.max(0, Math.min(limit, items.size())));
     }
-    
-    public Stats getStats() {
-        // Calculate actual stats from the database
-        long totalPosts = postRepository.count();
-        long totalUsers = userRepository.count();
-        
-        // For demo purposes, generate some random stats
-        // In a real application, this would be calculated from actual data
-        return Stats.builder()
-                .totalPosts((int) totalPosts)
-                .totalMoneySpent(ThreadLocalRandom.current().nextDouble(50000, 200000))
-                .activeUsers((int) (totalUsers * 0.7)) // 70% of users are active
-                .build();
+
+    /**
+     * Top products by purchases over the last 24 hours as of the last refresh, at most
+     * {@code app.trending.size}
+     */
+    public List<TrendingItem> getTrendingProducts(int limit) {
+        List<TrendingItem> items = productSnapshot;
+        return items.subList(0, Math.max(0, Math.min(limit, items.size())));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostCreated(PostCreatedEvent event) {
+        PostResponse post = event.getPost();
+        PostResponse.Platform platform = post.getPlatform();
+        Details created = Details.of(post.getContent(), platform,
+                ProductKey.of(platform == null ? null : platform.getId(), post.getProductUrl()).orElse(null));
+        long now = Instant.now().toEpochMilli();
+        details.put(post.getId(), created);
+        tracker.record(post.getId(), CREATED_WEIGHT, now);
+        if (created.productKey != null) {
+            products.record(created.productKey, created, now);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPostInteraction(PostInteractionEvent event) {
+        tracker.record(event.getPostId(), weight(event.getType()), Instant.now().toEpochMilli());
+    }
+
+    /**
+     * Swap in a fresh ranking, loading details only for posts that just entered it. The first
+     * run seeds the scores from the database.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.trending.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        if (!seeded) {
+            seed();
+            seeded = true;
+        }
+
+        long now = Instant.now().toEpochMilli();
+        List<TrendingTracker.Scored> ranking = tracker.top(now);
+        List<TrendingTracker.Scored> shown = ranking.subList(0, Math.min(size, ranking.size()));
+        List<UUID> missing = shown.stream()
+                .map(TrendingTracker.Scored::getId)
+                .filter(id -> !details.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            for (Post post : postRepository.findByIdIn(missing)) {
+                details.put(post.getId(), details(post));
+            }
+        }
+        Set<UUID> ranked = ranking.stream().map(TrendingTracker.Scored::getId).collect(Collectors.toSet());
+        details.keySet().retainAll(ranked);
+
+        List<TrendingItem> items = new ArrayList<>(shown.size());
+        for (TrendingTracker.Scored scored : shown) {
+            Details post = details.get(scored.getId());
+            if (post == null) {
+                continue;
+            }
+            ProductCounters.Stats<Details> product = post.productKey == null ? null : products.get(post.productKey, now);
+            items.add(TrendingItem.builder()
+                    .id(scored.getId())
+                    .name(post.name)
+                    .icon(post.icon)
+                    .category(post.category)
+                    .purchasesToday(product == null ? null : product.getPurchasesToday())
+                    .rank(items.size() + 1)
+                    .isHot(product == null ? null : product.isHot())
+                    .isRising(product == null ? null : product.isRising())
+                    .score(Math.round(scored.getScore() * 100) / 100.0)
+                    .build());
+        }
+        snapshot = List.copyOf(items);
+
+        List<TrendingItem> productItems = new ArrayList<>(size);
+        for (ProductCounters.Stats<Details> product : products.top(now, size)) {
+            productItems.add(TrendingItem.builder()
+                    .id(UUID.nameUUIDFromBytes(product.getKey().getBytes(StandardCharsets.UTF_8)))
+                    .name(product.getDetails().name)
+                    .icon(product.getDetails().icon)
+                    .category(product.getDetails().category)
+                    .purchasesToday(product.getPurchasesToday())
+                    .rank(productItems.size() + 1)
+                    .isHot(product.isHot())
+                    .isRising(product.isRising())
+                    .build());
+        }
+        productSnapshot = List.copyOf(productItems);
+    }
+
+    /**
+     * Score posts from the last {@code app.trending.seed-window-hours} by their stored counts,
+     * as if every interaction happened when the post was created, and count the purchases of
+     * the last 24 hours
+     */
+    private void seed() {
+        long started = System.nanoTime();
+        Instant createdAt = Instant.now().minus(seedWindow);
+        Instant purchasesFrom = Instant.now().minus(PRODUCT_WINDOW);
+        UUID id = LOWEST_ID;
+        int seededPosts = 0;
+        List<Post> chunk;
+        do {
+            chunk = postRepository.findChunkAfter(createdAt, id, PageRequest.of(0, SEED_CHUNK_SIZE));
+            for (Post post : chunk) {
+                double weight = CREATED_WEIGHT
+                        + post.getLikeCount() * LIKED_WEIGHT
+                        + post.getCommentCount() * COMMENTED_WEIGHT
+                        + post.getRepostCount() * REPOSTED_WEIGHT
+                        + post.getShareCount() * SHARED_WEIGHT;
+                tracker.record(post.getId(), weight, post.getCreatedAt().toEpochMilli());
+                if (post.getCreatedAt().isAfter(purchasesFrom)) {
+                    Details seeded = details(post);
+                    if (seeded.productKey != null) {
+                        products.record(seeded.productKey, seeded, post.getCreatedAt().toEpochMilli());
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                Post last = chunk.get(chunk.size() - 1);
+                createdAt = last.getCreatedAt();
+                id = last.getId();
+            }
+            seededPosts += chunk.size();
+        } while (chunk.size() == SEED_CHUNK_SIZE);
+        log.info("Seeded trending scores from {} posts in {} ms", seededPosts,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private static double weight(PostInteractionEvent.Type type) {
+        switch (type) {
+            case LIKED:
+                return LIKED_WEIGHT;
+            case COMMENTED:
+                return COMMENTED_WEIGHT;
+            case REPOSTED:
+                return REPOSTED_WEIGHT;
+            case SHARED:
+                return SHARED_WEIGHT;
+            default:
+                return 0;
+        }
+    }
+
+    private Details details(Post post) {
+        return Details.of(post.getText(), postMapper.mapPlatform(post.getPlatform()),
+                ProductKey.of(post.getPlatform() == null ? null : post.getPlatform().getId(), post.getProductUrl())
+                        .orElse(null));
+    }
+
+    private static final class Details {
+        private final String name;
+        private final String icon;
+        private final String category;
+        private final String productKey;
+
+        private Details(String name, String icon, String category, String productKey) {
+            this.name = name;
+            this.icon = icon;
+            this.category = category;
+            this.productKey = productKey;
+        }
+
+        private static Details of(String text, PostResponse.Platform platform, String productKey) {
+            String name = text == null ? "" : text.strip();
+            if (name.length() > NAME_LENGTH) {
+                name = name.substring(0, NAME_LENGTH - 1).stripTrailing() + "…";
+            }
+            return new Details(name,
+                    platform == null ? null : platform.getIcon(),
+                    platform == null ? null : platform.getName(),
+                    productKey);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.app.trending.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Exponentially decayed scores of posts in bounded memory: a {@link CountMinSketch} holds the
+ * scores of every post seen, and a min-heap of the {@code capacity} highest is the candidate
+ * list for trending.
+ *
+ * <p>Decay uses a fixed landmark: an event at time t adds {@code weight * e^((t - landmark) / tau)},
+ * so older events never need updating and a score at time t is the stored value times
+ * {@code e^(-(t - landmark) / tau)}. Before the multiplier grows too large, every stored value
+ * is rescaled and the landmark moved forward.
+ */
+public class TrendingTracker {
+
+    /**
+     * Rescale once the multiplier reaches e^32, far below where doubles lose precision
+     */
+    private static final double RESCALE_EXPONENT = 32;
+
+    private static final Comparator<Candidate> LOWEST_FIRST = Comparator
+            .comparingDouble((Candidate candidate) -> candidate.score)
+            .thenComparing(candidate -> candidate.id);
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final double tauMillis;
+    private final PriorityQueue<Candidate> heap;
+    private final Map<UUID, Candidate> candidates = new HashMap<>();
+    private long landmarkMillis;
+
+    public TrendingTracker(int capacity, Duration halfLife, int sketchWidth, int sketchDepth, long nowMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (halfLife.isZero() || halfLife.isNegative()) {
+            throw new IllegalArgumentException("half-life must be positive");
+        }
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+        this.capacity = capacity;
+        this.tauMillis = halfLife.toMillis() / Math.log(2);
+        this.heap = new PriorityQueue<>(capacity, LOWEST_FIRST);
+        this.landmarkMillis = nowMillis;
+    }
+
+    /**
+     * Add an event of the given weight that happened at {@code atMillis}, which may be in the past
+     */
+    public synchronized void record(UUID id, double weight, long atMillis) {
+        if (weight <= 0) {
+            return;
+        }
+        if ((atMillis - landmarkMillis) / tauMillis > RESCALE_EXPONENT) {
+            rescale(atMillis);
+        }
+        double score = sketch.add(id, weight * Math.exp((atMillis - landmarkMillis) / tauMillis));
+
+        Candidate candidate = candidates.get(id);
+        if (candidate != null) {
+            heap.remove(candidate);
+            candidate.score = score;
+            heap.add(candidate);
+        } else if (heap.size() < capacity) {
+            add(new Candidate(id, score));
+        } else if (score > heap.peek().score) {
+            candidates.remove(heap.poll().id);
+            add(new Candidate(id, score));
+        }
+    }
+
+    /**
+     * Candidates with their scores as of {@code nowMillis}, highest first
+     */
+    public synchronized List<Scored> top(long nowMillis) {
+        double decay = Math.exp(-(nowMillis - landmarkMillis) / tauMillis);
+        List<Candidate> sorted = new ArrayList<>(heap);
+        sorted.sort(LOWEST_FIRST.reversed());
+        return sorted.stream()
+                .map(candidate -> new Scored(candidate.id, candidate.score * decay))
+                .collect(Collectors.toList());
+    }
+
+    public synchronized int size() {
+        return heap.size();
+    }
+
+    private void add(Candidate candidate) {
+        heap.add(candidate);
+        candidates.put(candidate.id, candidate);
+    }
+
+    private void rescale(long nowMillis) {
+        double factor = Math.exp(-(nowMillis - landmarkMillis) / tauMillis);
+        sketch.scale(factor);
+        for (Candidate candidate : candidates.values()) {
+            candidate.score *= factor;
+        }
+        // Scaling keeps the order, so the heap stays valid
+        landmarkMillis = nowMillis;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Scored {
+        private final UUID id;
+        private final double score;
+    }
+
+    private static final class Candidate {
+        private final UUID id;
+        private double score;
+
+        private Candidate(UUID id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.app.user.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Published when a user logs in and on every request authenticated with a token
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserAuthenticatedEvent {
+    private final UUID userId;
+}
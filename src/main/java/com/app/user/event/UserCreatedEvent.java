@@ -0,0 +1,14 @@
+package com.app.user.event;
+
+import com.app.user.dto.UserSummary;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when an account is registered
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserCreatedEvent {
+    private final UserSummary user;
+}
@@ -1,12 +1,19 @@
 package com.app.user.repo;
 
 import com.app.user.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    /**
+     * Chunk of users after the given id in id order, for streaming the whole table
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(UUID id, Pageable pageable);
 }
@@ -0,0 +1,5 @@
+-- Comment threads are loaded with a recursive query: top-level comments of a post, then the
+-- replies of each loaded comment level by level, oldest first. id is the last column so the same
+-- indexes also serve keyset pagination on (created_at, id).
+CREATE INDEX IF NOT EXISTS idx_comments_post_parent_created_at_id ON purchase_service.comments (post_id, parent_comment_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_comments_parent_created_at_id ON purchase_service.comments (parent_comment_id, created_at, id);
@@ -0,0 +1,4 @@
+-- Keyset pagination of comment lists: ORDER BY created_at, id with a (created_at, id) > (:createdAt, :id)
+-- predicate becomes an index range scan once id is the last index column. Thread lists use the
+-- V10 indexes; a user's comments, newest first, use this one.
+CREATE INDEX IF NOT EXISTS idx_comments_author_created_at_id ON purchase_service.comments (author_id, created_at DESC, id DESC);
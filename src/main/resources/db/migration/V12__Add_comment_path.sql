@@ -0,0 +1,34 @@
+-- Materialized path of each comment: the ids of its ancestors, root first, as 32 hex digits each
+-- followed by '/', so top-level comments have ''. A comment's descendants are then the rows whose
+-- path starts with its own path plus its id, a single range scan on idx_comments_path. The "C"
+-- collation makes that range plain byte order. depth is 1 for top-level comments.
+ALTER TABLE purchase_service.comments ADD COLUMN IF NOT EXISTS path TEXT COLLATE "C";
+ALTER TABLE purchase_service.comments ADD COLUMN IF NOT EXISTS depth INT;
+
+-- Replies whose parent was deleted before deletes removed whole subtrees keep the missing parent
+-- in their path, so they stay out of threads as before.
+WITH RECURSIVE tree AS (
+    SELECT c.id,
+           CASE WHEN c.parent_comment_id IS NULL THEN ''
+                ELSE replace(c.parent_comment_id::text, '-', '') || '/' END AS path,
+           CASE WHEN c.parent_comment_id IS NULL THEN 1 ELSE 2 END AS depth
+    FROM purchase_service.comments c
+    WHERE c.parent_comment_id IS NULL
+       OR NOT EXISTS (SELECT 1 FROM purchase_service.comments p WHERE p.id = c.parent_comment_id)
+    UNION ALL
+    SELECT c.id, t.path || replace(t.id::text, '-', '') || '/', t.depth + 1
+    FROM purchase_service.comments c
+    JOIN tree t ON c.parent_comment_id = t.id
+)
+UPDATE purchase_service.comments c
+SET path = tree.path, depth = tree.depth
+FROM tree
+WHERE c.id = tree.id;
+
+ALTER TABLE purchase_service.comments ALTER COLUMN path SET NOT NULL;
+ALTER TABLE purchase_service.comments ALTER COLUMN depth SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_comments_path ON purchase_service.comments (path);
+
+-- Threads are read level by level, oldest first, without recursion
+CREATE INDEX IF NOT EXISTS idx_comments_post_depth_created_at_id ON purchase_service.comments (post_id, depth, created_at, id);
@@ -0,0 +1,13 @@
+-- Number of direct replies of each comment, kept up to date by the application in the same
+-- transaction as the reply insert or delete, and reconciled periodically.
+ALTER TABLE purchase_service.comments ADD COLUMN IF NOT EXISTS reply_count INT NOT NULL DEFAULT 0;
+
+UPDATE purchase_service.comments c
+SET reply_count = replies.n
+FROM (
+    SELECT parent_comment_id AS id, count(*) AS n
+    FROM purchase_service.comments
+    WHERE parent_comment_id IS NOT NULL
+    GROUP BY parent_comment_id
+) replies
+WHERE c.id = replies.id;
@@ -0,0 +1,8 @@
+-- Distinct active users per UTC day as a HyperLogLog sketch (precision byte followed by the
+-- registers). Instances merge their in-memory sketch into the row by register-wise maximum, so
+-- repeated or concurrent flushes never double count; counts over several days merge the rows.
+CREATE TABLE IF NOT EXISTS purchase_service.active_user_sketches (
+  day DATE PRIMARY KEY,
+  sketch BYTEA NOT NULL,
+  updated_at TIMESTAMPTZ NOT NULL
+);
@@ -0,0 +1,25 @@
+-- Hourly rollups of posts, likes and spend per platform, so dashboards read a few hundred rows
+-- instead of scanning posts and post_likes. hour is the start of the UTC hour; posts without a
+-- platform are filed under the nil UUID, since a primary key column cannot be null.
+-- Instances add committed creations as deltas; hours that have ended are recomputed from the
+-- source tables by an idempotent job, which also corrects likes that were taken back.
+CREATE TABLE IF NOT EXISTS purchase_service.platform_hourly_rollups (
+  hour TIMESTAMPTZ NOT NULL,
+  platform_id UUID NOT NULL,
+  posts BIGINT NOT NULL DEFAULT 0,
+  likes BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (hour, platform_id)
+);
+
+-- Sum of post prices per upper-cased currency code; posts without a price or currency are left out
+CREATE TABLE IF NOT EXISTS purchase_service.spend_hourly_rollups (
+  hour TIMESTAMPTZ NOT NULL,
+  platform_id UUID NOT NULL,
+  currency VARCHAR(10) NOT NULL,
+  purchases BIGINT NOT NULL DEFAULT 0,
+  amount NUMERIC NOT NULL DEFAULT 0,
+  PRIMARY KEY (hour, platform_id, currency)
+);
+
+-- Recomputing a range of hours reads likes by the time they were given
+CREATE INDEX IF NOT EXISTS idx_post_likes_created_at ON purchase_service.post_likes (created_at);
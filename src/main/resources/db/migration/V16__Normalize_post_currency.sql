@@ -0,0 +1,6 @@
+-- Currency codes are stored upper-cased and trimmed from now on, so the currency filter can
+-- compare posts.currency directly and keep using idx_posts_currency_price. Existing rows saved
+-- as typed ("usd", " USD") are brought into the same form.
+UPDATE purchase_service.posts
+SET currency = UPPER(TRIM(currency))
+WHERE currency IS NOT NULL AND currency <> UPPER(TRIM(currency));
@@ -0,0 +1,27 @@
+-- The post search vector mixes configurations: post text (weight A) is english, names
+-- (weights B and C) are simple. A query parsed once with english stems every term, so a
+-- prefix like "gaming" becomes game:* and misses the unstemmed name token "gaming".
+-- Build the query term by term instead, each term matching the stemmed text or the
+-- names as typed. A stop word ("the") is dropped from the english side only.
+--
+-- p_query is a prefix tsquery from SearchTerms, e.g. (sony:* & head:*) | (bose:*); its
+-- terms are letters and digits only.
+CREATE OR REPLACE FUNCTION purchase_service.post_search_query(p_query TEXT)
+RETURNS TSQUERY
+LANGUAGE plpgsql IMMUTABLE AS $$
+DECLARE
+    result TSQUERY := '';
+    grp TSQUERY;
+    alternative TEXT;
+    term TEXT;
+BEGIN
+    FOREACH alternative IN ARRAY regexp_split_to_array(p_query, '\|') LOOP
+        grp := '';
+        FOR term IN SELECT m[1] FROM regexp_matches(alternative, '([^\s()&|:*]+)', 'g') AS m LOOP
+            grp := grp && (to_tsquery('english', term || ':*A') || to_tsquery('simple', term || ':*BC'));
+        END LOOP;
+        result := result || grp;
+    END LOOP;
+    RETURN result;
+END
+$$;
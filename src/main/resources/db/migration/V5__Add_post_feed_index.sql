@@ -0,0 +1,3 @@
+-- Supports keyset pagination of the feed: ORDER BY created_at DESC, id DESC
+-- with a (created_at, id) < (:createdAt, :id) predicate becomes an index range scan.
+CREATE INDEX IF NOT EXISTS idx_posts_created_at_id ON purchase_service.posts (created_at DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Sharded interaction counters for hot posts (app.counters.mode = sharded).
+-- Each interaction adds to one of N rows per post instead of locking the posts row;
+-- the true count is posts.<counter> plus the sum of the shard deltas, and a periodic
+-- compaction folds the deltas back into posts.
+CREATE TABLE IF NOT EXISTS purchase_service.post_counter_shards (
+    post_id UUID NOT NULL,
+    shard SMALLINT NOT NULL,
+    like_delta INTEGER NOT NULL DEFAULT 0,
+    repost_delta INTEGER NOT NULL DEFAULT 0,
+    share_delta INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (post_id, shard)
+);
+
+ALTER TABLE purchase_service.post_counter_shards
+ADD CONSTRAINT fk_post_counter_shards_post FOREIGN KEY (post_id) REFERENCES purchase_service.posts(id) ON DELETE CASCADE;
@@ -0,0 +1,76 @@
+-- Full-text search over posts: a maintained tsvector column with a GIN index replaces
+-- LOWER(x) LIKE '%kw%' across posts, users and platforms, which could only seq-scan.
+-- Weights: post text A, author username/display name B, platform name C.
+-- Post text uses the english configuration (stemming, stop words); names use simple.
+
+ALTER TABLE purchase_service.posts ADD COLUMN IF NOT EXISTS search_vector TSVECTOR;
+
+CREATE OR REPLACE FUNCTION purchase_service.post_search_vector(p_text TEXT, p_author_id UUID, p_platform_id UUID)
+RETURNS TSVECTOR
+LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('english', coalesce(p_text, '')), 'A')
+        || setweight(to_tsvector('simple', coalesce(u.username, '') || ' ' || coalesce(u.display_name, '')), 'B')
+        || setweight(to_tsvector('simple', coalesce(pl.name, '')), 'C')
+    FROM (SELECT 1) AS one
+    LEFT JOIN purchase_service.users u ON u.id = p_author_id
+    LEFT JOIN purchase_service.platforms pl ON pl.id = p_platform_id
+$$;
+
+-- Keep the vector current when the post itself changes. Counter updates touch none of
+-- these columns, so they do not pay for recomputing it.
+CREATE OR REPLACE FUNCTION purchase_service.posts_search_vector_update()
+RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_vector := purchase_service.post_search_vector(NEW.text, NEW.author_id, NEW.platform_id);
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_posts_search_vector ON purchase_service.posts;
+CREATE TRIGGER trg_posts_search_vector
+    BEFORE INSERT OR UPDATE OF text, author_id, platform_id ON purchase_service.posts
+    FOR EACH ROW EXECUTE FUNCTION purchase_service.posts_search_vector_update();
+
+-- ... and when an author renames themselves or a platform is renamed
+CREATE OR REPLACE FUNCTION purchase_service.users_refresh_post_search_vector()
+RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE purchase_service.posts
+    SET search_vector = purchase_service.post_search_vector(text, author_id, platform_id)
+    WHERE author_id = NEW.id;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_users_post_search_vector ON purchase_service.users;
+CREATE TRIGGER trg_users_post_search_vector
+    AFTER UPDATE OF username, display_name ON purchase_service.users
+    FOR EACH ROW
+    WHEN (OLD.username IS DISTINCT FROM NEW.username OR OLD.display_name IS DISTINCT FROM NEW.display_name)
+    EXECUTE FUNCTION purchase_service.users_refresh_post_search_vector();
+
+CREATE OR REPLACE FUNCTION purchase_service.platforms_refresh_post_search_vector()
+RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE purchase_service.posts
+    SET search_vector = purchase_service.post_search_vector(text, author_id, platform_id)
+    WHERE platform_id = NEW.id;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_platforms_post_search_vector ON purchase_service.platforms;
+CREATE TRIGGER trg_platforms_post_search_vector
+    AFTER UPDATE OF name ON purchase_service.platforms
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name)
+    EXECUTE FUNCTION purchase_service.platforms_refresh_post_search_vector();
+
+-- Backfill existing posts
+UPDATE purchase_service.posts
+SET search_vector = purchase_service.post_search_vector(text, author_id, platform_id);
+
+CREATE INDEX IF NOT EXISTS idx_posts_search_vector ON purchase_service.posts USING GIN (search_vector);
@@ -0,0 +1,14 @@
+-- Fuzzy and substring matching on author and platform names with pg_trgm.
+-- GIN trigram indexes serve both the similarity operator (name % 'jhondoe', typo tolerant)
+-- and ILIKE '%doe%' (substring), which a btree index cannot.
+-- The similarity cut-off is pg_trgm.similarity_threshold, set per connection from
+-- app.search.similarity-threshold.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON purchase_service.users USING GIN (username gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_display_name_trgm ON purchase_service.users USING GIN (display_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_platforms_name_trgm ON purchase_service.platforms USING GIN (name gin_trgm_ops);
+
+-- Posts of the matched authors and platforms are then found by these
+CREATE INDEX IF NOT EXISTS idx_posts_author_id ON purchase_service.posts (author_id);
+CREATE INDEX IF NOT EXISTS idx_posts_platform_id ON purchase_service.posts (platform_id);
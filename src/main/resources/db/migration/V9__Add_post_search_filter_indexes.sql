@@ -0,0 +1,10 @@
+-- Indexes for the search filters on platform, price, currency and purchase date.
+-- Filter-only searches list the newest posts of a platform first, so the platform index carries
+-- the feed order and replaces the plain one from V8 (still usable for platform_id lookups).
+CREATE INDEX IF NOT EXISTS idx_posts_platform_created_at ON purchase_service.posts (platform_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS purchase_service.idx_posts_platform_id;
+
+-- A price range is usually asked for in one currency; the price-only index covers the rest
+CREATE INDEX IF NOT EXISTS idx_posts_currency_price ON purchase_service.posts (currency, price);
+CREATE INDEX IF NOT EXISTS idx_posts_price ON purchase_service.posts (price);
+CREATE INDEX IF NOT EXISTS idx_posts_purchase_date ON purchase_service.posts (purchase_date);
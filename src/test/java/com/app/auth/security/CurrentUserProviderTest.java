@@ -0,0 +1,190 @@
+package com.app.auth.security;
+
+import com.app.common.exception.UnauthorizedException;
+import com.app.user.dto.UserSummary;
+import com.app.user.entity.User;
+import com.app.user.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserProviderTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CurrentUserProvider currentUserProvider;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        currentUserProvider = new CurrentUserProvider(userRepository, 2, 60_000);
+
+        testUser = User.builder()
+                .id(UUID.randomUUID())
+                .username("testuser")
+                .displayName("Test User")
+                .avatarUrl("avatar-url")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void authenticateAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    @Test
+    void findCurrentUser_NoAuthentication_ReturnsEmpty() {
+        assertThat(currentUserProvider.findCurrentUser()).isEmpty();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findCurrentUser_AnonymousAuthentication_ReturnsEmpty() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        assertThat(currentUserProvider.findCurrentUserId()).isEmpty();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findCurrentUser_Authenticated_ReturnsSummary() {
+        authenticateAs("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        UserSummary summary = currentUserProvider.findCurrentUser().orElseThrow();
+
+        assertThat(summary.getId()).isEqualTo(testUser.getId());
+        assertThat(summary.getUsername()).isEqualTo("testuser");
+        assertThat(summary.getName()).isEqualTo("Test User");
+        assertThat(summary.getAvatar()).isEqualTo("avatar-url");
+    }
+
+    @Test
+    void findCurrentUser_RepeatedCalls_HitRepositoryOnce() {
+        authenticateAs("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(currentUserProvider.getCurrentUserId()).isEqualTo(testUser.getId());
+        }
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void findCurrentUser_WithinRequest_MemoizesOnRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        authenticateAs("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        currentUserProvider.findCurrentUser();
+        currentUserProvider.evict("testuser");
+        currentUserProvider.findCurrentUser();
+
+        // Second lookup is served from the request, not the (evicted) cache
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void evict_RemovesCachedEntry() {
+        authenticateAs("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        currentUserProvider.findCurrentUser();
+        currentUserProvider.evict("testuser");
+        currentUserProvider.findCurrentUser();
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void cache_ExpiredEntry_IsLoadedAgain() {
+        // Given entries that expire at once
+        currentUserProvider = new CurrentUserProvider(userRepository, 2, 0);
+        authenticateAs("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        currentUserProvider.findCurrentUser();
+
+        // When the profile changes
+        testUser.setDisplayName("Renamed");
+        Optional<UserSummary> summary = currentUserProvider.findCurrentUser();
+
+        // Then
+        assertThat(summary).get().extracting(UserSummary::getName).isEqualTo("Renamed");
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void cache_IsBoundedBySize() {
+        for (String username : List.of("a", "b", "c")) {
+            when(userRepository.findByUsername(username)).thenReturn(Optional.of(
+                    User.builder().id(UUID.randomUUID()).username(username).build()));
+            authenticateAs(username);
+            currentUserProvider.findCurrentUser();
+        }
+
+        // Capacity is 2, so "a" was evicted and has to be loaded again
+        authenticateAs("a");
+        currentUserProvider.findCurrentUser();
+
+        verify(userRepository, times(2)).findByUsername("a");
+    }
+
+    @Test
+    void getCurrentUserId_NoAuthentication_ThrowsUnauthorizedException() {
+        assertThatThrownBy(() -> currentUserProvider.getCurrentUserId())
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("Authentication required");
+    }
+
+    @Test
+    void getCurrentUser_UnknownUsername_ThrowsUnauthorizedException() {
+        authenticateAs("ghost");
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> currentUserProvider.getCurrentUser())
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("User not found");
+    }
+
+    @Test
+    void getCurrentUser_ReturnsReferenceWithoutLoadingEntity() {
+        authenticateAs("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+
+        User result = currentUserProvider.getCurrentUser();
+
+        assertThat(result).isSameAs(testUser);
+        verify(userRepository, never()).findById(any());
+    }
+}
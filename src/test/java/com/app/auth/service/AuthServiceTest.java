@@ -8,13 +8,17 @@ import com.app.common.exception.BadRequestException;
 import com.app.common.exception.UnauthorizedException;
 import com.app.user.dto.UserSummary;
 import com.app.user.entity.User;
+import com.app.user.event.UserAuthenticatedEvent;
+import com.app.user.event.UserCreatedEvent;
 import com.app.user.repo.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -38,6 +42,9 @@ class AuthServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthService authService;
 
@@ -87,6 +94,7 @@ class AuthServiceTest {
         verify(userRepository).findByEmail(loginRequest.getEmail());
         verify(passwordEncoder).matches(loginRequest.getPassword(), testUser.getPassword());
         verify(jwtService).generateToken(testUser);
+        verify(eventPublisher).publishEvent(any(UserAuthenticatedEvent.class));
     }
 
     @Test
@@ -144,6 +152,24 @@ class AuthServiceTest {
         verify(jwtService).generateToken(any(User.class));
     }
 
+    @Test
+    void register_ValidData_PublishesUserCreatedEvent() {
+        // Given
+        when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
+        when(userRepository.findByUsername(registerRequest.getUsername())).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encoded-password");
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        ArgumentCaptor<UserCreatedEvent> event = ArgumentCaptor.forClass(UserCreatedEvent.class);
+
+        // When
+        authService.register(registerRequest);
+
+        // Then
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getUser().getId()).isEqualTo(testUser.getId());
+        assertThat(event.getValue().getUser().getUsername()).isEqualTo("testuser");
+    }
+
     @Test
     void register_EmailAlreadyExists_ThrowsBadRequestException() {
         // Given
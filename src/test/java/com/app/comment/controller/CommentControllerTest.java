@@ -3,6 +3,7 @@ package com.app.comment.controller;
 import com.app.comment.dto.CommentRequest;
 import com.app.comment.dto.CommentResponse;
 import com.app.comment.service.CommentService;
+import com.app.common.pagination.CursorPage;
 import com.app.user.dto.UserSummary;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 
 import java.time.Instant;
@@ -23,8 +25,11 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -93,11 +98,11 @@ class CommentControllerTest {
     void getCommentsByPost_ValidPostId_ReturnsPagedComments() {
         // Given
         List<CommentResponse> comments = Arrays.asList(commentResponse);
-        Page<CommentResponse> commentsPage = new PageImpl<>(comments);
+        Page<CommentResponse> commentsPage = new PageImpl<>(comments, PageRequest.of(0, 10), 1);
         when(commentService.getCommentsByPostId(postId, 0, 10)).thenReturn(commentsPage);
 
         // When
-        ResponseEntity<Map<String, Object>> response = commentController.getCommentsByPost(postId, 0, 10);
+        ResponseEntity<Map<String, Object>> response = commentController.getCommentsByPost(postId, 0, 10, null);
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
@@ -115,11 +120,11 @@ class CommentControllerTest {
     void getCommentsByPost_DefaultPagination_UsesCorrectDefaults() {
         // Given
         List<CommentResponse> comments = Arrays.asList(commentResponse);
-        Page<CommentResponse> commentsPage = new PageImpl<>(comments);
+        Page<CommentResponse> commentsPage = new PageImpl<>(comments, PageRequest.of(0, 10), 1);
         when(commentService.getCommentsByPostId(postId, 0, 10)).thenReturn(commentsPage);
 
         // When
-        ResponseEntity<Map<String, Object>> response = commentController.getCommentsByPost(postId, 0, 10);
+        ResponseEntity<Map<String, Object>> response = commentController.getCommentsByPost(postId, 0, 10, null);
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
@@ -128,20 +133,62 @@ class CommentControllerTest {
         assertThat(body.get("size")).isEqualTo(10);
     }
 
+    @Test
+    void getCommentsByPost_WithCursor_ReturnsKeysetPage() {
+        // Given
+        CursorPage<CommentResponse> commentsPage = CursorPage.<CommentResponse>builder()
+                .items(List.of(commentResponse))
+                .nextCursor("next")
+                .hasNext(true)
+                .build();
+        when(commentService.getTopLevelCommentsByPostId(postId, "", 10)).thenReturn(commentsPage);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = commentController.getCommentsByPost(postId, 0, 10, "");
+
+        // Then
+        Map<String, Object> body = response.getBody();
+        assertThat(body.get("comments")).isEqualTo(List.of(commentResponse));
+        assertThat(body.get("hasNext")).isEqualTo(true);
+        assertThat(body.get("nextCursor")).isEqualTo("next");
+        assertThat(body).doesNotContainKeys("total", "page");
+        verify(commentService, never()).getCommentsByPostId(any(), anyInt(), anyInt());
+    }
+
     @Test
     void getTopLevelComments_ValidPostId_ReturnsCommentsList() {
         // Given
         List<CommentResponse> comments = Arrays.asList(commentResponse);
-        when(commentService.getTopLevelCommentsByPostId(postId)).thenReturn(comments);
+        when(commentService.getTopLevelCommentsByPostId(postId, null, 50))
+                .thenReturn(CursorPage.<CommentResponse>builder().items(comments).build());
 
         // When
-        ResponseEntity<List<CommentResponse>> response = commentController.getTopLevelComments(postId);
+        ResponseEntity<?> response = commentController.getTopLevelComments(postId, 50, null);
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
-        assertThat(response.getBody()).isNotNull();
-        assertThat(response.getBody()).hasSize(1);
-        assertThat(response.getBody().get(0).getText()).isEqualTo("This is a test comment");
+        assertThat(response.getBody()).isEqualTo(comments);
+        assertThat(response.getHeaders()).doesNotContainKey(CommentController.HAS_NEXT_HEADER);
+    }
+
+    @Test
+    void getTopLevelComments_MoreThanOnePage_SignalsNextCursorInHeaders() {
+        // Given
+        when(commentService.getTopLevelCommentsByPostId(postId, null, 50))
+                .thenReturn(CursorPage.<CommentResponse>builder()
+                        .items(List.of(commentResponse))
+                        .hasNext(true)
+                        .nextCursor("next")
+                        .size(50)
+                        .build());
+
+        // When
+        ResponseEntity<?> response = commentController.getTopLevelComments(postId, 50, null);
+
+        // Then the body stays a plain list
+        assertThat(response.getBody()).isEqualTo(List.of(commentResponse));
+        assertThat(response.getHeaders().getFirst(CommentController.HAS_NEXT_HEADER)).isEqualTo("true");
+        assertThat(response.getHeaders().getFirst(CommentController.NEXT_CURSOR_HEADER)).isEqualTo("next");
     }
 
     @Test
@@ -161,17 +208,75 @@ class CommentControllerTest {
                 .build();
         
         List<CommentResponse> replies = Arrays.asList(replyResponse);
-        when(commentService.getRepliesByCommentId(commentId)).thenReturn(replies);
+        when(commentService.getRepliesByCommentId(commentId, null, 50))
+                .thenReturn(CursorPage.<CommentResponse>builder().items(replies).build());
 
         // When
-        ResponseEntity<List<CommentResponse>> response = commentController.getCommentReplies(commentId);
+        ResponseEntity<?> response = commentController.getCommentReplies(commentId, 50, null);
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
-        assertThat(response.getBody()).isNotNull();
-        assertThat(response.getBody()).hasSize(1);
-        assertThat(response.getBody().get(0).getText()).isEqualTo("This is a reply");
-        assertThat(response.getBody().get(0).getParentCommentId()).isEqualTo(commentId);
+        assertThat(response.getBody()).isEqualTo(replies);
+    }
+
+    @Test
+    void getCommentReplies_WithCursor_ReturnsKeysetPage() {
+        // Given
+        when(commentService.getRepliesByCommentId(commentId, "abc", 20))
+                .thenReturn(CursorPage.<CommentResponse>builder().items(List.of(commentResponse)).size(20).build());
+
+        // When
+        ResponseEntity<?> response = commentController.getCommentReplies(commentId, 20, "abc");
+
+        // Then
+        assertThat(response.getBody()).isInstanceOfSatisfying(Map.class, body -> {
+            assertThat(body.get("comments")).isEqualTo(List.of(commentResponse));
+            assertThat(body.get("size")).isEqualTo(20);
+            assertThat(body.get("hasNext")).isEqualTo(false);
+            assertThat(body.get("nextCursor")).isNull();
+        });
+    }
+
+    @Test
+    void getCommentReplies_WithCursor_SizeAboveMaximum_ReportsCappedSize() {
+        // Given
+        when(commentService.getRepliesByCommentId(commentId, "", 5000))
+                .thenReturn(CursorPage.<CommentResponse>builder().items(List.of()).size(100).build());
+
+        // When
+        ResponseEntity<?> response = commentController.getCommentReplies(commentId, 5000, "");
+
+        // Then
+        assertThat(response.getBody()).isInstanceOfSatisfying(Map.class,
+                body -> assertThat(body.get("size")).isEqualTo(100));
+    }
+
+    @Test
+    void getCommentSubtree_ReturnsCommentWithReplies() {
+        // Given
+        commentResponse.setReplies(List.of());
+        when(commentService.getCommentSubtree(commentId, 2)).thenReturn(commentResponse);
+
+        // When
+        ResponseEntity<CommentResponse> response = commentController.getCommentSubtree(commentId, 2);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody()).isSameAs(commentResponse);
+    }
+
+    @Test
+    void getCommentThread_ReturnsNestedComments() {
+        // Given
+        commentResponse.setReplies(List.of());
+        when(commentService.getCommentThread(postId, 3)).thenReturn(List.of(commentResponse));
+
+        // When
+        ResponseEntity<List<CommentResponse>> response = commentController.getCommentThread(postId, 3);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody()).containsExactly(commentResponse);
     }
 
     @Test
@@ -255,11 +360,11 @@ class CommentControllerTest {
     void getUserComments_ValidUserId_ReturnsPagedComments() {
         // Given
         List<CommentResponse> comments = Arrays.asList(commentResponse);
-        Page<CommentResponse> commentsPage = new PageImpl<>(comments);
+        Page<CommentResponse> commentsPage = new PageImpl<>(comments, PageRequest.of(0, 10), 1);
         when(commentService.getCommentsByUserId(userId, 0, 10)).thenReturn(commentsPage);
 
         // When
-        ResponseEntity<Map<String, Object>> response = commentController.getUserComments(userId, 0, 10);
+        ResponseEntity<Map<String, Object>> response = commentController.getUserComments(userId, 0, 10, null);
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
@@ -277,11 +382,11 @@ class CommentControllerTest {
     void getUserComments_DefaultPagination_UsesCorrectDefaults() {
         // Given
         List<CommentResponse> comments = Arrays.asList(commentResponse);
-        Page<CommentResponse> commentsPage = new PageImpl<>(comments);
+        Page<CommentResponse> commentsPage = new PageImpl<>(comments, PageRequest.of(0, 10), 1);
         when(commentService.getCommentsByUserId(userId, 0, 10)).thenReturn(commentsPage);
 
         // When - Call without explicit page/size parameters (they will use defaults from @RequestParam)
-        ResponseEntity<Map<String, Object>> response = commentController.getUserComments(userId, 0, 10);
+        ResponseEntity<Map<String, Object>> response = commentController.getUserComments(userId, 0, 10, null);
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
@@ -1,18 +1,22 @@
 package com.app.comment.service;
 
+import com.app.auth.security.CurrentUserProvider;
 import com.app.comment.dto.CommentRequest;
 import com.app.comment.dto.CommentResponse;
 import com.app.comment.entity.Comment;
 import com.app.comment.repo.CommentRepository;
 import com.app.comment.repo.CommentLikeRepository;
+import com.app.common.exception.BadRequestException;
 import com.app.common.exception.NotFoundException;
 import com.app.common.exception.UnauthorizedException;
+import com.app.common.pagination.Cursor;
+import com.app.common.pagination.CursorPage;
 import com.app.post.entity.Post;
+import com.app.post.event.PostInteractionEvent;
 import com.app.post.repo.PostRepository;
 import com.app.user.dto.UserSummary;
 import com.app.user.entity.User;
 import com.app.user.mapper.UserMapper;
-import com.app.user.repo.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +24,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,11 +35,13 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
@@ -52,7 +59,7 @@ class CommentServiceImplTest {
     private PostRepository postRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private CurrentUserProvider currentUserProvider;
 
     @Mock
     private UserMapper userMapper;
@@ -60,6 +67,9 @@ class CommentServiceImplTest {
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CommentServiceImpl commentService;
 
@@ -91,6 +101,8 @@ class CommentServiceImplTest {
                 .author(testUser)
                 .text("Test comment")
                 .parentComment(null)
+                .path("")
+                .depth(1)
                 .likeCount(0)
                 .createdAt(Instant.now())
                 .updatedAt(Instant.now())
@@ -114,10 +126,10 @@ class CommentServiceImplTest {
     @Test
     void createComment_ValidRequest_ReturnsCommentResponse() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
         when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
-        when(userMapper.toDto(testUser)).thenReturn(userSummary);
+        when(currentUserProvider.getCurrentUserSummary()).thenReturn(userSummary);
 
         // When
         CommentResponse result = commentService.createComment(testPost.getId(), commentRequest);
@@ -129,11 +141,16 @@ class CommentServiceImplTest {
         assertThat(result.getPostId()).isEqualTo(testPost.getId());
 
         // Verify post comment count is incremented
-        verify(postRepository).save(testPost);
-        assertThat(testPost.getCommentCount()).isEqualTo(2);
+        verify(postRepository).adjustCommentCount(eq(testPost.getId()), eq(1), any(Instant.class));
+        verify(postRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(any(PostInteractionEvent.class));
 
         // Verify WebSocket notification is sent
         verify(messagingTemplate).convertAndSend(eq("/topic/posts"), any(Map.class));
+
+        // The response is built once, without loading the author or checking likes
+        verify(userMapper, never()).toDto(any());
+        verify(commentLikeRepository, never()).existsByUserIdAndCommentId(any(), any());
     }
 
     @Test
@@ -144,6 +161,8 @@ class CommentServiceImplTest {
                 .post(testPost)
                 .author(testUser)
                 .text("Parent comment")
+                .path("")
+                .depth(1)
                 .build();
 
         CommentRequest replyRequest = new CommentRequest();
@@ -161,11 +180,11 @@ class CommentServiceImplTest {
                 .updatedAt(Instant.now())
                 .build();
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
         when(commentRepository.findById(parentComment.getId())).thenReturn(Optional.of(parentComment));
         when(commentRepository.save(any(Comment.class))).thenReturn(replyComment);
-        when(userMapper.toDto(testUser)).thenReturn(userSummary);
+        when(currentUserProvider.getCurrentUserSummary()).thenReturn(userSummary);
 
         // When
         CommentResponse result = commentService.createComment(testPost.getId(), replyRequest);
@@ -174,13 +193,72 @@ class CommentServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getText()).isEqualTo("Reply comment");
         assertThat(result.getParentCommentId()).isEqualTo(parentComment.getId());
+
+        ArgumentCaptor<Comment> saved = ArgumentCaptor.forClass(Comment.class);
+        verify(commentRepository).save(saved.capture());
+        assertThat(saved.getValue().getPath()).isEqualTo(parentComment.getId().toString().replace("-", "") + "/");
+        assertThat(saved.getValue().getDepth()).isEqualTo(2);
+        verify(commentRepository).adjustReplyCount(parentComment.getId(), 1);
+    }
+
+    @Test
+    void createComment_TopLevel_HasEmptyPath() {
+        // Given
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
+        when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
+        when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
+        when(currentUserProvider.getCurrentUserSummary()).thenReturn(userSummary);
+
+        // When
+        commentService.createComment(testPost.getId(), commentRequest);
+
+        // Then
+        ArgumentCaptor<Comment> saved = ArgumentCaptor.forClass(Comment.class);
+        verify(commentRepository).save(saved.capture());
+        assertThat(saved.getValue().getPath()).isEmpty();
+        assertThat(saved.getValue().getDepth()).isEqualTo(1);
+        verify(commentRepository, never()).adjustReplyCount(any(), anyInt());
+    }
+
+    @Test
+    void createComment_ParentOnOtherPost_ThrowsBadRequest() {
+        // Given
+        Post otherPost = Post.builder().id(UUID.randomUUID()).build();
+        Comment parent = reply(null, "Elsewhere");
+        parent.setPost(otherPost);
+        commentRequest.setParentCommentId(parent.getId());
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
+        when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
+        when(commentRepository.findById(parent.getId())).thenReturn(Optional.of(parent));
+
+        // When & Then
+        assertThatThrownBy(() -> commentService.createComment(testPost.getId(), commentRequest))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Parent comment belongs to a different post");
+        verify(commentRepository, never()).save(any());
+    }
+
+    @Test
+    void createComment_ParentAtMaxDepth_ThrowsBadRequest() {
+        // Given
+        Comment parent = reply(testComment, "Deep");
+        parent.setDepth(CommentServiceImpl.MAX_REPLY_DEPTH);
+        commentRequest.setParentCommentId(parent.getId());
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
+        when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
+        when(commentRepository.findById(parent.getId())).thenReturn(Optional.of(parent));
+
+        // When & Then
+        assertThatThrownBy(() -> commentService.createComment(testPost.getId(), commentRequest))
+                .isInstanceOf(BadRequestException.class);
+        verify(commentRepository, never()).save(any());
     }
 
     @Test
     void createComment_PostNotFound_ThrowsNotFoundException() {
         // Given
         UUID nonExistentPostId = UUID.randomUUID();
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(postRepository.findById(nonExistentPostId)).thenReturn(Optional.empty());
 
         // When & Then
@@ -195,7 +273,7 @@ class CommentServiceImplTest {
         UUID nonExistentParentId = UUID.randomUUID();
         commentRequest.setParentCommentId(nonExistentParentId);
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
         when(commentRepository.findById(nonExistentParentId)).thenReturn(Optional.empty());
 
@@ -212,7 +290,7 @@ class CommentServiceImplTest {
         Page<Comment> commentsPage = new PageImpl<>(comments);
         when(commentRepository.findByPostIdOrderByCreatedAtAsc(eq(testPost.getId()), any(PageRequest.class)))
                 .thenReturn(commentsPage);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
         when(userMapper.toDto(testUser)).thenReturn(userSummary);
 
         // When
@@ -224,22 +302,132 @@ class CommentServiceImplTest {
         assertThat(result.getContent().get(0).getText()).isEqualTo("Test comment");
     }
 
+    @Test
+    void getCommentsByPostId_AuthenticatedUser_LooksUpLikesOncePerPage() {
+        // Given
+        Comment other = reply(null, "Other comment");
+        when(commentRepository.findByPostIdOrderByCreatedAtAsc(eq(testPost.getId()), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(testComment, other)));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
+        when(commentLikeRepository.findLikedCommentIdsByUserIdAndCommentIdIn(testUser.getId(),
+                List.of(testComment.getId(), other.getId())))
+                .thenReturn(Set.of(other.getId()));
+        when(userMapper.toDto(testUser)).thenReturn(userSummary);
+
+        // When
+        Page<CommentResponse> result = commentService.getCommentsByPostId(testPost.getId(), 0, 10);
+
+        // Then
+        assertThat(result.getContent()).extracting(CommentResponse::isLiked).containsExactly(false, true);
+        verify(currentUserProvider, times(1)).findCurrentUserId();
+        verify(commentLikeRepository, never()).existsByUserIdAndCommentId(any(), any());
+    }
+
+    @Test
+    void getRepliesByCommentId_Anonymous_SkipsLikeLookup() {
+        // Given
+        when(commentRepository.findRepliesPage(eq(testComment.getId()), any(PageRequest.class)))
+                .thenReturn(List.of(reply(testComment, "Reply")));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.empty());
+        when(userMapper.toDto(testUser)).thenReturn(userSummary);
+
+        // When
+        CursorPage<CommentResponse> result = commentService.getRepliesByCommentId(testComment.getId(), null, 50);
+
+        // Then
+        assertThat(result.getItems()).singleElement().satisfies(response -> assertThat(response.isLiked()).isFalse());
+        verifyNoInteractions(commentLikeRepository);
+    }
+
     @Test
     void getTopLevelCommentsByPostId_ValidPostId_ReturnsTopLevelComments() {
         // Given
         List<Comment> comments = Arrays.asList(testComment);
-        when(commentRepository.findTopLevelCommentsByPostId(testPost.getId())).thenReturn(comments);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(commentRepository.findTopLevelPage(testPost.getId(), PageRequest.of(0, 51))).thenReturn(comments);
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
         when(userMapper.toDto(testUser)).thenReturn(userSummary);
 
         // When
-        List<CommentResponse> result = commentService.getTopLevelCommentsByPostId(testPost.getId());
+        CursorPage<CommentResponse> result = commentService.getTopLevelCommentsByPostId(testPost.getId(), "", 50);
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getText()).isEqualTo("Test comment");
-        assertThat(result.get(0).getParentCommentId()).isNull();
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getText()).isEqualTo("Test comment");
+        assertThat(result.getItems().get(0).getParentCommentId()).isNull();
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getTopLevelCommentsByPostId_ExtraRow_ReturnsCursorAfterLastComment() {
+        // Given
+        Comment second = reply(null, "Second");
+        Comment third = reply(null, "Third");
+        when(commentRepository.findTopLevelPage(testPost.getId(), PageRequest.of(0, 3)))
+                .thenReturn(List.of(testComment, second, third));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.empty());
+        when(userMapper.toDto(testUser)).thenReturn(userSummary);
+
+        // When
+        CursorPage<CommentResponse> result = commentService.getTopLevelCommentsByPostId(testPost.getId(), null, 2);
+
+        // Then
+        assertThat(result.getItems()).extracting(CommentResponse::getText).containsExactly("Test comment", "Second");
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getNextCursor()).isEqualTo(new Cursor(second.getCreatedAt(), second.getId()).encode());
+    }
+
+    @Test
+    void getTopLevelCommentsByPostId_OversizedLimit_IsCappedAndReported() {
+        // Given
+        when(commentRepository.findTopLevelPage(testPost.getId(), PageRequest.of(0, CommentServiceImpl.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        // When
+        CursorPage<CommentResponse> result = commentService.getTopLevelCommentsByPostId(testPost.getId(), "", 5000);
+
+        // Then
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.getSize()).isEqualTo(CommentServiceImpl.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void getTopLevelCommentsByPostId_WithCursor_QueriesAfterPosition() {
+        // Given
+        Cursor position = new Cursor(testComment.getCreatedAt(), testComment.getId());
+        when(commentRepository.findTopLevelPageAfter(testPost.getId(), position.getCreatedAt(), position.getId(),
+                PageRequest.of(0, 11)))
+                .thenReturn(List.of());
+
+        // When
+        CursorPage<CommentResponse> result = commentService.getTopLevelCommentsByPostId(testPost.getId(),
+                position.encode(), 10);
+
+        // Then
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.isHasNext()).isFalse();
+        verify(commentRepository, never()).findTopLevelPage(any(), any());
+    }
+
+    @Test
+    void getTopLevelCommentsByPostId_InvalidCursor_ThrowsBadRequest() {
+        // When & Then
+        assertThatThrownBy(() -> commentService.getTopLevelCommentsByPostId(testPost.getId(), "not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void getCommentsByPostId_OversizedPage_IsCapped() {
+        // Given
+        when(commentRepository.findByPostIdOrderByCreatedAtAsc(testPost.getId(), PageRequest.of(0, 100)))
+                .thenReturn(Page.empty());
+
+        // When
+        Page<CommentResponse> result = commentService.getCommentsByPostId(testPost.getId(), 0, 10_000);
+
+        // Then
+        assertThat(result.getContent()).isEmpty();
     }
 
     @Test
@@ -257,27 +445,136 @@ class CommentServiceImplTest {
                 .build();
 
         List<Comment> replies = Arrays.asList(replyComment);
-        when(commentRepository.findRepliesByParentCommentId(testComment.getId())).thenReturn(replies);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(commentRepository.findRepliesPage(eq(testComment.getId()), any(PageRequest.class))).thenReturn(replies);
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
         when(userMapper.toDto(testUser)).thenReturn(userSummary);
 
         // When
-        List<CommentResponse> result = commentService.getRepliesByCommentId(testComment.getId());
+        CursorPage<CommentResponse> result = commentService.getRepliesByCommentId(testComment.getId(), null, 50);
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getText()).isEqualTo("Reply comment");
-        assertThat(result.get(0).getParentCommentId()).isEqualTo(testComment.getId());
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getText()).isEqualTo("Reply comment");
+        assertThat(result.getItems().get(0).getParentCommentId()).isEqualTo(testComment.getId());
+    }
+
+    @Test
+    void getCommentThread_NestsRepliesUnderParents() {
+        // Given
+        Comment second = reply(null, "Second top-level");
+        Comment reply = reply(testComment, "Reply");
+        Comment nested = reply(reply, "Nested reply");
+        when(commentRepository.findThreadByPostId(testPost.getId(), 3,
+                PageRequest.of(0, CommentServiceImpl.MAX_THREAD_COMMENTS)))
+                .thenReturn(List.of(testComment, second, reply, nested));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
+        when(commentLikeRepository.findLikedCommentIdsByUserIdAndCommentIdIn(testUser.getId(),
+                List.of(testComment.getId(), second.getId(), reply.getId(), nested.getId())))
+                .thenReturn(Set.of(nested.getId()));
+
+        // When
+        List<CommentResponse> result = commentService.getCommentThread(testPost.getId(), 3);
+
+        // Then
+        assertThat(result).extracting(CommentResponse::getText).containsExactly("Test comment", "Second top-level");
+        assertThat(result.get(1).getReplies()).isEmpty();
+        CommentResponse loadedReply = result.get(0).getReplies().get(0);
+        assertThat(loadedReply.getText()).isEqualTo("Reply");
+        assertThat(loadedReply.getReplies()).singleElement().satisfies(deepest -> {
+            assertThat(deepest.isLiked()).isTrue();
+            // Replies below the requested depth were not loaded
+            assertThat(deepest.getReplies()).isNull();
+        });
+        verify(commentLikeRepository, never()).existsByUserIdAndCommentId(any(), any());
+    }
+
+    @Test
+    void getCommentThread_DepthIsCapped() {
+        // Given
+        when(commentRepository.findThreadByPostId(any(), anyInt(), any())).thenReturn(List.of());
+
+        // When
+        List<CommentResponse> result = commentService.getCommentThread(testPost.getId(), 1000);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(commentRepository).findThreadByPostId(testPost.getId(), CommentServiceImpl.MAX_THREAD_DEPTH,
+                PageRequest.of(0, CommentServiceImpl.MAX_THREAD_COMMENTS));
+        verifyNoInteractions(commentLikeRepository);
+    }
+
+    @Test
+    void getCommentThread_ReplyWithDeletedParent_IsLeftOut() {
+        // Given
+        Comment deleted = reply(testComment, "Deleted");
+        Comment orphan = reply(deleted, "Orphan");
+        when(commentRepository.findThreadByPostId(eq(testPost.getId()), eq(3), any()))
+                .thenReturn(List.of(testComment, orphan));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.empty());
+        when(userMapper.toDto(testUser)).thenReturn(userSummary);
+
+        // When
+        List<CommentResponse> result = commentService.getCommentThread(testPost.getId(), 3);
+
+        // Then
+        assertThat(result).singleElement().satisfies(root -> assertThat(root.getReplies()).isEmpty());
+    }
+
+    @Test
+    void getCommentSubtree_QueriesPathRangeBelowComment() {
+        // Given
+        Comment reply = reply(testComment, "Reply");
+        Comment nested = reply(reply, "Nested reply");
+        String from = testComment.getId().toString().replace("-", "") + "/";
+        String to = from.substring(0, from.length() - 1) + "0";
+        when(commentRepository.findById(testComment.getId())).thenReturn(Optional.of(testComment));
+        when(commentRepository.findSubtree(testComment.getId(), from, to, 3,
+                PageRequest.of(0, CommentServiceImpl.MAX_THREAD_COMMENTS)))
+                .thenReturn(List.of(testComment, reply, nested));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.empty());
+        when(userMapper.toDto(testUser)).thenReturn(userSummary);
+
+        // When
+        CommentResponse result = commentService.getCommentSubtree(testComment.getId(), 2);
+
+        // Then
+        assertThat(result.getId()).isEqualTo(testComment.getId());
+        CommentResponse loadedReply = result.getReplies().get(0);
+        assertThat(loadedReply.getText()).isEqualTo("Reply");
+        assertThat(loadedReply.getReplies()).singleElement()
+                .satisfies(deepest -> assertThat(deepest.getReplies()).isNull());
+    }
+
+    @Test
+    void descendantRange_ContainsOnlyDescendants() {
+        // Given
+        Comment reply = reply(testComment, "Reply");
+        Comment nested = reply(reply, "Nested reply");
+        Comment sibling = reply(null, "Sibling");
+        String from = CommentServiceImpl.descendantsFrom(testComment);
+        String to = CommentServiceImpl.descendantsTo(testComment);
+
+        // Then
+        assertThat(reply.getPath()).isGreaterThanOrEqualTo(from).isLessThan(to);
+        assertThat(nested.getPath()).isGreaterThanOrEqualTo(from).isLessThan(to);
+        assertThat(CommentServiceImpl.descendantsFrom(sibling)).satisfiesAnyOf(
+                path -> assertThat(path).isLessThan(from),
+                path -> assertThat(path).isGreaterThanOrEqualTo(to));
+        assertThat(testComment.getPath()).isLessThan(from);
     }
 
     @Test
     void getCommentById_ValidCommentId_ReturnsComment() {
         // Given
         when(commentRepository.findById(testComment.getId())).thenReturn(Optional.of(testComment));
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
         when(userMapper.toDto(testUser)).thenReturn(userSummary);
 
+        testComment.setReplyCount(2);
+        when(commentRepository.countDescendants(CommentServiceImpl.descendantsFrom(testComment),
+                CommentServiceImpl.descendantsTo(testComment)))
+                .thenReturn(4L);
+
         // When
         CommentResponse result = commentService.getCommentById(testComment.getId());
 
@@ -285,6 +582,8 @@ class CommentServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(testComment.getId());
         assertThat(result.getText()).isEqualTo("Test comment");
+        assertThat(result.getDescendantCount()).isEqualTo(4L);
+        assertThat(result.getReplyCount()).isEqualTo(2);
     }
 
     @Test
@@ -306,7 +605,7 @@ class CommentServiceImplTest {
         updateRequest.setText("Updated comment text");
 
         when(commentRepository.findById(testComment.getId())).thenReturn(Optional.of(testComment));
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
         when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
         when(userMapper.toDto(testUser)).thenReturn(userSummary);
 
@@ -331,7 +630,7 @@ class CommentServiceImplTest {
         updateRequest.setText("Updated comment text");
 
         when(commentRepository.findById(testComment.getId())).thenReturn(Optional.of(testComment));
-        when(userRepository.findAll()).thenReturn(Arrays.asList(otherUser));
+        when(currentUserProvider.getCurrentUserId()).thenReturn(otherUser.getId());
 
         // When & Then
         assertThatThrownBy(() -> commentService.updateComment(testComment.getId(), updateRequest))
@@ -343,20 +642,40 @@ class CommentServiceImplTest {
     void deleteComment_ValidComment_DeletesSuccessfully() {
         // Given
         when(commentRepository.findById(testComment.getId())).thenReturn(Optional.of(testComment));
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
+        when(commentRepository.deleteSubtree(testComment.getId(), CommentServiceImpl.descendantsFrom(testComment),
+                CommentServiceImpl.descendantsTo(testComment)))
+                .thenReturn(3);
 
         // When
         commentService.deleteComment(testComment.getId());
 
-        // Then
-        verify(commentRepository).delete(testComment);
-        verify(postRepository).save(testPost);
-        assertThat(testPost.getCommentCount()).isEqualTo(0); // Decremented from 1
+        // Then the comment and its two replies are removed in one statement
+        verify(commentRepository, never()).delete(any(Comment.class));
+        verify(postRepository).adjustCommentCount(eq(testPost.getId()), eq(-3), any(Instant.class));
+        verify(commentRepository, never()).adjustReplyCount(any(), anyInt());
+        verify(postRepository, never()).save(any());
 
         // Verify WebSocket notification is sent
         verify(messagingTemplate).convertAndSend(eq("/topic/posts"), any(Map.class));
     }
 
+    @Test
+    void deleteComment_Reply_DecrementsParentReplyCount() {
+        // Given
+        Comment reply = reply(testComment, "Reply");
+        when(commentRepository.findById(reply.getId())).thenReturn(Optional.of(reply));
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
+        when(commentRepository.deleteSubtree(eq(reply.getId()), any(), any())).thenReturn(1);
+
+        // When
+        commentService.deleteComment(reply.getId());
+
+        // Then
+        verify(commentRepository).adjustReplyCount(testComment.getId(), -1);
+        verify(postRepository).adjustCommentCount(eq(testPost.getId()), eq(-1), any(Instant.class));
+    }
+
     @Test
     void deleteComment_UnauthorizedUser_ThrowsUnauthorizedException() {
         // Given
@@ -366,7 +685,7 @@ class CommentServiceImplTest {
                 .build();
 
         when(commentRepository.findById(testComment.getId())).thenReturn(Optional.of(testComment));
-        when(userRepository.findAll()).thenReturn(Arrays.asList(otherUser));
+        when(currentUserProvider.getCurrentUserId()).thenReturn(otherUser.getId());
 
         // When & Then
         assertThatThrownBy(() -> commentService.deleteComment(testComment.getId()))
@@ -377,10 +696,9 @@ class CommentServiceImplTest {
     @Test
     void likeComment_ValidComment_ReturnsLikeResult() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
-        when(commentRepository.findById(testComment.getId())).thenReturn(Optional.of(testComment));
-        when(commentLikeRepository.findByUserIdAndCommentId(testUser.getId(), testComment.getId())).thenReturn(Optional.empty());
-        when(commentRepository.save(any(Comment.class))).thenReturn(testComment);
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
+        when(commentLikeRepository.insertLike(eq(testUser.getId()), eq(testComment.getId()), any(Instant.class)))
+                .thenReturn(Optional.of(1));
 
         // When
         Map<String, Object> result = commentService.likeComment(testComment.getId());
@@ -389,20 +707,44 @@ class CommentServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.get("liked")).isEqualTo(true);
         assertThat(result.get("likesCount")).isEqualTo(1);
-        assertThat(testComment.getLikeCount()).isEqualTo(1);
 
         // Verify WebSocket notification is sent
         verify(messagingTemplate).convertAndSend(eq("/topic/posts"), any(Map.class));
         
-        // Verify CommentLike is saved
-        verify(commentLikeRepository).save(any());
+        // Verify the like and counter are written in SQL rather than through the entities
+        verify(commentRepository, never()).findById(any());
+        verify(commentRepository, never()).save(any(Comment.class));
+        verify(commentLikeRepository, never()).save(any());
+    }
+
+    @Test
+    void likeComment_AlreadyLiked_RemovesLike() {
+        // Given
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
+        when(commentLikeRepository.insertLike(eq(testUser.getId()), eq(testComment.getId()), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(commentLikeRepository.deleteLike(eq(testUser.getId()), eq(testComment.getId()), any(Instant.class)))
+                .thenReturn(Optional.of(0));
+
+        // When
+        Map<String, Object> result = commentService.likeComment(testComment.getId());
+
+        // Then
+        assertThat(result.get("liked")).isEqualTo(false);
+        assertThat(result.get("likesCount")).isEqualTo(0);
+        verify(commentRepository, never()).findLikeCountById(any());
     }
 
     @Test
     void likeComment_CommentNotFound_ThrowsNotFoundException() {
         // Given
         UUID nonExistentCommentId = UUID.randomUUID();
-        when(commentRepository.findById(nonExistentCommentId)).thenReturn(Optional.empty());
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
+        when(commentLikeRepository.insertLike(eq(testUser.getId()), eq(nonExistentCommentId), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(commentLikeRepository.deleteLike(eq(testUser.getId()), eq(nonExistentCommentId), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(commentRepository.findLikeCountById(nonExistentCommentId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> commentService.likeComment(nonExistentCommentId))
@@ -417,7 +759,7 @@ class CommentServiceImplTest {
         Page<Comment> commentsPage = new PageImpl<>(comments);
         when(commentRepository.findByAuthorIdOrderByCreatedAtDesc(eq(testUser.getId()), any(PageRequest.class)))
                 .thenReturn(commentsPage);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
         when(userMapper.toDto(testUser)).thenReturn(userSummary);
 
         // When
@@ -430,22 +772,52 @@ class CommentServiceImplTest {
     }
 
     @Test
-    void getCurrentUser_NoUsersInDB_ThrowsNotFoundException() {
+    void getCommentsByUserId_WithCursor_QueriesOlderThanPosition() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList());
+        Cursor position = new Cursor(testComment.getCreatedAt(), testComment.getId());
+        when(commentRepository.findByAuthorPageAfter(testUser.getId(), position.getCreatedAt(), position.getId(),
+                PageRequest.of(0, 101)))
+                .thenReturn(List.of());
+
+        // When
+        CursorPage<CommentResponse> result = commentService.getCommentsByUserId(testUser.getId(), position.encode(), 500);
+
+        // Then
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void createComment_Unauthenticated_ThrowsUnauthorizedException() {
+        // Given
+        when(currentUserProvider.getCurrentUser()).thenThrow(new UnauthorizedException("Authentication required"));
 
         // When & Then
         assertThatThrownBy(() -> commentService.createComment(testPost.getId(), commentRequest))
-                .isInstanceOf(NotFoundException.class)
-                .hasMessage("No users in DB");
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("Authentication required");
+    }
+
+    private Comment reply(Comment parent, String text) {
+        return Comment.builder()
+                .id(UUID.randomUUID())
+                .post(testPost)
+                .author(testUser)
+                .text(text)
+                .parentComment(parent)
+                .path(parent == null ? "" : CommentServiceImpl.descendantsFrom(parent))
+                .depth(parent == null ? 1 : parent.getDepth() + 1)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
     }
 
     @Test
     void createComment_SetsCorrectTimestamps() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
-        when(userMapper.toDto(testUser)).thenReturn(userSummary);
+        when(currentUserProvider.getCurrentUserSummary()).thenReturn(userSummary);
 
         ArgumentCaptor<Comment> commentCaptor = ArgumentCaptor.forClass(Comment.class);
         when(commentRepository.save(commentCaptor.capture())).thenReturn(testComment);
@@ -0,0 +1,83 @@
+package com.app.comment.service;
+
+import com.app.comment.repo.CommentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplyCountReconcilerTest {
+
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private ReplyCountReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new ReplyCountReconciler(commentRepository, transactionManager, meterRegistry, 2);
+    }
+
+    @Test
+    void reconcile_WalksChunksInIdOrder() {
+        // Given
+        UUID a = new UUID(0L, 1L);
+        UUID b = new UUID(0L, 2L);
+        UUID c = new UUID(0L, 3L);
+        when(commentRepository.lockIdsAfter(LOWEST_ID, 2)).thenReturn(List.of(a, b));
+        when(commentRepository.lockIdsAfter(b, 2)).thenReturn(List.of(c));
+        when(commentRepository.reconcileReplyCounts(List.of(a, b))).thenReturn(1);
+        when(commentRepository.reconcileReplyCounts(List.of(c))).thenReturn(0);
+
+        // When
+        long corrected = reconciler.reconcile();
+
+        // Then each chunk is locked and recounted in its own transaction
+        assertThat(corrected).isEqualTo(1);
+        assertThat(meterRegistry.counter("comments.reply_count.corrections").count()).isEqualTo(1.0);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void reconcile_FullLastChunk_StopsAtEmptyChunk() {
+        // Given
+        UUID a = new UUID(0L, 1L);
+        UUID b = new UUID(0L, 2L);
+        when(commentRepository.lockIdsAfter(LOWEST_ID, 2)).thenReturn(List.of(a, b));
+        when(commentRepository.lockIdsAfter(b, 2)).thenReturn(List.of());
+
+        // When
+        long corrected = reconciler.reconcile();
+
+        // Then
+        assertThat(corrected).isZero();
+        verify(commentRepository, times(1)).reconcileReplyCounts(any());
+        assertThat(meterRegistry.counter("comments.reply_count.corrections").count()).isZero();
+    }
+
+    @Test
+    void constructor_NonPositiveChunkSize_Throws() {
+        assertThatThrownBy(() -> new ReplyCountReconciler(commentRepository, transactionManager, meterRegistry, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
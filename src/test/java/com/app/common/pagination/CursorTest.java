@@ -0,0 +1,49 @@
+package com.app.common.pagination;
+
+import com.app.common.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorTest {
+
+    @Test
+    void encode_ThenDecode_RoundTrips() {
+        // Given
+        Instant createdAt = Instant.parse("2024-05-01T12:34:56.123456Z");
+        UUID id = UUID.randomUUID();
+
+        // When
+        Cursor decoded = Cursor.decode(new Cursor(createdAt, id).encode());
+
+        // Then
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getId()).isEqualTo(id);
+    }
+
+    @Test
+    void encode_ProducesUrlSafeToken() {
+        String token = new Cursor(Instant.now(), UUID.randomUUID()).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void decode_MalformedToken_ThrowsBadRequestException() {
+        assertThatThrownBy(() -> Cursor.decode("not a cursor"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void decode_TokenWithoutSeparator_ThrowsBadRequestException() {
+        String token = java.util.Base64.getUrlEncoder().encodeToString("2024-05-01T12:34:56Z".getBytes());
+
+        assertThatThrownBy(() -> Cursor.decode(token))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,75 @@
+package com.app.common.pagination;
+
+import com.app.common.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageTotalsTest {
+
+    private static final LongSupplier NOT_CALLED = () -> {
+        throw new AssertionError("total should not be computed");
+    };
+
+    @Test
+    void of_None_ReturnsSliceWithoutExtraRow() {
+        // When
+        Slice<Integer> result = PageTotals.of(List.of(1, 2, 3), PageRequest.of(0, 2), TotalMode.NONE,
+                NOT_CALLED, NOT_CALLED);
+
+        // Then
+        assertThat(result).isNotInstanceOf(Page.class);
+        assertThat(result.getContent()).containsExactly(1, 2);
+        assertThat(result.hasNext()).isTrue();
+    }
+
+    @Test
+    void of_LastPage_KnowsTotalWithoutCounting() {
+        // When
+        Slice<Integer> result = PageTotals.of(List.of(1), PageRequest.of(2, 2), TotalMode.EXACT,
+                NOT_CALLED, NOT_CALLED);
+
+        // Then
+        assertThat(result).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(5));
+    }
+
+    @Test
+    void of_Exact_CountsWhenMorePagesFollow() {
+        // When
+        Slice<Integer> result = PageTotals.of(List.of(1, 2, 3), PageRequest.of(0, 2), TotalMode.EXACT,
+                () -> 40, NOT_CALLED);
+
+        // Then
+        assertThat(result).isInstanceOfSatisfying(Page.class, page -> {
+            assertThat(page.getTotalElements()).isEqualTo(40);
+            assertThat(page.getContent()).containsExactly(1, 2);
+        });
+    }
+
+    @Test
+    void of_Estimated_NeverBelowWhatThePageShows() {
+        // When
+        Slice<Integer> result = PageTotals.of(List.of(1, 2, 3), PageRequest.of(5, 2), TotalMode.ESTIMATED,
+                NOT_CALLED, () -> 4);
+
+        // Then
+        assertThat(result).isInstanceOfSatisfying(Page.class, page -> {
+            assertThat(page.getTotalElements()).isEqualTo(13);
+            assertThat(page.hasNext()).isTrue();
+        });
+    }
+
+    @Test
+    void fromParam_AcceptsAnyCase() {
+        assertThat(TotalMode.fromParam(" Estimated ")).isEqualTo(TotalMode.ESTIMATED);
+        assertThatThrownBy(() -> TotalMode.fromParam("approximate"))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -1,13 +1,14 @@
 package com.app.media.service;
 
+import com.app.auth.security.CurrentUserProvider;
 import com.app.common.exception.NotFoundException;
+import com.app.common.exception.UnauthorizedException;
 import com.app.media.azure.AzureSasUrlGenerator;
 import com.app.media.dto.PresignedUrlRequest;
 import com.app.media.dto.PresignedUrlResponse;
 import com.app.media.entity.Media;
 import com.app.media.repo.MediaRepository;
 import com.app.user.entity.User;
-import com.app.user.repo.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,7 +37,7 @@ class MediaServiceImplTest {
     private MediaRepository mediaRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private CurrentUserProvider currentUserProvider;
 
     @InjectMocks
     private MediaServiceImpl mediaService;
@@ -76,7 +77,7 @@ class MediaServiceImplTest {
         String expectedUploadUrl = "https://teststorageaccount.blob.core.windows.net/purchase-post-media/uploads/user-id/media-id-test-image.jpg?sv=2023-11-03&sr=c&sig=test";
         String expectedFileUrl = "https://teststorageaccount.blob.core.windows.net/purchase-post-media/uploads/user-id/media-id-test-image.jpg";
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn(expectedUploadUrl);
         when(generator.getPublicFileUrl(anyString())).thenReturn(expectedFileUrl);
@@ -95,14 +96,14 @@ class MediaServiceImplTest {
     }
 
     @Test
-    void createPresignedUpload_NoUsersInDB_ThrowsNotFoundException() {
+    void createPresignedUpload_Unauthenticated_ThrowsUnauthorizedException() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList());
+        when(currentUserProvider.getCurrentUser()).thenThrow(new UnauthorizedException("Authentication required"));
 
         // When & Then
         assertThatThrownBy(() -> mediaService.createPresignedUpload(presignedUrlRequest))
-                .isInstanceOf(NotFoundException.class)
-                .hasMessage("No user in DB");
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("Authentication required");
 
         // Verify no media operations were performed
         verifyNoInteractions(mediaRepository);
@@ -112,7 +113,7 @@ class MediaServiceImplTest {
     @Test
     void createPresignedUpload_CreatesMediaWithCorrectData() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn("file-url");
 
@@ -137,7 +138,7 @@ class MediaServiceImplTest {
         // Given
         String expectedFileUrl = "https://teststorageaccount.blob.core.windows.net/purchase-post-media/uploads/user-id/media-id-test-image.jpg";
         
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn(expectedFileUrl);
 
@@ -157,7 +158,7 @@ class MediaServiceImplTest {
     @Test
     void createPresignedUpload_GeneratesCorrectAzureBlobKey() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn("file-url");
@@ -182,7 +183,7 @@ class MediaServiceImplTest {
         presignedUrlRequest.setFileType("video/mp4");
         presignedUrlRequest.setSize(10485760L); // 10MB
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn("file-url");
@@ -202,7 +203,7 @@ class MediaServiceImplTest {
         presignedUrlRequest.setFileType("application/pdf");
         presignedUrlRequest.setSize(5242880L); // 5MB
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn("file-url");
@@ -233,7 +234,7 @@ class MediaServiceImplTest {
                 .createdAt(Instant.now())
                 .build();
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(mediaRepository.save(any(Media.class))).thenReturn(largeFileMedia);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn("file-url");
@@ -258,7 +259,7 @@ class MediaServiceImplTest {
         presignedUrlRequest.setFileType("image/jpeg");
         presignedUrlRequest.setSize(2048L);
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn("file-url");
@@ -278,7 +279,7 @@ class MediaServiceImplTest {
     @Test
     void createPresignedUpload_CallsGeneratorWithCorrectParameters() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn("file-url");
@@ -300,7 +301,7 @@ class MediaServiceImplTest {
     @Test
     void createPresignedUpload_SuccessfulTransaction_SavesMediaTwice() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(mediaRepository.save(any(Media.class))).thenReturn(testMedia);
         when(generator.generateUploadUrl(anyString(), anyString())).thenReturn("upload-url");
         when(generator.getPublicFileUrl(anyString())).thenReturn("file-url");
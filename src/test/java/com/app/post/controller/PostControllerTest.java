@@ -1,7 +1,12 @@
 package com.app.post.controller;
 
+import com.app.common.exception.BadRequestException;
+import com.app.common.pagination.CursorPage;
+import com.app.common.pagination.TotalMode;
 import com.app.post.dto.PostCreateRequest;
 import com.app.post.dto.PostResponse;
+import com.app.post.dto.SearchFacets;
+import com.app.post.search.SearchFilters;
 import com.app.post.service.PostService;
 import com.app.user.dto.UserSummary;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +17,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
@@ -23,9 +30,11 @@ import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -109,11 +118,11 @@ class PostControllerTest {
     void getPosts_ValidPagination_ReturnsPagedPosts() {
         // Given
         List<PostResponse> posts = Arrays.asList(postResponse);
-        Page<PostResponse> postsPage = new PageImpl<>(posts);
-        when(postService.getAllPosts(0, 10)).thenReturn(postsPage);
+        Page<PostResponse> postsPage = new PageImpl<>(posts, PageRequest.of(0, 10), 1);
+        when(postService.getAllPosts(0, 10, TotalMode.ESTIMATED)).thenReturn(postsPage);
 
         // When
-        ResponseEntity<Map<String, Object>> response = postController.getPosts(1, 10);
+        ResponseEntity<Map<String, Object>> response = postController.getPosts(1, 10, null, "estimated");
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
@@ -122,20 +131,45 @@ class PostControllerTest {
         Map<String, Object> body = response.getBody();
         assertThat(body.get("posts")).isEqualTo(posts);
         assertThat(body.get("total")).isEqualTo(1L);
+        assertThat(body.get("totalEstimated")).isEqualTo(false);
         assertThat(body.get("page")).isEqualTo(1);
         assertThat(body.get("limit")).isEqualTo(10);
         assertThat(body.get("hasNext")).isEqualTo(false);
     }
 
+    @Test
+    void getPosts_TotalNone_OmitsTotal() {
+        // Given
+        List<PostResponse> posts = Arrays.asList(postResponse);
+        when(postService.getAllPosts(0, 10, TotalMode.NONE))
+                .thenReturn(new SliceImpl<>(posts, PageRequest.of(0, 10), true));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = postController.getPosts(1, 10, null, "none");
+
+        // Then
+        Map<String, Object> body = response.getBody();
+        assertThat(body).doesNotContainKeys("total", "totalEstimated");
+        assertThat(body.get("hasNext")).isEqualTo(true);
+    }
+
+    @Test
+    void getPosts_UnknownTotalMode_ThrowsBadRequestException() {
+        // When & Then
+        assertThatThrownBy(() -> postController.getPosts(1, 10, null, "approximate"))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(postService);
+    }
+
     @Test
     void getPosts_DefaultPagination_UsesCorrectDefaults() {
         // Given
         List<PostResponse> posts = Arrays.asList(postResponse);
-        Page<PostResponse> postsPage = new PageImpl<>(posts);
-        when(postService.getAllPosts(0, 10)).thenReturn(postsPage);
+        Page<PostResponse> postsPage = new PageImpl<>(posts, PageRequest.of(0, 10), 1);
+        when(postService.getAllPosts(0, 10, TotalMode.EXACT)).thenReturn(postsPage);
 
         // When
-        ResponseEntity<Map<String, Object>> response = postController.getPosts(1, 10);
+        ResponseEntity<Map<String, Object>> response = postController.getPosts(1, 10, null, "exact");
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
@@ -144,6 +178,45 @@ class PostControllerTest {
         assertThat(body.get("limit")).isEqualTo(10);
     }
 
+    @Test
+    void getPosts_WithCursor_ReturnsNextCursorWithoutTotal() {
+        // Given
+        List<PostResponse> posts = Arrays.asList(postResponse);
+        when(postService.getFeed("", 10)).thenReturn(CursorPage.<PostResponse>builder()
+                .items(posts)
+                .nextCursor("next-token")
+                .hasNext(true)
+                .size(10)
+                .build());
+
+        // When
+        ResponseEntity<Map<String, Object>> response = postController.getPosts(1, 10, "", "estimated");
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        Map<String, Object> body = response.getBody();
+        assertThat(body.get("posts")).isEqualTo(posts);
+        assertThat(body.get("nextCursor")).isEqualTo("next-token");
+        assertThat(body.get("hasNext")).isEqualTo(true);
+        assertThat(body).doesNotContainKey("total");
+    }
+
+    @Test
+    void getPosts_WithCursor_LimitAboveMaximum_ReportsCappedLimit() {
+        // Given
+        when(postService.getFeed("", 5000)).thenReturn(CursorPage.<PostResponse>builder()
+                .items(List.of())
+                .hasNext(false)
+                .size(100)
+                .build());
+
+        // When
+        ResponseEntity<Map<String, Object>> response = postController.getPosts(1, 5000, "", "exact");
+
+        // Then
+        assertThat(response.getBody().get("limit")).isEqualTo(100);
+    }
+
     @Test
     void getPost_ValidPostId_ReturnsPost() {
         // Given
@@ -252,10 +325,10 @@ class PostControllerTest {
         String keyword = "product";
         List<PostResponse> searchResults = Arrays.asList(postResponse);
         Page<PostResponse> searchPage = new PageImpl<>(searchResults);
-        when(postService.searchPosts(keyword, 0, 10)).thenReturn(searchPage);
+        when(postService.searchPosts(keyword, SearchFilters.none(), 0, 10, TotalMode.ESTIMATED)).thenReturn(searchPage);
 
         // When
-        ResponseEntity<Map<String, Object>> response = postController.searchPosts(keyword, 0, 10);
+        ResponseEntity<Map<String, Object>> response = postController.searchPosts(keyword, SearchFilters.none(), false, 0, 10, "estimated");
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
@@ -268,6 +341,24 @@ class PostControllerTest {
         assertThat(body.get("size")).isEqualTo(10);
         assertThat(body.get("hasNext")).isEqualTo(false);
         assertThat(body.get("keyword")).isEqualTo(keyword);
+        assertThat(body).doesNotContainKey("facets");
+    }
+
+    @Test
+    void searchPosts_WithFilters_IncludesFacets() {
+        // Given
+        SearchFilters filters = SearchFilters.builder().currency("USD").maxPrice(new BigDecimal("100")).build();
+        SearchFacets facets = SearchFacets.builder().platforms(List.of()).prices(List.of()).build();
+        when(postService.searchPosts(null, filters, 0, 10, TotalMode.ESTIMATED)).thenReturn(new PageImpl<>(List.of(postResponse)));
+        when(postService.getSearchFacets(null, filters)).thenReturn(facets);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = postController.searchPosts(null, filters, true, 0, 10, "estimated");
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody().get("posts")).isEqualTo(List.of(postResponse));
+        assertThat(response.getBody().get("facets")).isSameAs(facets);
     }
 
     @Test
@@ -275,10 +366,10 @@ class PostControllerTest {
         // Given
         List<PostResponse> allPosts = Arrays.asList(postResponse);
         Page<PostResponse> postsPage = new PageImpl<>(allPosts);
-        when(postService.searchPosts(null, 0, 10)).thenReturn(postsPage);
+        when(postService.searchPosts(null, SearchFilters.none(), 0, 10, TotalMode.ESTIMATED)).thenReturn(postsPage);
 
         // When
-        ResponseEntity<Map<String, Object>> response = postController.searchPosts(null, 0, 10);
+        ResponseEntity<Map<String, Object>> response = postController.searchPosts(null, SearchFilters.none(), false, 0, 10, "estimated");
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(200);
@@ -295,7 +386,7 @@ class PostControllerTest {
         String shortKeyword = "a";
 
         // When
-        ResponseEntity<Map<String, Object>> response = postController.searchPosts(shortKeyword, 0, 10);
+        ResponseEntity<Map<String, Object>> response = postController.searchPosts(shortKeyword, SearchFilters.none(), true, 0, 10, "estimated");
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(400);
@@ -313,7 +404,7 @@ class PostControllerTest {
         String emptyKeyword = "  ";
 
         // When
-        ResponseEntity<Map<String, Object>> response = postController.searchPosts(emptyKeyword, 0, 10);
+        ResponseEntity<Map<String, Object>> response = postController.searchPosts(emptyKeyword, SearchFilters.none(), true, 0, 10, "estimated");
 
         // Then
         assertThat(response.getStatusCode().value()).isEqualTo(400);
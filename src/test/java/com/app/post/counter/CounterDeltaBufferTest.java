@@ -0,0 +1,116 @@
+package com.app.post.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CounterDeltaBufferTest {
+
+    private final CounterDeltaBuffer buffer = new CounterDeltaBuffer(4);
+
+    @Test
+    void add_ReturnsPendingAndInFlightTotal() {
+        // Given
+        UUID postId = UUID.randomUUID();
+        buffer.add(postId, PostCounter.LIKES, 2);
+        buffer.drain();
+
+        // When
+        long total = buffer.add(postId, PostCounter.LIKES, 1);
+
+        // Then
+        assertThat(total).isEqualTo(3);
+        assertThat(buffer.pending(postId)).containsExactly(3, 0, 0);
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    void complete_DropsInFlightDeltas() {
+        // Given
+        UUID postId = UUID.randomUUID();
+        buffer.add(postId, PostCounter.SHARES, 5);
+
+        // When
+        CounterDeltaBuffer.Drain drain = buffer.drain();
+        buffer.complete();
+
+        // Then
+        assertThat(drain.getDeltas()).hasSize(1);
+        assertThat(drain.getDeltas().get(0).getValue()).containsExactly(0, 0, 5);
+        assertThat(buffer.pending(postId)).isNull();
+        assertThat(buffer.drain().isEmpty()).isTrue();
+    }
+
+    @Test
+    void restore_MergesInFlightBackIntoPending() {
+        // Given
+        UUID postId = UUID.randomUUID();
+        buffer.add(postId, PostCounter.REPOSTS, 2);
+        buffer.drain();
+        buffer.add(postId, PostCounter.REPOSTS, 1);
+
+        // When
+        buffer.restore();
+
+        // Then
+        CounterDeltaBuffer.Drain retry = buffer.drain();
+        assertThat(retry.getDeltas()).hasSize(1);
+        assertThat(retry.getDeltas().get(0).getValue()).containsExactly(0, 3, 0);
+    }
+
+    @Test
+    void concurrentAddsAndFlushes_NoDeltaLostOrCountedTwice() throws Exception {
+        // Given
+        int threads = 8;
+        int addsPerThread = 20_000;
+        UUID hotPost = UUID.randomUUID();
+        UUID[] posts = {hotPost, UUID.randomUUID(), UUID.randomUUID()};
+        long[] flushed = new long[1];
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When - writers hammer a hot post while a flusher drains, alternating success and failure
+        executor.submit(() -> {
+            int round = 0;
+            while (writing.get() || buffer.size() > 0) {
+                CounterDeltaBuffer.Drain drain = buffer.drain();
+                if (round++ % 3 == 0) {
+                    buffer.restore();
+                } else {
+                    for (Map.Entry<UUID, long[]> entry : drain.getDeltas()) {
+                        flushed[0] += entry.getValue()[PostCounter.LIKES.ordinal()];
+                    }
+                    buffer.complete();
+                }
+            }
+            return null;
+        });
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < addsPerThread; i++) {
+                    buffer.add(posts[i % posts.length], PostCounter.LIKES, 1);
+                }
+                done.countDown();
+                return null;
+            });
+        }
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        writing.set(false);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(flushed[0]).isEqualTo((long) threads * addsPerThread);
+        assertThat(buffer.pending(hotPost)).isNull();
+    }
+}
@@ -0,0 +1,116 @@
+package com.app.post.counter;
+
+import com.app.post.repo.PostLikeRepository;
+import com.app.post.repo.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DirectPostCounterStoreTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostLikeRepository postLikeRepository;
+
+    @InjectMocks
+    private DirectPostCounterStore counterStore;
+
+    private UUID userId;
+    private UUID postId;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        postId = UUID.randomUUID();
+        now = Instant.now();
+    }
+
+    @Test
+    void toggleLike_NotLiked_InsertsLikeInOneStatement() {
+        // Given
+        when(postLikeRepository.insertLike(userId, postId, now)).thenReturn(Optional.of(1));
+
+        // When
+        LikeToggle result = counterStore.toggleLike(userId, postId, now).orElseThrow();
+
+        // Then
+        assertThat(result.isLiked()).isTrue();
+        assertThat(result.getLikeCount()).isEqualTo(1);
+        verify(postLikeRepository, never()).deleteLike(any(), any(), any());
+        verify(postRepository, never()).findLikeCountById(any());
+    }
+
+    @Test
+    void toggleLike_AlreadyLiked_DeletesLike() {
+        // Given
+        when(postLikeRepository.insertLike(userId, postId, now)).thenReturn(Optional.empty());
+        when(postLikeRepository.deleteLike(userId, postId, now)).thenReturn(Optional.of(0));
+
+        // When
+        LikeToggle result = counterStore.toggleLike(userId, postId, now).orElseThrow();
+
+        // Then
+        assertThat(result.isLiked()).isFalse();
+        assertThat(result.getLikeCount()).isEqualTo(0);
+        verify(postRepository, never()).findLikeCountById(any());
+    }
+
+    @Test
+    void toggleLike_LikeRemovedConcurrently_ReturnsCurrentCountAsUnliked() {
+        // Given - the insert conflicts, but another request deletes the like before our delete runs
+        when(postLikeRepository.insertLike(userId, postId, now)).thenReturn(Optional.empty());
+        when(postLikeRepository.deleteLike(userId, postId, now)).thenReturn(Optional.empty());
+        when(postRepository.findLikeCountById(postId)).thenReturn(Optional.of(4));
+
+        // When
+        LikeToggle result = counterStore.toggleLike(userId, postId, now).orElseThrow();
+
+        // Then
+        assertThat(result.isLiked()).isFalse();
+        assertThat(result.getLikeCount()).isEqualTo(4);
+    }
+
+    @Test
+    void toggleLike_PostNotFound_ReturnsEmpty() {
+        // Given
+        when(postLikeRepository.insertLike(userId, postId, now)).thenReturn(Optional.empty());
+        when(postLikeRepository.deleteLike(userId, postId, now)).thenReturn(Optional.empty());
+        when(postRepository.findLikeCountById(postId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(counterStore.toggleLike(userId, postId, now)).isEmpty();
+    }
+
+    @Test
+    void increment_UsesAtomicUpdatePerCounter() {
+        // Given
+        when(postRepository.incrementRepostCount(postId, now)).thenReturn(Optional.of(3));
+        when(postRepository.incrementShareCount(postId, now)).thenReturn(Optional.of(7));
+
+        // When & Then
+        assertThat(counterStore.increment(postId, PostCounter.REPOSTS, now)).contains(3);
+        assertThat(counterStore.increment(postId, PostCounter.SHARES, now)).contains(7);
+    }
+
+    @Test
+    void increment_Likes_ThrowsIllegalArgumentException() {
+        assertThatThrownBy(() -> counterStore.increment(postId, PostCounter.LIKES, now))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,183 @@
+package com.app.post.counter;
+
+import com.app.post.dto.PostResponse;
+import com.app.post.repo.PostCounterShardRepository;
+import com.app.post.repo.PostLikeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedPostCounterStoreTest {
+
+    private static final int SHARDS = 4;
+
+    @Mock
+    private PostLikeRepository postLikeRepository;
+
+    @Mock
+    private PostCounterShardRepository shardRepository;
+
+    private ShardedPostCounterStore counterStore;
+    private UUID userId;
+    private UUID postId;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        counterStore = new ShardedPostCounterStore(postLikeRepository, shardRepository, SHARDS, 60_000);
+        userId = UUID.randomUUID();
+        postId = UUID.randomUUID();
+        now = Instant.now();
+    }
+
+    private static PostCounterTotals totals(UUID postId, int likes, int reposts, int shares) {
+        return new PostCounterTotals() {
+            @Override public UUID getPostId() { return postId; }
+            @Override public Integer getLikeCount() { return likes; }
+            @Override public Integer getRepostCount() { return reposts; }
+            @Override public Integer getShareCount() { return shares; }
+        };
+    }
+
+    @Test
+    void increment_AddsToOneShardAndReturnsExactTotal() {
+        // Given
+        when(shardRepository.addToShard(eq(postId), anyShort(), eq(0), eq(1), eq(0))).thenReturn(Optional.of(postId));
+        when(shardRepository.findTotalsById(postId)).thenReturn(Optional.of(totals(postId, 0, 42, 0)));
+
+        // When
+        Optional<Integer> result = counterStore.increment(postId, PostCounter.REPOSTS, now);
+
+        // Then
+        assertThat(result).contains(42);
+    }
+
+    @Test
+    void increment_SpreadsWritesAcrossShards() {
+        // Given
+        ArgumentCaptor<Short> shard = ArgumentCaptor.forClass(Short.class);
+        when(shardRepository.addToShard(eq(postId), shard.capture(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(Optional.of(postId));
+        when(shardRepository.findTotalsById(postId)).thenReturn(Optional.of(totals(postId, 0, 0, 1)));
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            counterStore.increment(postId, PostCounter.SHARES, now);
+        }
+
+        // Then
+        Set<Short> used = new HashSet<>(shard.getAllValues());
+        assertThat(used).hasSize(SHARDS);
+        assertThat(used).allMatch(value -> value >= 0 && value < SHARDS);
+    }
+
+    @Test
+    void increment_PostNotFound_ReturnsEmpty() {
+        // Given
+        when(shardRepository.addToShard(eq(postId), anyShort(), anyInt(), anyInt(), anyInt())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(counterStore.increment(postId, PostCounter.SHARES, now)).isEmpty();
+        verify(shardRepository, never()).findTotalsById(any());
+    }
+
+    @Test
+    void increment_Likes_ThrowsIllegalArgumentException() {
+        assertThatThrownBy(() -> counterStore.increment(postId, PostCounter.LIKES, now))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void toggleLike_NotLiked_InsertsRowAndIncrementsShard() {
+        // Given
+        when(postLikeRepository.insertLikeRow(userId, postId, now)).thenReturn(Optional.of(postId));
+        when(shardRepository.addToShard(eq(postId), anyShort(), eq(1), eq(0), eq(0))).thenReturn(Optional.of(postId));
+        when(shardRepository.findTotalsById(postId)).thenReturn(Optional.of(totals(postId, 8, 0, 0)));
+
+        // When
+        LikeToggle result = counterStore.toggleLike(userId, postId, now).orElseThrow();
+
+        // Then
+        assertThat(result.isLiked()).isTrue();
+        assertThat(result.getLikeCount()).isEqualTo(8);
+        verify(postLikeRepository, never()).deleteLikeRow(any(), any());
+    }
+
+    @Test
+    void toggleLike_AlreadyLiked_DeletesRowAndDecrementsShard() {
+        // Given
+        when(postLikeRepository.insertLikeRow(userId, postId, now)).thenReturn(Optional.empty());
+        when(postLikeRepository.deleteLikeRow(userId, postId)).thenReturn(Optional.of(postId));
+        when(shardRepository.addToShard(eq(postId), anyShort(), eq(-1), eq(0), eq(0))).thenReturn(Optional.of(postId));
+        when(shardRepository.findTotalsById(postId)).thenReturn(Optional.of(totals(postId, 7, 0, 0)));
+
+        // When
+        LikeToggle result = counterStore.toggleLike(userId, postId, now).orElseThrow();
+
+        // Then
+        assertThat(result.isLiked()).isFalse();
+        assertThat(result.getLikeCount()).isEqualTo(7);
+    }
+
+    @Test
+    void toggleLike_PostNotFound_ReturnsEmpty() {
+        // Given
+        when(postLikeRepository.insertLikeRow(userId, postId, now)).thenReturn(Optional.empty());
+        when(postLikeRepository.deleteLikeRow(userId, postId)).thenReturn(Optional.empty());
+        when(shardRepository.findTotalsById(postId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(counterStore.toggleLike(userId, postId, now)).isEmpty();
+        verify(shardRepository, never()).addToShard(any(), anyShort(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void applyPending_ReplacesCountsWithTotalsAndCachesThem() {
+        // Given
+        PostResponse post = PostResponse.builder().id(postId).likes(1).reposts(1).shares(1).build();
+        when(shardRepository.findTotalsByIdIn(List.of(postId))).thenReturn(List.of(totals(postId, 5, 6, 7)));
+
+        // When
+        counterStore.applyPending(List.of(post));
+        PostResponse again = PostResponse.builder().id(postId).likes(1).reposts(1).shares(1).build();
+        counterStore.applyPending(List.of(again));
+
+        // Then
+        assertThat(post.getLikes()).isEqualTo(5);
+        assertThat(post.getReposts()).isEqualTo(6);
+        assertThat(post.getShares()).isEqualTo(7);
+        assertThat(again.getShares()).isEqualTo(7);
+        verify(shardRepository, times(1)).findTotalsByIdIn(any());
+    }
+
+    @Test
+    void compact_FoldsShardsIntoPosts() {
+        // Given
+        when(shardRepository.compactShards(any(Instant.class))).thenReturn(3);
+
+        // When
+        counterStore.compact();
+
+        // Then
+        verify(shardRepository).compactShards(any(Instant.class));
+    }
+}
@@ -0,0 +1,205 @@
+package com.app.post.counter;
+
+import com.app.post.dto.PostResponse;
+import com.app.post.repo.PostLikeRepository;
+import com.app.post.repo.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindPostCounterStoreTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostLikeRepository postLikeRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private WriteBehindPostCounterStore counterStore;
+    private UUID userId;
+    private UUID postId;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        counterStore = new WriteBehindPostCounterStore(postRepository, postLikeRepository, jdbcTemplate,
+                transactionManager, meterRegistry, 4);
+        userId = UUID.randomUUID();
+        postId = UUID.randomUUID();
+        now = Instant.now();
+    }
+
+    private static PostCounts counts(int likes, int reposts, int shares) {
+        return new PostCounts() {
+            @Override public Integer getLikeCount() { return likes; }
+            @Override public Integer getRepostCount() { return reposts; }
+            @Override public Integer getShareCount() { return shares; }
+        };
+    }
+
+    @Test
+    void increment_ShowsPersistedPlusPendingWithoutUpdatingPost() {
+        // Given
+        when(postRepository.findCountsById(postId)).thenReturn(Optional.of(counts(0, 10, 0)));
+
+        // When
+        counterStore.increment(postId, PostCounter.REPOSTS, now);
+        Optional<Integer> result = counterStore.increment(postId, PostCounter.REPOSTS, now);
+
+        // Then
+        assertThat(result).contains(12);
+        verify(postRepository, never()).incrementRepostCount(any(), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void increment_PostNotFound_ReturnsEmptyAndBuffersNothing() {
+        // Given
+        when(postRepository.findCountsById(postId)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Integer> result = counterStore.increment(postId, PostCounter.SHARES, now);
+        counterStore.flush();
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void toggleLike_WritesOnlyTheLikeRowAndBuffersTheCount() {
+        // Given
+        when(postLikeRepository.insertLikeRow(userId, postId, now)).thenReturn(Optional.of(postId));
+        when(postRepository.findCountsById(postId)).thenReturn(Optional.of(counts(5, 0, 0)));
+
+        // When
+        LikeToggle result = counterStore.toggleLike(userId, postId, now).orElseThrow();
+
+        // Then
+        assertThat(result.isLiked()).isTrue();
+        assertThat(result.getLikeCount()).isEqualTo(6);
+        verify(postLikeRepository, never()).insertLike(any(), any(), any());
+        verify(postLikeRepository, never()).deleteLikeRow(any(), any());
+    }
+
+    @Test
+    void toggleLike_AlreadyLiked_RemovesRowAndBuffersDecrement() {
+        // Given
+        when(postLikeRepository.insertLikeRow(userId, postId, now)).thenReturn(Optional.empty());
+        when(postLikeRepository.deleteLikeRow(userId, postId)).thenReturn(Optional.of(postId));
+        when(postRepository.findCountsById(postId)).thenReturn(Optional.of(counts(5, 0, 0)));
+
+        // When
+        LikeToggle result = counterStore.toggleLike(userId, postId, now).orElseThrow();
+
+        // Then
+        assertThat(result.isLiked()).isFalse();
+        assertThat(result.getLikeCount()).isEqualTo(4);
+    }
+
+    @Test
+    void toggleLike_PostNotFound_ReturnsEmpty() {
+        // Given
+        when(postLikeRepository.insertLikeRow(userId, postId, now)).thenReturn(Optional.empty());
+        when(postLikeRepository.deleteLikeRow(userId, postId)).thenReturn(Optional.empty());
+        when(postRepository.findCountsById(postId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(counterStore.toggleLike(userId, postId, now)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesAllDeltasInOneBatchAndRecordsLag() {
+        // Given
+        UUID otherPostId = UUID.randomUUID();
+        when(postRepository.findCountsById(any())).thenReturn(Optional.of(counts(0, 0, 0)));
+        when(postLikeRepository.insertLikeRow(any(), any(), any())).thenReturn(Optional.of(postId));
+        counterStore.toggleLike(userId, postId, now);
+        counterStore.increment(postId, PostCounter.SHARES, now);
+        counterStore.increment(otherPostId, PostCounter.REPOSTS, now);
+
+        // When
+        counterStore.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertThat(rows.getValue()).hasSize(2);
+        Object[] postRow = rows.getValue().stream().filter(row -> row[4].equals(postId)).findFirst().orElseThrow();
+        assertThat(postRow).startsWith(1L, 0L, 1L);
+
+        assertThat(meterRegistry.get("post.counters.flush.lag").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("post.counters.pending").gauge().value()).isZero();
+
+        // Nothing left to flush
+        counterStore.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_Failure_KeepsDeltasForNextFlush() {
+        // Given
+        when(postRepository.findCountsById(postId)).thenReturn(Optional.of(counts(0, 0, 0)));
+        counterStore.increment(postId, PostCounter.SHARES, now);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+
+        // When
+        counterStore.flush();
+
+        // Then
+        assertThat(meterRegistry.get("post.counters.flush.failures").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("post.counters.pending").gauge().value()).isEqualTo(1);
+
+        counterStore.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        assertThat(meterRegistry.get("post.counters.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void applyPending_AddsBufferedDeltasToResponses() {
+        // Given
+        when(postRepository.findCountsById(postId)).thenReturn(Optional.of(counts(0, 0, 0)));
+        counterStore.increment(postId, PostCounter.REPOSTS, now);
+        PostResponse buffered = PostResponse.builder().id(postId).likes(3).reposts(4).shares(5).build();
+        PostResponse untouched = PostResponse.builder().id(UUID.randomUUID()).likes(1).reposts(1).shares(1).build();
+
+        // When
+        counterStore.applyPending(List.of(buffered, untouched));
+
+        // Then
+        assertThat(buffered.getReposts()).isEqualTo(5);
+        assertThat(buffered.getLikes()).isEqualTo(3);
+        assertThat(untouched.getReposts()).isEqualTo(1);
+    }
+}
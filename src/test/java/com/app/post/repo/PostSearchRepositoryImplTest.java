@@ -0,0 +1,84 @@
+package com.app.post.repo;
+
+import com.app.common.pagination.TotalMode;
+import com.app.post.search.SearchFilters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostSearchRepositoryImplTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private PostSearchRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new PostSearchRepositoryImpl(jdbcTemplate);
+        // A full page plus one, so the total is not known from the page itself
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(21).collect(Collectors.toList());
+        when(jdbcTemplate.queryForList(startsWith("WITH q AS"), any(MapSqlParameterSource.class), eq(UUID.class)))
+                .thenReturn(ids);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void countedHits(long rows, long distinct) {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*), count(DISTINCT id)"),
+                any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(new long[]{rows, distinct});
+    }
+
+    private long estimatedTotal() {
+        Slice<UUID> page = repository.searchIds("phone:*", "phone", "%phone%", SearchFilters.none(),
+                PageRequest.of(0, 20), TotalMode.ESTIMATED);
+        return ((Page<UUID>) page).getTotalElements();
+    }
+
+    @Test
+    void searchIds_EstimatedTotal_FewHits_AreCounted() {
+        // Given posts hit by both their text and their author
+        countedHits(600, 300);
+
+        // When
+        long total = estimatedTotal();
+
+        // Then
+        assertThat(total).isEqualTo(300);
+        verify(jdbcTemplate, never()).queryForList(startsWith("EXPLAIN"), any(MapSqlParameterSource.class), eq(String.class));
+    }
+
+    @Test
+    void searchIds_EstimatedTotal_DuplicateHitsPastLimit_AskPlanner() {
+        // Given the counting window filled with 500 posts hit twice each
+        countedHits(PostSearchRepositoryImpl.COUNT_LIMIT, 500);
+        when(jdbcTemplate.queryForList(startsWith("EXPLAIN"), any(MapSqlParameterSource.class), eq(String.class)))
+                .thenReturn(List.of("Append  (cost=0.00..4211.50 rows=100000 width=16)"));
+
+        // When
+        long total = estimatedTotal();
+
+        // Then the window's distinct count is not taken as the total
+        assertThat(total).isEqualTo(100000);
+    }
+}
@@ -0,0 +1,120 @@
+package com.app.post.search;
+
+import com.app.common.pagination.TotalMode;
+import com.app.post.dto.SearchFacets;
+import com.app.post.repo.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DatabasePostSearchEngineTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DatabasePostSearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new DatabasePostSearchEngine(postRepository, meterRegistry);
+    }
+
+    @Test
+    void searchIds_RequiresEveryTermAsPrefix() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Page<UUID> ids = new PageImpl<>(List.of(UUID.randomUUID()), pageRequest, 1);
+        when(postRepository.searchIds("sony:* & noise:* & cancelling:* & headphones:*",
+                "Sony noise-cancelling headphones", "%Sony noise-cancelling headphones%", SearchFilters.none(), pageRequest, TotalMode.EXACT))
+                .thenReturn(ids);
+
+        // When
+        Slice<UUID> result = engine.searchIds(" Sony noise-cancelling headphones ", SearchFilters.none(), pageRequest, TotalMode.EXACT);
+
+        // Then
+        assertThat(result).isSameAs(ids);
+        assertThat(meterRegistry.get("search.query").tag("engine", "database").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void searchIds_OrBuildsAlternatives() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        when(postRepository.searchIds("(sony:*) | (bose:*)", "sony OR bose", "%sony OR bose%", SearchFilters.none(), pageRequest, TotalMode.EXACT))
+                .thenReturn(Page.empty(pageRequest));
+
+        // When
+        Slice<UUID> result = engine.searchIds("sony OR bose", SearchFilters.none(), pageRequest, TotalMode.EXACT);
+
+        // Then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void searchIds_OnlyPunctuation_ReturnsEmptyPageWithoutQuery() {
+        // When
+        Slice<UUID> result = engine.searchIds("?!", SearchFilters.none(), PageRequest.of(0, 10), TotalMode.EXACT);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(postRepository, never()).searchIds(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchIds_BlankKeywordWithFilters_QueriesFiltersOnly() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        SearchFilters filters = SearchFilters.builder().platformId(UUID.randomUUID()).build();
+        when(postRepository.searchIds(null, null, null, filters, pageRequest, TotalMode.EXACT)).thenReturn(Page.empty(pageRequest));
+
+        // When
+        Slice<UUID> result = engine.searchIds("  ", filters, pageRequest, TotalMode.EXACT);
+
+        // Then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void facets_PassesQueryAndFilters() {
+        // Given
+        SearchFilters filters = SearchFilters.builder().currency("usd").build();
+        SearchFacets facets = SearchFacets.builder().platforms(List.of()).prices(List.of()).build();
+        when(postRepository.searchFacets("sony:*", "sony", "%sony%", filters)).thenReturn(facets);
+
+        // When
+        SearchFacets result = engine.facets("sony", filters);
+
+        // Then
+        assertThat(result).isSameAs(facets);
+    }
+
+    @Test
+    void facets_OnlyPunctuation_ReturnsEmptyFacetsWithoutQuery() {
+        // When
+        SearchFacets result = engine.facets("?!", SearchFilters.none());
+
+        // Then
+        assertThat(result.getPlatforms()).isEmpty();
+        assertThat(result.getPrices()).isEmpty();
+        verify(postRepository, never()).searchFacets(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,153 @@
+package com.app.post.search;
+
+import com.app.common.pagination.TotalMode;
+import com.app.platform.entity.Platform;
+import com.app.post.dto.PostResponse;
+import com.app.post.entity.Post;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.repo.PostRepository;
+import com.app.user.dto.UserSummary;
+import com.app.user.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryPostSearchEngineTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private DatabasePostSearchEngine fallback;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryPostSearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new InMemoryPostSearchEngine(postRepository, fallback, meterRegistry, 2);
+    }
+
+    @Test
+    void searchIds_BeforeFirstBuild_UsesDatabase() {
+        // Given
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Page<UUID> ids = new PageImpl<>(List.of(UUID.randomUUID()), pageRequest, 1);
+        when(fallback.searchIds("phone", SearchFilters.none(), pageRequest, TotalMode.EXACT)).thenReturn(ids);
+
+        // When
+        Slice<UUID> result = engine.searchIds("phone", SearchFilters.none(), pageRequest, TotalMode.EXACT);
+
+        // Then
+        assertThat(result).isSameAs(ids);
+    }
+
+    @Test
+    void searchIds_WithFilters_UsesDatabase() {
+        // Given
+        when(postRepository.findChunkAfter(any(), any(), any())).thenReturn(List.of());
+        engine.catchUp();
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        SearchFilters filters = SearchFilters.builder().maxPrice(new BigDecimal("50")).build();
+        when(fallback.searchIds("phone", filters, pageRequest, TotalMode.EXACT)).thenReturn(Page.empty(pageRequest));
+
+        // When
+        Slice<UUID> result = engine.searchIds("phone", filters, pageRequest, TotalMode.EXACT);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(fallback).searchIds("phone", filters, pageRequest, TotalMode.EXACT);
+    }
+
+    @Test
+    void catchUp_StreamsPostsInChunks() {
+        // Given
+        Post first = post("sony headphones", T0);
+        Post second = post("bose headphones", T0.plusSeconds(1));
+        Post third = post("apple laptop", T0.plusSeconds(2));
+        when(postRepository.findChunkAfter(eq(Instant.EPOCH), any(), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(first, second));
+        when(postRepository.findChunkAfter(second.getCreatedAt(), second.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(third));
+
+        // When
+        engine.catchUp();
+        Slice<UUID> result = engine.searchIds("headphones OR laptop", SearchFilters.none(), PageRequest.of(0, 10), TotalMode.EXACT);
+
+        // Then
+        assertThat(result.getContent()).containsExactlyInAnyOrder(first.getId(), second.getId(), third.getId());
+        assertThat(meterRegistry.get("search.index.documents").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("search.query").tag("engine", "memory").timer().count()).isEqualTo(1);
+        verify(fallback, never()).searchIds(any(), any(), any(), any());
+    }
+
+    @Test
+    void catchUp_ResumesBeforeNewestIndexedPost() {
+        // Given
+        Post first = post("sony headphones", T0);
+        when(postRepository.findChunkAfter(eq(Instant.EPOCH), any(), any())).thenReturn(List.of(first));
+        engine.catchUp();
+        Post late = post("bose headphones", T0.minusSeconds(5));
+        when(postRepository.findChunkAfter(eq(T0.minusSeconds(60)), any(), any())).thenReturn(List.of(late, first));
+
+        // When
+        engine.catchUp();
+
+        // Then
+        assertThat(engine.searchIds("bose", SearchFilters.none(), PageRequest.of(0, 10), TotalMode.EXACT).getContent()).containsExactly(late.getId());
+        assertThat(meterRegistry.get("search.index.documents").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void onPostCreated_IndexesCommittedPost() {
+        // Given
+        when(postRepository.findChunkAfter(any(), any(), any())).thenReturn(List.of());
+        engine.catchUp();
+        PostResponse post = PostResponse.builder()
+                .id(UUID.randomUUID())
+                .content("Great deal")
+                .user(UserSummary.builder().username("johndoe").name("John Doe").build())
+                .platform(PostResponse.Platform.builder().name("Amazon").build())
+                .timestamp(T0)
+                .build();
+
+        // When
+        engine.onPostCreated(new PostCreatedEvent(post));
+
+        // Then
+        assertThat(engine.searchIds("john amazon", SearchFilters.none(), PageRequest.of(0, 10), TotalMode.EXACT).getContent()).containsExactly(post.getId());
+    }
+
+    private static Post post(String text, Instant createdAt) {
+        return Post.builder()
+                .id(UUID.randomUUID())
+                .text(text)
+                .author(User.builder().username("johndoe").displayName("John Doe").build())
+                .platform(Platform.builder().name("Amazon").build())
+                .createdAt(createdAt)
+                .build();
+    }
+}
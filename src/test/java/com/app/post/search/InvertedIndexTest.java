@@ -0,0 +1,163 @@
+package com.app.post.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void search_RanksMoreFrequentAndRarerTermsHigher() {
+        // Given
+        UUID once = UUID.randomUUID();
+        UUID twice = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        index.add(once, T0, "new headphones from the store");
+        index.add(twice, T0, "headphones headphones store");
+        index.add(other, T0, "a store with laptops");
+
+        // When
+        Page<UUID> result = index.search(List.of(List.of("headphones")), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result.getContent()).containsExactly(twice, once);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void search_RequiresAllTermsOfAGroup() {
+        // Given
+        UUID both = UUID.randomUUID();
+        index.add(both, T0, "sony headphones");
+        index.add(UUID.randomUUID(), T0, "sony camera");
+        index.add(UUID.randomUUID(), T0, "bose headphones");
+
+        // When
+        Page<UUID> result = index.search(List.of(List.of("sony", "headphones")), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result.getContent()).containsExactly(both);
+    }
+
+    @Test
+    void search_UnitesGroups() {
+        // Given
+        UUID sony = UUID.randomUUID();
+        UUID bose = UUID.randomUUID();
+        index.add(sony, T0, "sony camera");
+        index.add(bose, T0, "bose speaker");
+        index.add(UUID.randomUUID(), T0, "apple laptop");
+
+        // When
+        Page<UUID> result = index.search(List.of(List.of("sony"), List.of("bose")), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result.getContent()).containsExactlyInAnyOrder(sony, bose);
+    }
+
+    @Test
+    void search_MatchesPrefixesAcrossFields() {
+        // Given
+        UUID post = UUID.randomUUID();
+        index.add(post, T0, "great deal", "johndoe", null, "Amazon");
+
+        // When / Then
+        assertThat(index.search(List.of(List.of("head")), PageRequest.of(0, 10))).isEmpty();
+        assertThat(index.search(List.of(List.of("john", "amaz")), PageRequest.of(0, 10)).getContent())
+                .containsExactly(post);
+    }
+
+    @Test
+    void search_EqualScoresNewestFirst() {
+        // Given
+        UUID older = UUID.randomUUID();
+        UUID newer = UUID.randomUUID();
+        index.add(older, T0, "phone");
+        index.add(newer, T0.plusSeconds(60), "phone");
+
+        // When
+        Page<UUID> result = index.search(List.of(List.of("phone")), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result.getContent()).containsExactly(newer, older);
+    }
+
+    @Test
+    void search_PagesThroughRankedResults() {
+        // Given
+        for (int i = 0; i < 25; i++) {
+            index.add(UUID.randomUUID(), T0.plusSeconds(i), "phone");
+        }
+        List<UUID> all = index.search(List.of(List.of("phone")), PageRequest.of(0, 25)).getContent();
+
+        // When
+        Page<UUID> second = index.search(List.of(List.of("phone")), PageRequest.of(1, 10));
+        Page<UUID> beyond = index.search(List.of(List.of("phone")), PageRequest.of(5, 10));
+
+        // Then
+        assertThat(second.getContent()).isEqualTo(all.subList(10, 20));
+        assertThat(second.getTotalElements()).isEqualTo(25);
+        assertThat(beyond.getContent()).isEmpty();
+        assertThat(beyond.getTotalElements()).isEqualTo(25);
+    }
+
+    @Test
+    void search_PrefixWithTooManyTerms_KeepsMostCommonAndCountsIt() {
+        // Given one rare term per post, and a common term that sorts after all of them
+        for (int i = 0; i < InvertedIndex.MAX_PREFIX_EXPANSIONS; i++) {
+            index.add(UUID.randomUUID(), T0, "p" + String.format("%03d", i));
+        }
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.add(first, T0, "pz");
+        index.add(second, T0, "pz");
+
+        // When
+        Page<UUID> result = index.search(List.of(List.of("p")), PageRequest.of(0, 100));
+
+        // Then
+        assertThat(result.getContent()).contains(first, second);
+        assertThat(result.getTotalElements()).isEqualTo(InvertedIndex.MAX_PREFIX_EXPANSIONS + 1);
+        assertThat(index.truncatedPrefixCount()).isEqualTo(1);
+    }
+
+    @Test
+    void add_SamePostTwice_ReplacesIt() {
+        // Given
+        UUID post = UUID.randomUUID();
+        index.add(post, T0, "old camera");
+
+        // When
+        index.add(post, T0, "new phone");
+
+        // Then
+        assertThat(index.documentCount()).isEqualTo(1);
+        assertThat(index.termCount()).isEqualTo(2);
+        assertThat(index.search(List.of(List.of("camera")), PageRequest.of(0, 10))).isEmpty();
+        assertThat(index.search(List.of(List.of("phone")), PageRequest.of(0, 10)).getContent()).containsExactly(post);
+    }
+
+    @Test
+    void remove_DropsPostAndUnusedTerms() {
+        // Given
+        UUID post = UUID.randomUUID();
+        index.add(post, T0, "camera");
+
+        // When
+        index.remove(post);
+
+        // Then
+        assertThat(index.documentCount()).isZero();
+        assertThat(index.termCount()).isZero();
+    }
+}
@@ -0,0 +1,179 @@
+package com.app.post.search;
+
+import com.app.common.pagination.TotalMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final PageRequest firstPage = PageRequest.of(0, 10);
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchResultCache cache;
+    private AtomicInteger searches;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SearchResultCache(meterRegistry, 20, 60_000);
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    void get_SameNormalizedQuery_SearchesOnce() {
+        // Given
+        Page<UUID> result = page(3);
+
+        // When
+        Slice<UUID> first = cache.get("iPhone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(result));
+        Slice<UUID> second = cache.get("  iphone ", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(result));
+
+        // Then
+        assertThat(searches).hasValue(1);
+        assertThat(second.getContent()).isEqualTo(first.getContent());
+        assertThat(second).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(3));
+        assertThat(meterRegistry.get("search.cache.hits").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.cache.misses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_SameParsedQueryDifferentText_IsSeparateEntry() {
+        // When - "iphone!" parses to the same terms, but trigram and ILIKE matching see the "!"
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(1)));
+        cache.get("iphone!", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(1)));
+
+        // Then
+        assertThat(searches).hasValue(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void get_DifferentPageQueryOrFilters_IsSeparateEntry() {
+        // When
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(1)));
+        cache.get("iphone", SearchFilters.none(), PageRequest.of(1, 10), TotalMode.EXACT, () -> search(page(1)));
+        cache.get("iphone OR pixel", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(1)));
+        cache.get("iphone", SearchFilters.builder().currency("USD").build(), firstPage, TotalMode.EXACT, () -> search(page(1)));
+
+        // Then
+        assertThat(searches).hasValue(4);
+        assertThat(cache.size()).isEqualTo(4);
+    }
+
+    @Test
+    void get_WithoutTotal_CachesSlice() {
+        // Given
+        Slice<UUID> slice = new SliceImpl<>(List.of(UUID.randomUUID()), firstPage, true);
+
+        // When
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.NONE, () -> {
+            searches.incrementAndGet();
+            return slice;
+        });
+        Slice<UUID> cached = cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.NONE, () -> search(page(1)));
+
+        // Then
+        assertThat(searches).hasValue(1);
+        assertThat(cached).isNotInstanceOf(Page.class);
+        assertThat(cached.hasNext()).isTrue();
+        assertThat(cached.getContent()).isEqualTo(slice.getContent());
+    }
+
+    @Test
+    void get_OverIdBudget_EvictsLeastRecentlyUsed() {
+        // Given
+        cache.get("a1", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(8)));
+        cache.get("a2", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(8)));
+        cache.get("a1", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(8)));
+
+        // When
+        cache.get("a3", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(8)));
+
+        // Then
+        assertThat(cache.idCount()).isEqualTo(16);
+        assertThat(meterRegistry.get("search.cache.evictions").counter().count()).isEqualTo(1);
+        cache.get("a1", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(8)));
+        assertThat(searches).hasValue(3);
+        cache.get("a2", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(8)));
+        assertThat(searches).hasValue(4);
+    }
+
+    @Test
+    void onPostCreated_ClearsCache() {
+        // Given
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(2)));
+
+        // When
+        cache.onPostCreated(null);
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(2)));
+
+        // Then
+        assertThat(searches).hasValue(2);
+        assertThat(meterRegistry.get("search.cache.invalidations").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_InvalidatedWhileSearching_DoesNotCacheStaleResult() {
+        // When
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> {
+            cache.invalidate();
+            return search(page(2));
+        });
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(2)));
+
+        // Then
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    void get_ExpiredEntry_SearchesAgain() {
+        // Given
+        cache = new SearchResultCache(new SimpleMeterRegistry(), 20, 0);
+
+        // When
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(2)));
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(2)));
+
+        // Then
+        assertThat(searches).hasValue(2);
+        assertThat(cache.idCount()).isEqualTo(2);
+    }
+
+    @Test
+    void get_Disabled_AlwaysSearches() {
+        // Given
+        cache = new SearchResultCache(new SimpleMeterRegistry(), 0, 60_000);
+
+        // When
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(2)));
+        cache.get("iphone", SearchFilters.none(), firstPage, TotalMode.EXACT, () -> search(page(2)));
+
+        // Then
+        assertThat(searches).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    private Page<UUID> search(Page<UUID> result) {
+        searches.incrementAndGet();
+        return result;
+    }
+
+    private Page<UUID> page(int size) {
+        List<UUID> ids = IntStream.range(0, size).mapToObj(i -> UUID.randomUUID()).collect(Collectors.toList());
+        return new PageImpl<>(ids, firstPage, size);
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.post.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTermsTest {
+
+    @Test
+    void tokenize_SplitsOnNonWordCharactersAndLowerCases() {
+        assertThat(SearchTerms.tokenize("  Sony WH-1000XM5, noise-cancelling!  "))
+                .containsExactly("sony", "wh", "1000xm5", "noise", "cancelling");
+    }
+
+    @Test
+    void tokenize_StripsTsqueryOperators() {
+        assertThat(SearchTerms.tokenize("a & b | !c <-> 'd':*")).containsExactly("a", "b", "c", "d");
+    }
+
+    @Test
+    void tokenize_KeepsUnicodeLettersAndDropsDuplicates() {
+        assertThat(SearchTerms.tokenize("Café café Müller")).containsExactly("café", "müller");
+    }
+
+    @Test
+    void tokenize_BlankOrPunctuation_ReturnsEmpty() {
+        assertThat(SearchTerms.tokenize(null)).isEmpty();
+        assertThat(SearchTerms.tokenize("   ")).isEmpty();
+        assertThat(SearchTerms.tokenize("?!-")).isEmpty();
+    }
+
+    @Test
+    void tokenize_CapsNumberOfTerms() {
+        String text = IntStream.range(0, 100).mapToObj(i -> "t" + i).collect(Collectors.joining(" "));
+        assertThat(SearchTerms.tokenize(text)).hasSize(SearchTerms.MAX_TERMS);
+    }
+
+    @Test
+    void toPrefixQuery_AndsPrefixTerms() {
+        assertThat(SearchTerms.toPrefixQuery(List.of("head", "sony"))).isEqualTo("head:* & sony:*");
+    }
+
+    @Test
+    void parse_UpperCaseOrSeparatesAlternatives() {
+        assertThat(SearchTerms.parse("Sony headphones OR bose"))
+                .containsExactly(List.of("sony", "headphones"), List.of("bose"));
+    }
+
+    @Test
+    void parse_LowerCaseOrIsAWord() {
+        assertThat(SearchTerms.parse("black or white")).containsExactly(List.of("black", "or", "white"));
+    }
+
+    @Test
+    void parse_DropsEmptyAlternatives() {
+        assertThat(SearchTerms.parse("OR sony OR OR ?! OR")).containsExactly(List.of("sony"));
+        assertThat(SearchTerms.parse("OR")).isEmpty();
+    }
+
+    @Test
+    void toPrefixQueryGroups_OrsParenthesisedGroups() {
+        assertThat(SearchTerms.toPrefixQueryGroups(List.of(List.of("sony"))))
+                .isEqualTo("sony:*");
+        assertThat(SearchTerms.toPrefixQueryGroups(List.of(List.of("sony", "head"), List.of("bose"))))
+                .isEqualTo("(sony:* & head:*) | (bose:*)");
+    }
+
+    @Test
+    void toContainsPattern_EscapesLikeWildcards() {
+        assertThat(SearchTerms.toContainsPattern(" doe ")).isEqualTo("%doe%");
+        assertThat(SearchTerms.toContainsPattern("50%_off\\")).isEqualTo("%50\\%\\_off\\\\%");
+    }
+}
@@ -0,0 +1,174 @@
+package com.app.post.service;
+
+import com.app.auth.security.CurrentUserProvider;
+import com.app.post.counter.DirectPostCounterStore;
+import com.app.post.counter.PostCounter;
+import com.app.post.counter.PostCounts;
+import com.app.post.counter.WriteBehindPostCounterStore;
+import com.app.post.repo.PostLikeRepository;
+import com.app.post.repo.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Likes, reposts and shares under concurrency. In direct mode each one is a single
+ * {@code UPDATE ... SET x = x + 1 RETURNING x}: the count reported is the one the statement
+ * returned and the post is never read and written back, which is what lost concurrent updates
+ * before; that the statement is atomic is the database's guarantee, as there is no database in
+ * these tests. In write-behind mode the increments are counted in memory, so many threads
+ * interacting while flushes run must still write every one of them exactly once.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostCounterUpdateTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostLikeRepository postLikeRepository;
+
+    @Mock
+    private CurrentUserProvider currentUserProvider;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private PostServiceImpl postService;
+
+    private UUID postId;
+
+    @BeforeEach
+    void setUp() {
+        postService = new PostServiceImpl(postRepository, null, currentUserProvider,
+                new DirectPostCounterStore(postRepository, null), null, null, null, messagingTemplate, null, null, eventPublisher);
+        postId = UUID.randomUUID();
+        when(currentUserProvider.getCurrentUserId()).thenAnswer(invocation -> UUID.randomUUID());
+    }
+
+    @Test
+    void repostPost_ReportsCountReturnedByUpdate() {
+        // Given another request already reposted in between
+        when(postRepository.incrementRepostCount(eq(postId), any(Instant.class))).thenReturn(Optional.of(42));
+
+        // When
+        Object reposts = postService.repostPost(postId).get("repostsCount");
+
+        // Then
+        assertThat(reposts).isEqualTo(42);
+        verify(postRepository).incrementRepostCount(eq(postId), any(Instant.class));
+        verifyNoMoreInteractions(postRepository);
+    }
+
+    @Test
+    void sharePost_ReportsCountReturnedByUpdate() {
+        // Given
+        when(postRepository.incrementShareCount(eq(postId), any(Instant.class))).thenReturn(Optional.of(7));
+
+        // When
+        Object shares = postService.sharePost(postId).get("sharesCount");
+
+        // Then
+        assertThat(shares).isEqualTo(7);
+        verify(postRepository).incrementShareCount(eq(postId), any(Instant.class));
+        verifyNoMoreInteractions(postRepository);
+    }
+
+    @Test
+    void concurrentLikesRepostsAndShares_WriteBehind_LoseNoIncrements() throws Exception {
+        // Given
+        WriteBehindPostCounterStore counterStore = new WriteBehindPostCounterStore(postRepository,
+                postLikeRepository, jdbcTemplate, transactionManager, new SimpleMeterRegistry(), 4);
+        PostServiceImpl writeBehindService = new PostServiceImpl(postRepository, null, currentUserProvider,
+                counterStore, null, null, null, messagingTemplate, null, null, eventPublisher);
+        when(postRepository.findCountsById(postId)).thenReturn(Optional.of(new PostCounts() {
+            @Override public Integer getLikeCount() { return 0; }
+            @Override public Integer getRepostCount() { return 0; }
+            @Override public Integer getShareCount() { return 0; }
+        }));
+        when(postLikeRepository.insertLikeRow(any(UUID.class), eq(postId), any(Instant.class)))
+                .thenAnswer(invocation -> Optional.of(UUID.randomUUID()));
+        long[] written = new long[PostCounter.values().length];
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            synchronized (written) {
+                for (Object[] row : rows) {
+                    for (int i = 0; i < written.length; i++) {
+                        written[i] += (Long) row[i];
+                    }
+                }
+            }
+            return new int[rows.size()];
+        });
+
+        int threads = 8;
+        int interactionsPerThread = 3_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicBoolean interacting = new AtomicBoolean(true);
+
+        // When - every thread likes (as a new user), reposts and shares in turn while a flusher runs
+        Future<?> flusher = executor.submit(() -> {
+            while (interacting.get()) {
+                counterStore.flush();
+            }
+            return null;
+        });
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < interactionsPerThread; i++) {
+                    switch (i % 3) {
+                        case 0 -> writeBehindService.likePost(postId);
+                        case 1 -> writeBehindService.repostPost(postId);
+                        default -> writeBehindService.sharePost(postId);
+                    }
+                }
+                done.countDown();
+                return null;
+            });
+        }
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        interacting.set(false);
+        flusher.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        counterStore.flush();
+
+        // Then
+        long each = (long) threads * interactionsPerThread / 3;
+        assertThat(written).containsExactly(each, each, each);
+    }
+}
@@ -1,39 +1,61 @@
 package com.app.post.service;
 
+import com.app.auth.security.CurrentUserProvider;
+import com.app.common.exception.BadRequestException;
 import com.app.common.exception.NotFoundException;
+import com.app.common.exception.UnauthorizedException;
+import com.app.common.pagination.Cursor;
+import com.app.common.pagination.CursorPage;
+import com.app.common.pagination.TotalMode;
 import com.app.media.repo.MediaRepository;
 import com.app.media.service.MediaService;
 import com.app.media.entity.Media;
 import com.app.platform.entity.Platform;
 import com.app.platform.repo.PlatformRepository;
+import com.app.post.counter.LikeToggle;
+import com.app.post.counter.PostCounter;
+import com.app.post.counter.PostCounterStore;
 import com.app.post.dto.PostCreateRequest;
 import com.app.post.dto.PostResponse;
 import com.app.post.entity.Post;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.event.PostInteractionEvent;
 import com.app.post.mapper.PostMapper;
 import com.app.post.repo.PostRepository;
 import com.app.post.repo.PostLikeRepository;
+import com.app.post.search.PostSearchEngine;
+import com.app.post.search.SearchFilters;
+import com.app.post.search.SearchResultCache;
 import com.app.user.entity.User;
-import com.app.user.repo.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -53,7 +75,10 @@ class PostServiceImplTest {
     private PostLikeRepository postLikeRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private CurrentUserProvider currentUserProvider;
+
+    @Mock
+    private PostCounterStore postCounterStore;
 
     @Mock
     private PlatformRepository platformRepository;
@@ -70,6 +95,16 @@ class PostServiceImplTest {
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
+    @Mock
+    private PostSearchEngine postSearchEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Caching disabled: every search reaches the engine
+    @Spy
+    private SearchResultCache searchResultCache = new SearchResultCache(new SimpleMeterRegistry(), 0, 0);
+
     @InjectMocks
     private PostServiceImpl postService;
 
@@ -139,14 +174,14 @@ class PostServiceImplTest {
                 .isShared(false)
                 .build();
         
-        // Default mock for like existence check
-        lenient().when(postLikeRepository.existsByUserIdAndPostId(any(), any())).thenReturn(false);
+        // Default mock for the page-level like lookup
+        lenient().when(postLikeRepository.findLikedPostIdsByUserIdAndPostIdIn(any(), any())).thenReturn(Set.of());
     }
 
     @Test
     void createPost_ValidRequest_ReturnsPostResponse() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(platformRepository.findById(testPlatform.getId())).thenReturn(Optional.of(testPlatform));
         when(postRepository.save(any(Post.class))).thenReturn(testPost);
         when(postMapper.toDto(testPost)).thenReturn(postResponse);
@@ -164,11 +199,46 @@ class PostServiceImplTest {
         verify(messagingTemplate).convertAndSend(eq("/topic/posts"), any(Map.class));
     }
 
+    @Test
+    void createPost_PublishesPostCreatedEvent() {
+        // Given
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
+        when(platformRepository.findById(testPlatform.getId())).thenReturn(Optional.of(testPlatform));
+        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+        ArgumentCaptor<PostCreatedEvent> event = ArgumentCaptor.forClass(PostCreatedEvent.class);
+
+        // When
+        postService.createPost(postCreateRequest);
+
+        // Then
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getPost()).isSameAs(postResponse);
+    }
+
+    @Test
+    void createPost_StoresCurrencyNormalized() {
+        // Given
+        postCreateRequest.setCurrency(" usd ");
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
+        when(platformRepository.findById(testPlatform.getId())).thenReturn(Optional.of(testPlatform));
+        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+        ArgumentCaptor<Post> saved = ArgumentCaptor.forClass(Post.class);
+
+        // When
+        postService.createPost(postCreateRequest);
+
+        // Then
+        verify(postRepository).save(saved.capture());
+        assertThat(saved.getValue().getCurrency()).isEqualTo("USD");
+    }
+
     @Test
     void createPost_WithoutPlatform_ReturnsPostResponse() {
         // Given
         postCreateRequest.setPlatformId(null);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(postRepository.save(any(Post.class))).thenReturn(testPost);
         when(postMapper.toDto(testPost)).thenReturn(postResponse);
 
@@ -189,7 +259,7 @@ class PostServiceImplTest {
         UUID nonExistentPlatformId = UUID.randomUUID();
         postCreateRequest.setPlatformId(nonExistentPlatformId);
         
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(platformRepository.findById(nonExistentPlatformId)).thenReturn(Optional.empty());
 
         // When & Then
@@ -199,21 +269,21 @@ class PostServiceImplTest {
     }
 
     @Test
-    void createPost_NoUsersInDB_ThrowsNotFoundException() {
+    void createPost_Unauthenticated_ThrowsUnauthorizedException() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList());
+        when(currentUserProvider.getCurrentUser()).thenThrow(new UnauthorizedException("Authentication required"));
 
         // When & Then
         assertThatThrownBy(() -> postService.createPost(postCreateRequest))
-                .isInstanceOf(NotFoundException.class)
-                .hasMessage("No users in DB");
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("Authentication required");
     }
 
     @Test
     void createPost_SetsCorrectDefaults() {
         // Given
         postCreateRequest.setVisibility(null); // Test default visibility
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(platformRepository.findById(testPlatform.getId())).thenReturn(Optional.of(testPlatform));
         when(postMapper.toDto(any(Post.class))).thenReturn(postResponse);
 
@@ -237,7 +307,7 @@ class PostServiceImplTest {
     @Test
     void getPostById_ValidPostId_ReturnsPost() {
         // Given
-        when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
+        when(postRepository.findDetailedById(testPost.getId())).thenReturn(Optional.of(testPost));
         when(postMapper.toDto(testPost)).thenReturn(postResponse);
 
         // When
@@ -253,7 +323,7 @@ class PostServiceImplTest {
     void getPostById_PostNotFound_ThrowsNotFoundException() {
         // Given
         UUID nonExistentPostId = UUID.randomUUID();
-        when(postRepository.findById(nonExistentPostId)).thenReturn(Optional.empty());
+        when(postRepository.findDetailedById(nonExistentPostId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> postService.getPostById(nonExistentPostId))
@@ -289,7 +359,7 @@ class PostServiceImplTest {
         when(postMapper.toDto(testPost)).thenReturn(postResponse);
 
         // When
-        Page<PostResponse> result = postService.getAllPosts(0, 10);
+        Slice<PostResponse> result = postService.getAllPosts(0, 10, TotalMode.EXACT);
 
         // Then
         assertThat(result).isNotNull();
@@ -297,13 +367,48 @@ class PostServiceImplTest {
         assertThat(result.getContent().get(0).getContent()).isEqualTo("I just bought this amazing product!");
     }
 
+    @Test
+    void getAllPosts_NoTotal_SkipsCount() {
+        // Given
+        PageRequest expectedPageRequest = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+        when(postRepository.findSliceBy(expectedPageRequest))
+                .thenReturn(new SliceImpl<>(List.of(testPost), expectedPageRequest, true));
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+
+        // When
+        Slice<PostResponse> result = postService.getAllPosts(1, 10, TotalMode.NONE);
+
+        // Then
+        assertThat(result).isNotInstanceOf(Page.class);
+        assertThat(result.hasNext()).isTrue();
+        verify(postRepository, never()).count();
+        verify(postRepository, never()).estimateCount(any());
+    }
+
+    @Test
+    void getAllPosts_EstimatedTotal_UsesPlannerEstimate() {
+        // Given
+        PageRequest expectedPageRequest = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+        when(postRepository.findSliceBy(expectedPageRequest))
+                .thenReturn(new SliceImpl<>(List.of(testPost), expectedPageRequest, true));
+        when(postRepository.estimateCount(SearchFilters.none())).thenReturn(5000L);
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+
+        // When
+        Slice<PostResponse> result = postService.getAllPosts(0, 10, TotalMode.ESTIMATED);
+
+        // Then
+        assertThat(result).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(5000));
+        verify(postRepository, never()).count();
+        verify(postRepository, never()).findAll(any(Pageable.class));
+    }
+
     @Test
     void likePost_ValidPost_ReturnsLikeResult() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
-        when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
-        when(postLikeRepository.findByUserIdAndPostId(testUser.getId(), testPost.getId())).thenReturn(Optional.empty());
-        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
+        when(postCounterStore.toggleLike(eq(testUser.getId()), eq(testPost.getId()), any(Instant.class)))
+                .thenReturn(Optional.of(new LikeToggle(true, 1)));
 
         // When
         Map<String, Object> result = postService.likePost(testPost.getId());
@@ -312,33 +417,58 @@ class PostServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.get("liked")).isEqualTo(true);
         assertThat(result.get("likesCount")).isEqualTo(1);
-        assertThat(testPost.getLikeCount()).isEqualTo(1);
+
+        // Verify the like is written through the counter store rather than by loading and saving entities
+        verify(postRepository, never()).findById(any());
+        verify(postRepository, never()).save(any(Post.class));
+        verify(postLikeRepository, never()).save(any());
+
+        // Verify the like is published for trending
+        ArgumentCaptor<PostInteractionEvent> event = ArgumentCaptor.forClass(PostInteractionEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getPostId()).isEqualTo(testPost.getId());
+        assertThat(event.getValue().getUserId()).isEqualTo(testUser.getId());
+        assertThat(event.getValue().getType()).isEqualTo(PostInteractionEvent.Type.LIKED);
 
         // Verify WebSocket notification is sent
         verify(messagingTemplate).convertAndSend(eq("/topic/posts"), any(Map.class));
-        
-        // Verify PostLike is saved
-        verify(postLikeRepository).save(any());
+    }
+
+    @Test
+    void likePost_Unlike_PublishesNoInteraction() {
+        // Given
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
+        when(postCounterStore.toggleLike(eq(testUser.getId()), eq(testPost.getId()), any(Instant.class)))
+                .thenReturn(Optional.of(new LikeToggle(false, 0)));
+
+        // When
+        postService.likePost(testPost.getId());
+
+        // Then
+        verify(eventPublisher, never()).publishEvent(any(PostInteractionEvent.class));
     }
 
     @Test
     void likePost_PostNotFound_ThrowsNotFoundException() {
         // Given
         UUID nonExistentPostId = UUID.randomUUID();
-        when(postRepository.findById(nonExistentPostId)).thenReturn(Optional.empty());
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
+        when(postCounterStore.toggleLike(eq(testUser.getId()), eq(nonExistentPostId), any(Instant.class)))
+                .thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> postService.likePost(nonExistentPostId))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessage("Post not found");
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
     }
 
     @Test
     void repostPost_ValidPost_ReturnsRepostResult() {
         // Given
-        when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
-        when(postRepository.save(any(Post.class))).thenReturn(testPost);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(postCounterStore.increment(eq(testPost.getId()), eq(PostCounter.REPOSTS), any(Instant.class)))
+                .thenReturn(Optional.of(1));
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
 
         // When
         Map<String, Object> result = postService.repostPost(testPost.getId());
@@ -347,7 +477,8 @@ class PostServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.get("reposted")).isEqualTo(true);
         assertThat(result.get("repostsCount")).isEqualTo(1);
-        assertThat(testPost.getRepostCount()).isEqualTo(1);
+        verify(postRepository, never()).findById(any());
+        verify(postRepository, never()).save(any(Post.class));
 
         // Verify WebSocket notification is sent
         verify(messagingTemplate).convertAndSend(eq("/topic/posts"), any(Map.class));
@@ -357,7 +488,8 @@ class PostServiceImplTest {
     void repostPost_PostNotFound_ThrowsNotFoundException() {
         // Given
         UUID nonExistentPostId = UUID.randomUUID();
-        when(postRepository.findById(nonExistentPostId)).thenReturn(Optional.empty());
+        when(postCounterStore.increment(eq(nonExistentPostId), eq(PostCounter.REPOSTS), any(Instant.class)))
+                .thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> postService.repostPost(nonExistentPostId))
@@ -365,12 +497,23 @@ class PostServiceImplTest {
                 .hasMessage("Post not found");
     }
 
+    @Test
+    void repostPost_Unauthenticated_DoesNotCount() {
+        // Given
+        when(currentUserProvider.getCurrentUserId()).thenThrow(new UnauthorizedException("Authentication required"));
+
+        // When & Then
+        assertThatThrownBy(() -> postService.repostPost(testPost.getId()))
+                .isInstanceOf(UnauthorizedException.class);
+        verifyNoInteractions(postCounterStore);
+    }
+
     @Test
     void sharePost_ValidPost_ReturnsShareResult() {
         // Given
-        when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
-        when(postRepository.save(any(Post.class))).thenReturn(testPost);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(postCounterStore.increment(eq(testPost.getId()), eq(PostCounter.SHARES), any(Instant.class)))
+                .thenReturn(Optional.of(1));
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
 
         // When
         Map<String, Object> result = postService.sharePost(testPost.getId());
@@ -379,7 +522,9 @@ class PostServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.get("shared")).isEqualTo(true);
         assertThat(result.get("sharesCount")).isEqualTo(1);
-        assertThat(testPost.getShareCount()).isEqualTo(1);
+        verify(postRepository, never()).findById(any());
+        verify(postRepository, never()).save(any(Post.class));
+        verify(eventPublisher).publishEvent(any(PostInteractionEvent.class));
 
         // Verify WebSocket notification is sent
         verify(messagingTemplate).convertAndSend(eq("/topic/posts"), any(Map.class));
@@ -389,7 +534,8 @@ class PostServiceImplTest {
     void sharePost_PostNotFound_ThrowsNotFoundException() {
         // Given
         UUID nonExistentPostId = UUID.randomUUID();
-        when(postRepository.findById(nonExistentPostId)).thenReturn(Optional.empty());
+        when(postCounterStore.increment(eq(nonExistentPostId), eq(PostCounter.SHARES), any(Instant.class)))
+                .thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> postService.sharePost(nonExistentPostId))
@@ -397,26 +543,75 @@ class PostServiceImplTest {
                 .hasMessage("Post not found");
     }
 
+    @Test
+    void sharePost_Unauthenticated_DoesNotCount() {
+        // Given
+        when(currentUserProvider.getCurrentUserId()).thenThrow(new UnauthorizedException("Authentication required"));
+
+        // When & Then
+        assertThatThrownBy(() -> postService.sharePost(testPost.getId()))
+                .isInstanceOf(UnauthorizedException.class);
+        verifyNoInteractions(postCounterStore);
+    }
+
     @Test
     void searchPosts_ValidKeyword_ReturnsSearchResults() {
         // Given
         String keyword = "product";
-        List<Post> searchResults = Arrays.asList(testPost);
-        Page<Post> searchPage = new PageImpl<>(searchResults);
-        PageRequest expectedPageRequest = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+        PageRequest expectedPageRequest = PageRequest.of(0, 10);
         
-        when(postRepository.searchByKeyword(keyword, expectedPageRequest)).thenReturn(searchPage);
+        when(postSearchEngine.searchIds("product", SearchFilters.none(), expectedPageRequest, TotalMode.EXACT))
+                .thenReturn(new PageImpl<>(List.of(testPost.getId()), expectedPageRequest, 1));
+        when(postRepository.findByIdIn(List.of(testPost.getId()))).thenReturn(List.of(testPost));
         when(postMapper.toDto(testPost)).thenReturn(postResponse);
 
         // When
-        Page<PostResponse> result = postService.searchPosts(keyword, 0, 10);
+        Slice<PostResponse> result = postService.searchPosts(keyword, SearchFilters.none(), 0, 10, TotalMode.EXACT);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
+        assertThat(result).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(1));
         assertThat(result.getContent().get(0).getContent()).isEqualTo("I just bought this amazing product!");
     }
 
+    @Test
+    void searchPosts_KeepsRankOrderOfIds() {
+        // Given
+        Post otherPost = Post.builder().id(UUID.randomUUID()).build();
+        PostResponse otherResponse = PostResponse.builder().id(otherPost.getId()).build();
+        PageRequest expectedPageRequest = PageRequest.of(0, 10);
+
+        when(postSearchEngine.searchIds("product", SearchFilters.none(), expectedPageRequest, TotalMode.EXACT))
+                .thenReturn(new PageImpl<>(List.of(otherPost.getId(), testPost.getId()), expectedPageRequest, 2));
+        // The entity load does not preserve order
+        when(postRepository.findByIdIn(List.of(otherPost.getId(), testPost.getId())))
+                .thenReturn(List.of(testPost, otherPost));
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+        when(postMapper.toDto(otherPost)).thenReturn(otherResponse);
+
+        // When
+        Slice<PostResponse> result = postService.searchPosts("product", SearchFilters.none(), 0, 10, TotalMode.EXACT);
+
+        // Then
+        assertThat(result.getContent()).containsExactly(otherResponse, postResponse);
+    }
+
+    @Test
+    void searchPosts_NoMatches_SkipsPostLoad() {
+        // Given
+        PageRequest expectedPageRequest = PageRequest.of(0, 10);
+        when(postSearchEngine.searchIds("?!", SearchFilters.none(), expectedPageRequest, TotalMode.EXACT)).thenReturn(Page.empty(expectedPageRequest));
+
+        // When
+        Slice<PostResponse> result = postService.searchPosts("?!", SearchFilters.none(), 0, 10, TotalMode.EXACT);
+
+        // Then
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isZero());
+        verify(postRepository, never()).findByIdIn(any());
+    }
+
     @Test
     void searchPosts_NullKeyword_ReturnsAllPosts() {
         // Given
@@ -428,13 +623,13 @@ class PostServiceImplTest {
         when(postMapper.toDto(testPost)).thenReturn(postResponse);
 
         // When
-        Page<PostResponse> result = postService.searchPosts(null, 0, 10);
+        Slice<PostResponse> result = postService.searchPosts(null, SearchFilters.none(), 0, 10, TotalMode.EXACT);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         verify(postRepository).findAll(expectedPageRequest);
-        verify(postRepository, never()).searchByKeyword(any(), any());
+        verify(postSearchEngine, never()).searchIds(any(), any(), any(), any());
     }
 
     @Test
@@ -448,33 +643,114 @@ class PostServiceImplTest {
         when(postMapper.toDto(testPost)).thenReturn(postResponse);
 
         // When
-        Page<PostResponse> result = postService.searchPosts("  ", 0, 10);
+        Slice<PostResponse> result = postService.searchPosts("  ", SearchFilters.none(), 0, 10, TotalMode.EXACT);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         verify(postRepository).findAll(expectedPageRequest);
-        verify(postRepository, never()).searchByKeyword(any(), any());
+        verify(postSearchEngine, never()).searchIds(any(), any(), any(), any());
+    }
+
+    @Test
+    void searchPosts_FiltersWithoutKeyword_SearchesFilters() {
+        // Given
+        SearchFilters filters = SearchFilters.builder().platformId(UUID.randomUUID()).build();
+        PageRequest expectedPageRequest = PageRequest.of(0, 10);
+        when(postSearchEngine.searchIds(null, filters, expectedPageRequest, TotalMode.EXACT))
+                .thenReturn(new PageImpl<>(List.of(testPost.getId()), expectedPageRequest, 1));
+        when(postRepository.findByIdIn(List.of(testPost.getId()))).thenReturn(List.of(testPost));
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+
+        // When
+        Slice<PostResponse> result = postService.searchPosts(null, filters, 0, 10, TotalMode.EXACT);
+
+        // Then
+        assertThat(result.getContent()).containsExactly(postResponse);
+        verify(postRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void searchPosts_FiltersWithoutKeyword_CachedWithoutKeyword() {
+        // Given the cache enabled
+        ReflectionTestUtils.setField(postService, "searchResultCache",
+                new SearchResultCache(new SimpleMeterRegistry(), 100, 60_000));
+        SearchFilters filters = SearchFilters.builder().platformId(UUID.randomUUID()).build();
+        PageRequest expectedPageRequest = PageRequest.of(0, 10);
+        when(postSearchEngine.searchIds(null, filters, expectedPageRequest, TotalMode.EXACT))
+                .thenReturn(new PageImpl<>(List.of(testPost.getId()), expectedPageRequest, 1));
+        when(postRepository.findByIdIn(List.of(testPost.getId()))).thenReturn(List.of(testPost));
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+
+        // When
+        postService.searchPosts(null, filters, 0, 10, TotalMode.EXACT);
+        Slice<PostResponse> result = postService.searchPosts(null, filters, 0, 10, TotalMode.EXACT);
+
+        // Then the second search is served from the cache
+        assertThat(result.getContent()).containsExactly(postResponse);
+        verify(postSearchEngine, times(1)).searchIds(null, filters, expectedPageRequest, TotalMode.EXACT);
+    }
+
+    @Test
+    void searchPosts_InvertedPriceRange_ThrowsBadRequestException() {
+        // Given
+        SearchFilters filters = SearchFilters.builder()
+                .minPrice(new BigDecimal("100"))
+                .maxPrice(new BigDecimal("10"))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> postService.searchPosts("phone", filters, 0, 10, TotalMode.EXACT))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("minPrice must not be greater than maxPrice");
+        verify(postSearchEngine, never()).searchIds(any(), any(), any(), any());
+    }
+
+    @Test
+    void getSearchFacets_InvertedDateRange_ThrowsBadRequestException() {
+        // Given
+        SearchFilters filters = SearchFilters.builder()
+                .purchasedFrom(LocalDate.of(2024, 2, 1))
+                .purchasedTo(LocalDate.of(2024, 1, 1))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> postService.getSearchFacets(null, filters))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("purchasedFrom must not be after purchasedTo");
+        verify(postSearchEngine, never()).facets(any(), any());
     }
 
     @Test
     void likePost_UpdatesTimestamp() {
         // Given
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
-        when(postRepository.findById(testPost.getId())).thenReturn(Optional.of(testPost));
-        when(postLikeRepository.findByUserIdAndPostId(testUser.getId(), testPost.getId())).thenReturn(Optional.empty());
+        when(currentUserProvider.getCurrentUserId()).thenReturn(testUser.getId());
 
-        ArgumentCaptor<Post> postCaptor = ArgumentCaptor.forClass(Post.class);
-        when(postRepository.save(postCaptor.capture())).thenReturn(testPost);
+        ArgumentCaptor<Instant> updatedAtCaptor = ArgumentCaptor.forClass(Instant.class);
+        when(postCounterStore.toggleLike(eq(testUser.getId()), eq(testPost.getId()), updatedAtCaptor.capture()))
+                .thenReturn(Optional.of(new LikeToggle(true, 1)));
 
         // When
         postService.likePost(testPost.getId());
 
         // Then
-        Post savedPost = postCaptor.getValue();
-        assertThat(savedPost.getUpdatedAt()).isNotNull();
         // Verify the timestamp was updated (it should be set to current time)
-        assertThat(savedPost.getUpdatedAt()).isAfterOrEqualTo(Instant.now().minusSeconds(1));
+        assertThat(updatedAtCaptor.getValue()).isAfterOrEqualTo(Instant.now().minusSeconds(1));
+    }
+
+    @Test
+    void getAllPosts_AppliesPendingCounters() {
+        // Given
+        Page<Post> postsPage = new PageImpl<>(List.of(testPost));
+        when(postRepository.findAll(any(PageRequest.class))).thenReturn(postsPage);
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.empty());
+
+        // When
+        postService.getAllPosts(0, 10, TotalMode.EXACT);
+
+        // Then
+        verify(postCounterStore).applyPending(List.of(postResponse));
     }
 
     @Test
@@ -488,7 +764,7 @@ class PostServiceImplTest {
             Media.builder().id(mediaIds.get(1)).build()
         );
         
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser));
+        when(currentUserProvider.getCurrentUser()).thenReturn(testUser);
         when(platformRepository.findById(testPlatform.getId())).thenReturn(Optional.of(testPlatform));
         when(mediaService.getValidatedMediaByIds(mediaIds)).thenReturn(mockMedia);
         when(postRepository.save(any(Post.class))).thenReturn(testPost);
@@ -503,4 +779,134 @@ class PostServiceImplTest {
         // Verify the post was saved twice (initial save + save with media)
         verify(postRepository, times(2)).save(any(Post.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllPosts_AuthenticatedUser_LooksUpLikeStatusOnceForAnyPageSize() {
+        // Given - this checks repository calls; SQL issued by lazy loading is not visible here
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
+        when(postMapper.toDto(any(Post.class))).thenAnswer(invocation -> PostResponse.builder()
+                .id(invocation.<Post>getArgument(0).getId())
+                .build());
+
+        for (int size : new int[]{1, 10, 50}) {
+            List<Post> posts = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                posts.add(Post.builder().id(UUID.randomUUID()).build());
+            }
+            PageRequest pageRequest = PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+            when(postRepository.findAll(pageRequest)).thenReturn(new PageImpl<>(posts));
+            clearInvocations(postLikeRepository);
+
+            // When
+            Slice<PostResponse> result = postService.getAllPosts(0, size, TotalMode.EXACT);
+
+            // Then
+            assertThat(result.getContent()).hasSize(size);
+            verify(postLikeRepository, times(1)).findLikedPostIdsByUserIdAndPostIdIn(eq(testUser.getId()), any());
+            verify(postLikeRepository, never()).existsByUserIdAndPostId(any(), any());
+        }
+    }
+
+    @Test
+    void searchPosts_AuthenticatedUser_SetsLikeStatusFromBatchLookup() {
+        // Given
+        Post otherPost = Post.builder().id(UUID.randomUUID()).build();
+        PostResponse otherResponse = PostResponse.builder().id(otherPost.getId()).build();
+        PageRequest expectedPageRequest = PageRequest.of(0, 10);
+        List<UUID> ids = Arrays.asList(testPost.getId(), otherPost.getId());
+
+        when(currentUserProvider.findCurrentUserId()).thenReturn(Optional.of(testUser.getId()));
+        when(postSearchEngine.searchIds("product", SearchFilters.none(), expectedPageRequest, TotalMode.EXACT))
+                .thenReturn(new PageImpl<>(ids, expectedPageRequest, 2));
+        when(postRepository.findByIdIn(ids)).thenReturn(Arrays.asList(testPost, otherPost));
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+        when(postMapper.toDto(otherPost)).thenReturn(otherResponse);
+        when(postLikeRepository.findLikedPostIdsByUserIdAndPostIdIn(testUser.getId(), ids))
+                .thenReturn(Set.of(testPost.getId()));
+
+        // When
+        Slice<PostResponse> result = postService.searchPosts("product", SearchFilters.none(), 0, 10, TotalMode.EXACT);
+
+        // Then
+        assertThat(result.getContent().get(0).getIsLiked()).isTrue();
+        assertThat(result.getContent().get(1).getIsLiked()).isFalse();
+    }
+
+    @Test
+    void getUserPosts_AnonymousUser_SkipsLikeLookup() {
+        // Given
+        when(postRepository.findByAuthorId(testUser.getId(), PageRequest.of(0, 10)))
+                .thenReturn(new PageImpl<>(Arrays.asList(testPost)));
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+
+        // When
+        List<PostResponse> result = postService.getUserPosts(testUser.getId(), 0, 10);
+
+        // Then
+        assertThat(result.get(0).getIsLiked()).isFalse();
+        verifyNoInteractions(postLikeRepository);
+    }
+
+    @Test
+    void getFeed_FirstPage_ReturnsNextCursorFromLastPost() {
+        // Given
+        Post olderPost = Post.builder().id(UUID.randomUUID()).createdAt(Instant.now().minusSeconds(60)).build();
+        Post oldestPost = Post.builder().id(UUID.randomUUID()).createdAt(Instant.now().minusSeconds(120)).build();
+        when(postRepository.findFeed(PageRequest.of(0, 3))).thenReturn(Arrays.asList(testPost, olderPost, oldestPost));
+        when(postMapper.toDto(any(Post.class))).thenAnswer(invocation -> PostResponse.builder()
+                .id(invocation.<Post>getArgument(0).getId())
+                .build());
+
+        // When
+        CursorPage<PostResponse> result = postService.getFeed(null, 2);
+
+        // Then
+        assertThat(result.getItems()).extracting(PostResponse::getId)
+                .containsExactly(testPost.getId(), olderPost.getId());
+        assertThat(result.isHasNext()).isTrue();
+        Cursor next = Cursor.decode(result.getNextCursor());
+        assertThat(next.getId()).isEqualTo(olderPost.getId());
+        assertThat(next.getCreatedAt()).isEqualTo(olderPost.getCreatedAt());
+        verify(postRepository, never()).count();
+        verify(postRepository, never()).findAll(any(PageRequest.class));
+    }
+
+    @Test
+    void getFeed_WithCursor_QueriesAfterPosition() {
+        // Given
+        Instant createdAt = Instant.parse("2024-05-01T12:00:00Z");
+        UUID lastId = UUID.randomUUID();
+        String cursor = new Cursor(createdAt, lastId).encode();
+        when(postRepository.findFeedAfter(createdAt, lastId, PageRequest.of(0, 11))).thenReturn(Arrays.asList(testPost));
+        when(postMapper.toDto(testPost)).thenReturn(postResponse);
+
+        // When
+        CursorPage<PostResponse> result = postService.getFeed(cursor, 10);
+
+        // Then
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getFeed_LimitAboveMaximum_IsCapped() {
+        // Given
+        when(postRepository.findFeed(PageRequest.of(0, 101))).thenReturn(List.of());
+
+        // When
+        CursorPage<PostResponse> result = postService.getFeed("", 5000);
+
+        // Then
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getSize()).isEqualTo(100);
+    }
+
+    @Test
+    void getFeed_InvalidCursor_ThrowsBadRequestException() {
+        assertThatThrownBy(() -> postService.getFeed("%%%", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
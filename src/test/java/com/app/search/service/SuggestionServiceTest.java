@@ -0,0 +1,143 @@
+package com.app.search.service;
+
+import com.app.platform.entity.Platform;
+import com.app.platform.repo.PlatformRepository;
+import com.app.post.dto.PostResponse;
+import com.app.post.entity.Post;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.repo.PostRepository;
+import com.app.search.dto.Suggestion;
+import com.app.user.dto.UserSummary;
+import com.app.user.entity.User;
+import com.app.user.event.UserCreatedEvent;
+import com.app.user.repo.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionServiceTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformRepository platformRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SuggestionService service;
+
+    private User john;
+    private Platform amazon;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new SuggestionService(postRepository, userRepository, platformRepository, meterRegistry, 10, 2);
+        john = User.builder().id(UUID.randomUUID()).username("johndoe").displayName("John Doe").followersCount(3).build();
+        amazon = Platform.builder().id(UUID.randomUUID()).name("Amazon").build();
+    }
+
+    @Test
+    void rebuild_RanksByPopularityAcrossSources() {
+        // Given
+        Post first = post("The headphones are great", T0);
+        Post second = post("Headphones and a headset", T0.plusSeconds(1));
+        Post third = post("New headset", T0.plusSeconds(2));
+        when(postRepository.findChunkAfter(eq(Instant.EPOCH), any(), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(first, second));
+        when(postRepository.findChunkAfter(second.getCreatedAt(), second.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(third));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(any(), eq(PageRequest.of(0, 2)))).thenReturn(List.of(john));
+        when(platformRepository.findAll()).thenReturn(List.of(amazon));
+
+        // When
+        service.rebuild();
+
+        // Then
+        assertThat(service.suggest("hea", 10)).extracting(Suggestion::getText, Suggestion::getPopularity)
+                .containsExactly(tuple("headphones", 2L),
+                        tuple("headset", 2L));
+        // Followers plus posts
+        assertThat(service.suggest("doe", 10)).singleElement()
+                .satisfies(s -> assertThat(s.getPopularity()).isEqualTo(6));
+        assertThat(service.suggest("ama", 10)).singleElement()
+                .satisfies(s -> assertThat(s.getPopularity()).isEqualTo(3));
+        // Stop words are not suggested
+        assertThat(service.suggest("the", 10)).isEmpty();
+        assertThat(meterRegistry.get("search.suggest.entries").gauge().value()).isEqualTo(6);
+    }
+
+    @Test
+    void onPostCreated_AddsTermsAuthorAndPlatform() {
+        // Given
+        PostResponse post = PostResponse.builder()
+                .id(UUID.randomUUID())
+                .content("Quadcopter drone")
+                .user(UserSummary.builder().id(john.getId()).username("johndoe").name("John Doe").build())
+                .platform(PostResponse.Platform.builder().id(amazon.getId()).name("Amazon").build())
+                .timestamp(T0)
+                .build();
+
+        // When
+        service.onPostCreated(new PostCreatedEvent(post));
+
+        // Then
+        assertThat(service.suggest("quad", 10)).extracting(Suggestion::getType).containsExactly("term");
+        assertThat(service.suggest("john", 10)).extracting(Suggestion::getType).containsExactly("user");
+        assertThat(service.suggest("amaz", 10)).extracting(Suggestion::getType).containsExactly("platform");
+    }
+
+    @Test
+    void onUserCreated_MakesNewUserSuggestable() {
+        // When
+        service.onUserCreated(new UserCreatedEvent(
+                UserSummary.builder().id(UUID.randomUUID()).username("janesmith").name("Jane Smith").build()));
+
+        // Then
+        assertThat(service.suggest("smi", 10)).extracting(Suggestion::getText).containsExactly("janesmith");
+        assertThat(meterRegistry.get("search.suggest").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void suggest_ClampsLimit() {
+        // Given
+        for (int i = 0; i < 15; i++) {
+            service.onUserCreated(new UserCreatedEvent(
+                    UserSummary.builder().id(UUID.randomUUID()).username("user" + i).build()));
+        }
+
+        // When / Then
+        assertThat(service.suggest("user", 100)).hasSize(10);
+        assertThat(service.suggest("user", 0)).hasSize(1);
+    }
+
+    private Post post(String text, Instant createdAt) {
+        return Post.builder()
+                .id(UUID.randomUUID())
+                .text(text)
+                .author(john)
+                .platform(amazon)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.app.search.service;
+
+import com.app.search.dto.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    private final SuggestionTrie trie = new SuggestionTrie(3);
+
+    @Test
+    void suggest_MostPopularFirst() {
+        // Given
+        trie.add("term", "headphones", null, null, 5);
+        trie.add("term", "headset", null, null, 9);
+        trie.add("term", "heater", null, null, 1);
+
+        // When
+        List<Suggestion> result = trie.suggest("hea", 10);
+
+        // Then
+        assertThat(texts(result)).containsExactly("headset", "headphones", "heater");
+        assertThat(result.get(0).getPopularity()).isEqualTo(9);
+    }
+
+    @Test
+    void suggest_KeepsOnlyCapacityPerPrefix() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            trie.add("term", "phone" + i, null, null, i);
+        }
+
+        // When
+        List<Suggestion> result = trie.suggest("ph", 10);
+
+        // Then
+        assertThat(texts(result)).containsExactly("phone5", "phone4", "phone3");
+    }
+
+    @Test
+    void add_GrowingPopularity_PromotesEntry() {
+        // Given
+        for (int i = 1; i <= 4; i++) {
+            trie.add("term", "phone" + i, null, null, i);
+        }
+
+        // When
+        trie.add("term", "phone1", null, null, 10);
+
+        // Then
+        assertThat(texts(trie.suggest("phone", 10))).containsExactly("phone1", "phone4", "phone3");
+        assertThat(trie.size()).isEqualTo(4);
+    }
+
+    @Test
+    void suggest_MatchesLabelAndEveryWordStart() {
+        // Given
+        UUID id = UUID.randomUUID();
+        trie.add("user", "johndoe", "John Doe", id, 2);
+
+        // When / Then
+        assertThat(trie.suggest("JOHN", 10)).singleElement()
+                .satisfies(s -> {
+                    assertThat(s.getType()).isEqualTo("user");
+                    assertThat(s.getId()).isEqualTo(id);
+                    assertThat(s.getLabel()).isEqualTo("John Doe");
+                });
+        assertThat(texts(trie.suggest("doe", 10))).containsExactly("johndoe");
+        assertThat(texts(trie.suggest("john  d", 10))).containsExactly("johndoe");
+        assertThat(trie.suggest("oe", 10)).isEmpty();
+    }
+
+    @Test
+    void add_SameIdTwice_IsOneEntry() {
+        // Given
+        UUID id = UUID.randomUUID();
+        trie.add("platform", "Amazon", null, id, 1);
+        trie.add("platform", "Amazon", null, id, 1);
+
+        // When
+        List<Suggestion> result = trie.suggest("am", 10);
+
+        // Then
+        assertThat(result).singleElement().satisfies(s -> assertThat(s.getPopularity()).isEqualTo(2));
+    }
+
+    @Test
+    void suggest_UnknownBlankOrOverlongPrefix_ReturnsEmpty() {
+        // Given
+        trie.add("term", "camera", null, null, 1);
+
+        // When / Then
+        assertThat(trie.suggest("x", 10)).isEmpty();
+        assertThat(trie.suggest("  ", 10)).isEmpty();
+        assertThat(trie.suggest(null, 10)).isEmpty();
+        assertThat(trie.suggest("c".repeat(SuggestionTrie.MAX_KEY_LENGTH + 1), 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_RespectsLimit() {
+        // Given
+        trie.add("term", "camera", null, null, 2);
+        trie.add("term", "camper", null, null, 1);
+
+        // When / Then
+        assertThat(texts(trie.suggest("cam", 1))).containsExactly("camera");
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,183 @@
+package com.app.trending.service;
+
+import com.app.common.exception.BadRequestException;
+import com.app.post.dto.PostResponse;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.event.PostInteractionEvent;
+import com.app.trending.entity.ActiveUserSketch;
+import com.app.trending.repo.ActiveUserSketchRepository;
+import com.app.user.dto.UserSummary;
+import com.app.user.event.UserAuthenticatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveUserServiceTest {
+
+    @Mock
+    private ActiveUserSketchRepository sketchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ActiveUserService service;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        service = new ActiveUserService(sketchRepository, transactionManager);
+        today = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    @Test
+    void events_RecordEachUserOncePerDay() {
+        // Given
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        when(sketchRepository.findByDayBetween(any(), any())).thenReturn(List.of());
+
+        // When
+        service.onPostCreated(new PostCreatedEvent(PostResponse.builder()
+                .user(UserSummary.builder().id(alice).build()).build()));
+        service.onPostInteraction(new PostInteractionEvent(UUID.randomUUID(), alice, PostInteractionEvent.Type.LIKED));
+        service.onPostInteraction(new PostInteractionEvent(UUID.randomUUID(), bob, PostInteractionEvent.Type.COMMENTED));
+        service.onUserAuthenticated(new UserAuthenticatedEvent(bob));
+
+        // Then counted from memory before any flush
+        assertThat(service.countActiveUsers(1)).isEqualTo(2);
+    }
+
+    @Test
+    void flush_FirstSketchOfDay_IsInserted() {
+        // Given
+        service.record(UUID.randomUUID());
+        service.record(UUID.randomUUID());
+        when(sketchRepository.insertIfAbsent(eq(today), any(), any(Instant.class))).thenReturn(1);
+        when(sketchRepository.findByDayBetween(any(), eq(today))).thenReturn(List.of());
+
+        // When
+        service.flush();
+
+        // Then
+        ArgumentCaptor<byte[]> sketch = ArgumentCaptor.forClass(byte[].class);
+        verify(sketchRepository).insertIfAbsent(eq(today), sketch.capture(), any(Instant.class));
+        assertThat(HyperLogLog.fromBytes(sketch.getValue()).estimate()).isEqualTo(2);
+        verify(sketchRepository, never()).findForUpdate(any());
+        assertThat(service.getActiveToday()).isEqualTo(2);
+        assertThat(service.getActiveThisWeek()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_StoredSketch_IsMergedBothWays() {
+        // Given another instance stored two users, one of them also active here
+        UUID shared = UUID.randomUUID();
+        HyperLogLog other = new HyperLogLog();
+        other.add(shared);
+        other.add(UUID.randomUUID());
+        ActiveUserSketch row = ActiveUserSketch.builder().day(today).sketch(other.toBytes()).build();
+        service.record(shared);
+        service.record(UUID.randomUUID());
+        when(sketchRepository.insertIfAbsent(eq(today), any(), any(Instant.class))).thenReturn(0);
+        when(sketchRepository.findForUpdate(today)).thenReturn(Optional.of(row));
+        when(sketchRepository.findByDayBetween(any(), eq(today))).thenReturn(List.of(row));
+
+        // When
+        service.flush();
+
+        // Then the row holds the union, and so does memory
+        assertThat(HyperLogLog.fromBytes(row.getSketch()).estimate()).isEqualTo(3);
+        assertThat(row.getUpdatedAt()).isNotNull();
+        assertThat(service.getActiveToday()).isEqualTo(3);
+    }
+
+    @Test
+    void flush_NothingRecorded_StoresNothing() {
+        // Given
+        service.record(UUID.randomUUID());
+        when(sketchRepository.insertIfAbsent(eq(today), any(), any(Instant.class))).thenReturn(1);
+        when(sketchRepository.findByDayBetween(any(), any())).thenReturn(List.of());
+        service.flush();
+
+        // When
+        service.flush();
+
+        // Then
+        verify(sketchRepository, times(1)).insertIfAbsent(any(), any(), any());
+    }
+
+    @Test
+    void flush_OldDays_AreDroppedFromMemory() {
+        // Given
+        service.record(UUID.randomUUID(), today.minusDays(2));
+        when(sketchRepository.insertIfAbsent(eq(today.minusDays(2)), any(), any(Instant.class))).thenReturn(1);
+        when(sketchRepository.findByDayBetween(any(), any())).thenReturn(List.of());
+        service.flush();
+        clearInvocations(sketchRepository);
+
+        // When
+        long lastThreeDays = service.countActiveUsers(3);
+
+        // Then only the stored sketch could still count it
+        assertThat(lastThreeDays).isZero();
+        verify(sketchRepository).findByDayBetween(today.minusDays(2), today);
+    }
+
+    @Test
+    void flush_StoreFails_RetriesNextTime() {
+        // Given
+        service.record(UUID.randomUUID());
+        when(sketchRepository.insertIfAbsent(eq(today), any(), any(Instant.class)))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(1);
+        when(sketchRepository.findByDayBetween(any(), any())).thenReturn(List.of());
+
+        // When
+        service.flush();
+        service.flush();
+
+        // Then
+        verify(sketchRepository, times(2)).insertIfAbsent(eq(today), any(), any(Instant.class));
+    }
+
+    @Test
+    void countActiveUsers_MergesStoredDays() {
+        // Given the same user on two days and another on one
+        UUID alice = UUID.randomUUID();
+        HyperLogLog monday = new HyperLogLog();
+        monday.add(alice);
+        HyperLogLog tuesday = new HyperLogLog();
+        tuesday.add(alice);
+        tuesday.add(UUID.randomUUID());
+        when(sketchRepository.findByDayBetween(today.minusDays(6), today)).thenReturn(List.of(
+                ActiveUserSketch.builder().day(today.minusDays(2)).sketch(monday.toBytes()).build(),
+                ActiveUserSketch.builder().day(today.minusDays(1)).sketch(tuesday.toBytes()).build()));
+
+        // When / Then
+        assertThat(service.countActiveUsers(7)).isEqualTo(2);
+    }
+
+    @Test
+    void countActiveUsers_OutOfRange_ThrowsBadRequest() {
+        assertThatThrownBy(() -> service.countActiveUsers(0)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.countActiveUsers(ActiveUserService.MAX_DAYS + 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
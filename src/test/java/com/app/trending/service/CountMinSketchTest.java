@@ -0,0 +1,94 @@
+package com.app.trending.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class CountMinSketchTest {
+
+    @Test
+    void add_ReturnsRunningEstimate() {
+        // Given
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        UUID key = UUID.randomUUID();
+
+        // When
+        sketch.add(key, 2);
+        double estimate = sketch.add(key, 3);
+
+        // Then
+        assertThat(estimate).isEqualTo(5);
+        assertThat(sketch.estimate(key)).isEqualTo(5);
+        assertThat(sketch.estimate(UUID.randomUUID())).isZero();
+    }
+
+    @Test
+    void estimate_ManyKeysInSmallSketch_NeverBelowTrueCount() {
+        // Given more keys than cells, so collisions are certain
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        Random random = new Random(42);
+        List<UUID> keys = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            UUID key = new UUID(random.nextLong(), random.nextLong());
+            int count = 1 + random.nextInt(10);
+            for (int j = 0; j < count; j++) {
+                sketch.add(key, 1);
+            }
+            keys.add(key);
+            counts.add(count);
+        }
+
+        // Then
+        for (int i = 0; i < keys.size(); i++) {
+            assertThat(sketch.estimate(keys.get(i))).isGreaterThanOrEqualTo(counts.get(i));
+        }
+    }
+
+    @Test
+    void estimate_FewKeysInWideSketch_IsExact() {
+        // Given
+        CountMinSketch sketch = new CountMinSketch(16384, 4);
+        List<UUID> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            UUID key = UUID.randomUUID();
+            sketch.add(key, i + 1);
+            keys.add(key);
+        }
+
+        // Then
+        for (int i = 0; i < keys.size(); i++) {
+            assertThat(sketch.estimate(keys.get(i))).isEqualTo(i + 1);
+        }
+    }
+
+    @Test
+    void scale_MultipliesEveryEstimate() {
+        // Given
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        UUID key = UUID.randomUUID();
+        sketch.add(key, 8);
+
+        // When
+        sketch.scale(0.25);
+
+        // Then
+        assertThat(sketch.estimate(key)).isCloseTo(2, within(1e-9));
+    }
+
+    @Test
+    void constructor_RoundsWidthUpToPowerOfTwo() {
+        CountMinSketch sketch = new CountMinSketch(1000, 3);
+
+        assertThat(sketch.width()).isEqualTo(1024);
+        assertThat(sketch.depth()).isEqualTo(3);
+        assertThatThrownBy(() -> new CountMinSketch(0, 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,111 @@
+package com.app.trending.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_SmallCardinality_IsNearlyExact() {
+        // Given
+        HyperLogLog hll = new HyperLogLog();
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            hll.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+
+        // Then
+        assertThat(hll.estimate()).isCloseTo(100, within(2L));
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void estimate_LargeCardinality_WithinThreePercent() {
+        // Given
+        HyperLogLog hll = new HyperLogLog();
+        Random random = new Random(2);
+        for (int i = 0; i < 200_000; i++) {
+            hll.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+
+        // Then
+        assertThat((double) hll.estimate()).isCloseTo(200_000, within(6_000.0));
+    }
+
+    @Test
+    void add_SameIdTwice_ChangesNothing() {
+        // Given
+        HyperLogLog hll = new HyperLogLog();
+        UUID id = UUID.randomUUID();
+
+        // When
+        boolean first = hll.add(id);
+        boolean second = hll.add(id);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(hll.estimate()).isEqualTo(1);
+    }
+
+    @Test
+    void merge_CountsUnionAndIsIdempotent() {
+        // Given two days sharing half their users
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            if (i < 15_000) {
+                monday.add(id);
+            }
+            if (i >= 5_000) {
+                tuesday.add(id);
+            }
+        }
+
+        // When
+        HyperLogLog week = monday.copy();
+        week.merge(tuesday);
+        long once = week.estimate();
+        week.merge(tuesday);
+
+        // Then
+        assertThat((double) once).isCloseTo(20_000, within(600.0));
+        assertThat(week.estimate()).isEqualTo(once);
+        assertThat(monday.estimate()).isCloseTo(15_000, within(450L));
+    }
+
+    @Test
+    void toBytes_RoundTrips() {
+        // Given
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            hll.add(UUID.randomUUID());
+        }
+
+        // When
+        byte[] bytes = hll.toBytes();
+        HyperLogLog read = HyperLogLog.fromBytes(bytes);
+
+        // Then
+        assertThat(bytes).hasSize((1 << HyperLogLog.PRECISION) + 1);
+        assertThat(read.estimate()).isEqualTo(hll.estimate());
+        assertThat(read.toBytes()).isEqualTo(bytes);
+    }
+
+    @Test
+    void fromBytes_WrongPrecision_Throws() {
+        byte[] bytes = new HyperLogLog().toBytes();
+        bytes[0] = 12;
+
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(bytes)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[10])).isInstanceOf(IllegalArgumentException.class);
+    }
+}
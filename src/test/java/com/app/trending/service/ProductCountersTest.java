@@ -0,0 +1,126 @@
+package com.app.trending.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCountersTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long T0 = 1_700_000_000_000L / HOUR * HOUR;
+
+    @Test
+    void top_RanksByPurchasesInWindow() {
+        // Given
+        ProductCounters<String> counters = new ProductCounters<>(10);
+        counters.record("monitor", "Monitor", T0);
+        counters.record("phone", "Phone", T0);
+        counters.record("phone", "Phone case", T0 + HOUR);
+
+        // When
+        List<ProductCounters.Stats<String>> top = counters.top(T0 + HOUR, 10);
+
+        // Then
+        assertThat(top).extracting(ProductCounters.Stats::getKey).containsExactly("phone", "monitor");
+        assertThat(top.get(0).getPurchasesToday()).isEqualTo(2);
+        // The latest purchase's details
+        assertThat(top.get(0).getDetails()).isEqualTo("Phone case");
+    }
+
+    @Test
+    void get_PurchasesOlderThanDayExpire() {
+        // Given
+        ProductCounters<String> counters = new ProductCounters<>(10);
+        counters.record("phone", "Phone", T0);
+        counters.record("phone", "Phone", T0 + 5 * HOUR);
+
+        // Then
+        assertThat(counters.get("phone", T0 + 23 * HOUR).getPurchasesToday()).isEqualTo(2);
+        assertThat(counters.get("phone", T0 + 24 * HOUR).getPurchasesToday()).isEqualTo(1);
+        assertThat(counters.get("phone", T0 + 29 * HOUR)).isNull();
+    }
+
+    @Test
+    void record_AfterLongGap_ClearsStaleBuckets() {
+        // Given a purchase, then another exactly a day and a bit later in the same ring slot
+        ProductCounters<String> counters = new ProductCounters<>(10);
+        counters.record("phone", "Phone", T0);
+        counters.record("phone", "Phone", T0 + 24 * HOUR);
+
+        // Then
+        assertThat(counters.get("phone", T0 + 24 * HOUR).getPurchasesToday()).isEqualTo(1);
+    }
+
+    @Test
+    void record_PurchaseOlderThanWindow_IsIgnored() {
+        ProductCounters<String> counters = new ProductCounters<>(10);
+        counters.record("phone", "Phone", T0 + 30 * HOUR);
+
+        counters.record("phone", "Old", T0);
+
+        assertThat(counters.get("phone", T0 + 30 * HOUR).getPurchasesToday()).isEqualTo(1);
+        assertThat(counters.get("phone", T0 + 30 * HOUR).getDetails()).isEqualTo("Phone");
+    }
+
+    @Test
+    void stats_RisingAndHot_ComeFromBucketDeltas() {
+        // Given steady sales of one product, and a burst of another in the last hours
+        ProductCounters<String> counters = new ProductCounters<>(10);
+        long now = T0 + 23 * HOUR;
+        for (int hour = 0; hour < 24; hour++) {
+            counters.record("steady", "Steady", T0 + hour * HOUR);
+        }
+        counters.record("burst", "Burst", T0);
+        for (int i = 0; i < 4; i++) {
+            counters.record("burst", "Burst", now - i % 2 * HOUR);
+        }
+
+        // When
+        ProductCounters.Stats<String> steady = counters.get("steady", now);
+        ProductCounters.Stats<String> burst = counters.get("burst", now);
+
+        // Then
+        assertThat(steady.isRising()).isFalse();
+        assertThat(steady.isHot()).isFalse();
+        assertThat(burst.getRecent()).isEqualTo(4);
+        assertThat(burst.getPrevious()).isZero();
+        assertThat(burst.isRising()).isTrue();
+        assertThat(burst.isHot()).isTrue();
+    }
+
+    @Test
+    void record_AtCapacity_EvictsLeastRecentlyPurchased() {
+        // Given
+        ProductCounters<String> counters = new ProductCounters<>(2);
+        counters.record("a", "A", T0);
+        counters.record("b", "B", T0);
+        counters.record("a", "A", T0);
+
+        // When
+        counters.record("c", "C", T0);
+
+        // Then
+        assertThat(counters.size()).isEqualTo(2);
+        assertThat(counters.get("b", T0)).isNull();
+        assertThat(counters.top(T0, 10)).extracting(ProductCounters.Stats::getKey).containsExactly("a", "c");
+    }
+
+    @Test
+    void top_DropsProductsWithoutRecentPurchases() {
+        // Given
+        ProductCounters<String> counters = new ProductCounters<>(10);
+        counters.record("old", "Old", T0);
+        counters.record("new", "New", T0 + 30 * HOUR);
+
+        // When
+        List<ProductCounters.Stats<String>> top = counters.top(T0 + 30 * HOUR, 10);
+
+        // Then
+        assertThat(top).extracting(ProductCounters.Stats::getKey).containsExactly("new");
+        assertThat(counters.size()).isEqualTo(1);
+        assertThatThrownBy(() -> new ProductCounters<String>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.app.trending.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductKeyTest {
+
+    @Test
+    void canonicalUrl_IgnoresSchemeWwwQueryFragmentAndCase() {
+        assertThat(ProductKey.canonicalUrl("https://www.BestBuy.com/4k-Monitor/?ref=home#reviews"))
+                .contains("bestbuy.com/4k-monitor");
+        assertThat(ProductKey.canonicalUrl("http://m.bestbuy.com:443//4k-monitor"))
+                .contains("bestbuy.com/4k-monitor");
+        assertThat(ProductKey.canonicalUrl("bestbuy.com/4k-monitor")).contains("bestbuy.com/4k-monitor");
+    }
+
+    @Test
+    void canonicalUrl_AmazonSlugs_ReduceToProductId() {
+        assertThat(ProductKey.canonicalUrl("https://www.amazon.com/Apple-iPhone-15-Pro/dp/B0CMZ4S8VS/ref=sr_1_1?keywords=iphone"))
+                .contains("amazon.com/dp/b0cmz4s8vs");
+        assertThat(ProductKey.canonicalUrl("https://amazon.com/gp/product/B0CMZ4S8VS"))
+                .contains("amazon.com/dp/b0cmz4s8vs");
+        assertThat(ProductKey.canonicalUrl("https://amazon.com/iphone-15-pro")).contains("amazon.com/iphone-15-pro");
+    }
+
+    @Test
+    void canonicalUrl_WithoutHost_IsEmpty() {
+        assertThat(ProductKey.canonicalUrl(null)).isEmpty();
+        assertThat(ProductKey.canonicalUrl("  ")).isEmpty();
+        assertThat(ProductKey.canonicalUrl("not a url")).isEmpty();
+        assertThat(ProductKey.canonicalUrl("mailto:someone@example.com")).isEmpty();
+    }
+
+    @Test
+    void of_IncludesPlatform() {
+        UUID amazon = UUID.randomUUID();
+
+        assertThat(ProductKey.of(amazon, "https://amazon.com/x")).contains(amazon + "|amazon.com/x");
+        assertThat(ProductKey.of(null, "https://amazon.com/x")).contains("-|amazon.com/x");
+        assertThat(ProductKey.of(amazon, null)).isEmpty();
+    }
+}
@@ -0,0 +1,208 @@
+package com.app.trending.service;
+
+import com.app.common.exception.BadRequestException;
+import com.app.post.dto.PostResponse;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.event.PostInteractionEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RollupServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private RollupService service;
+    private UUID platformId;
+    private Instant now;
+    private Instant hour;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new RollupService(jdbcTemplate, transactionManager, meterRegistry, 5, 3, 30);
+        platformId = UUID.randomUUID();
+        now = Instant.now();
+        hour = now.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private PostCreatedEvent postCreated(UUID platform, BigDecimal price, String currency, Instant at) {
+        return new PostCreatedEvent(PostResponse.builder()
+                .id(UUID.randomUUID())
+                .platform(platform == null ? null : PostResponse.Platform.builder().id(platform).build())
+                .price(price)
+                .currency(currency)
+                .timestamp(at)
+                .build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> capturedRows(String sql) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(sql), rows.capture());
+        return rows.getValue();
+    }
+
+    @Test
+    void flush_AddsPostsAndSpendPerHourAndPlatform() {
+        // Given
+        service.onPostCreated(postCreated(platformId, new BigDecimal("10.50"), " usd ", now));
+        service.onPostCreated(postCreated(platformId, new BigDecimal("4.50"), "USD", now));
+        service.onPostCreated(postCreated(null, null, null, now));
+
+        // When
+        service.flush();
+
+        // Then
+        List<Object[]> counts = capturedRows(RollupService.ADD_COUNTS_SQL);
+        assertThat(counts).hasSize(2);
+        assertThat(counts).anySatisfy(row -> assertThat(row)
+                .containsExactly(Timestamp.from(hour), platformId, 2L, 0L));
+        assertThat(counts).anySatisfy(row -> assertThat(row)
+                .containsExactly(Timestamp.from(hour), RollupService.NO_PLATFORM, 1L, 0L));
+        List<Object[]> spend = capturedRows(RollupService.ADD_SPEND_SQL);
+        assertThat(spend).singleElement().satisfies(row -> {
+            assertThat(row).startsWith(Timestamp.from(hour), platformId, "USD", 2L);
+            assertThat((BigDecimal) row[4]).isEqualByComparingTo("15.00");
+        });
+    }
+
+    @Test
+    void flush_Likes_AreFiledUnderPlatformOfPost() throws Exception {
+        // Given a like of a post on the platform, and one of a post deleted since
+        UUID postId = UUID.randomUUID();
+        service.onPostInteraction(new PostInteractionEvent(postId, UUID.randomUUID(), PostInteractionEvent.Type.LIKED));
+        service.onPostInteraction(new PostInteractionEvent(postId, UUID.randomUUID(), PostInteractionEvent.Type.LIKED));
+        service.onPostInteraction(new PostInteractionEvent(UUID.randomUUID(), UUID.randomUUID(), PostInteractionEvent.Type.LIKED));
+        service.onPostInteraction(new PostInteractionEvent(postId, UUID.randomUUID(), PostInteractionEvent.Type.SHARED));
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1, UUID.class)).thenReturn(postId);
+        when(rs.getObject(2, UUID.class)).thenReturn(platformId);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        // When
+        service.flush();
+
+        // Then
+        List<Object[]> counts = capturedRows(RollupService.ADD_COUNTS_SQL);
+        assertThat(counts).singleElement().satisfies(row -> assertThat(row)
+                .containsExactly(Timestamp.from(hour), platformId, 0L, 2L));
+        verify(jdbcTemplate, never()).batchUpdate(eq(RollupService.ADD_SPEND_SQL), anyList());
+    }
+
+    @Test
+    void flush_Failure_RetriesDeltas() {
+        // Given
+        service.onPostCreated(postCreated(platformId, null, null, now));
+        when(jdbcTemplate.batchUpdate(eq(RollupService.ADD_COUNTS_SQL), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+        service.flush();
+        service.onPostCreated(postCreated(platformId, null, null, now));
+
+        // When
+        service.flush();
+
+        // Then both posts are written by the second flush
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(RollupService.ADD_COUNTS_SQL), rows.capture());
+        assertThat(rows.getAllValues().get(1)).singleElement()
+                .satisfies(row -> assertThat(row[2]).isEqualTo(2L));
+        assertThat(meterRegistry.counter("rollups.flush.failures").count()).isEqualTo(1);
+    }
+
+    @Test
+    void flushAndRecompute_WriteUnderSharedLock() {
+        // Given
+        service.onPostCreated(postCreated(platformId, null, null, now));
+
+        // When
+        service.flush();
+        service.seal();
+
+        // Then the flush decides what to write only once it holds the lock a recompute also takes
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList(RollupService.WRITE_LOCK_SQL, RollupService.WRITE_LOCK_KEY);
+        order.verify(jdbcTemplate).batchUpdate(eq(RollupService.ADD_COUNTS_SQL), anyList());
+        order.verify(jdbcTemplate).queryForList(RollupService.WRITE_LOCK_SQL, RollupService.WRITE_LOCK_KEY);
+        order.verify(jdbcTemplate).update(eq(RollupService.RECOMPUTE_COUNTS_SQL), any(Object[].class));
+    }
+
+    @Test
+    void flush_DeltaOfRecomputedHour_IsDropped() {
+        // Given a post committed long after it was created
+        service.onPostCreated(postCreated(platformId, BigDecimal.TEN, "USD", now.minus(2, ChronoUnit.HOURS)));
+
+        // When
+        service.flush();
+
+        // Then the recompute of its hour counts it instead
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(meterRegistry.counter("rollups.late.deltas").count()).isEqualTo(1);
+    }
+
+    @Test
+    void backfill_RecomputesADayPerTransactionUpToSealedHours() {
+        // Given
+        Instant sealed = service.sealedBefore(Instant.now());
+
+        // When
+        service.backfill(sealed.minus(36, ChronoUnit.HOURS), Instant.now().plus(1, ChronoUnit.DAYS));
+
+        // Then
+        Timestamp start = Timestamp.from(sealed.minus(36, ChronoUnit.HOURS));
+        Timestamp middle = Timestamp.from(sealed.minus(12, ChronoUnit.HOURS));
+        Timestamp end = Timestamp.from(sealed);
+        verify(transactionManager, times(2)).commit(any());
+        verify(jdbcTemplate).update(RollupService.RECOMPUTE_COUNTS_SQL, start, middle, start, middle);
+        verify(jdbcTemplate).update(RollupService.RECOMPUTE_COUNTS_SQL, middle, end, middle, end);
+        verify(jdbcTemplate).update(RollupService.RECOMPUTE_SPEND_SQL, middle, end);
+    }
+
+    @Test
+    void getRollups_InvalidArguments_ThrowBadRequest() {
+        assertThatThrownBy(() -> service.getRollups(now, now, "hour", null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getRollups(now.minus(32, ChronoUnit.DAYS), now, "hour", null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getRollups(now.minus(1, ChronoUnit.DAYS), now, "week", null))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,167 @@
+package com.app.trending.service;
+
+import com.app.post.dto.PostResponse;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.repo.CurrencyTotal;
+import com.app.post.repo.PostRepository;
+import com.app.trending.dto.Stats;
+import com.app.user.dto.UserSummary;
+import com.app.user.event.UserCreatedEvent;
+import com.app.user.repo.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatsServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ActiveUserService activeUserService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private StatsService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new StatsService(postRepository, userRepository, activeUserService, transactionManager, meterRegistry, "usd");
+    }
+
+    @Test
+    void reconcile_LoadsTotalsFromDatabase() {
+        // Given
+        stored(10, 4, total("USD", "120.50"), total("EUR", "30"));
+
+        // When
+        boolean corrected = service.reconcile();
+
+        // Then
+        Stats stats = service.getStats();
+        assertThat(corrected).isFalse();
+        assertThat(stats.getTotalPosts()).isEqualTo(10);
+        assertThat(stats.getTotalUsers()).isEqualTo(4);
+        assertThat(stats.getTotalMoneySpent()).isEqualTo(120.50);
+        assertThat(stats.getCurrency()).isEqualTo("USD");
+        assertThat(stats.getMoneySpentByCurrency())
+                .containsExactly(entry("EUR", new BigDecimal("30")), entry("USD", new BigDecimal("120.50")));
+    }
+
+    @Test
+    void onPostCreated_AddsToTotalsWithoutDatabase() {
+        // Given
+        stored(1, 1, total("USD", "10"));
+        service.reconcile();
+        clearInvocations(postRepository, userRepository);
+
+        // When
+        service.onPostCreated(new PostCreatedEvent(post(" usd ", "5.25")));
+        service.onPostCreated(new PostCreatedEvent(post("GBP", "7")));
+        service.onPostCreated(new PostCreatedEvent(post(null, null)));
+        service.onUserCreated(new UserCreatedEvent(UserSummary.builder().id(UUID.randomUUID()).build()));
+
+        // Then
+        Stats stats = service.getStats();
+        assertThat(stats.getTotalPosts()).isEqualTo(4);
+        assertThat(stats.getTotalUsers()).isEqualTo(2);
+        assertThat(stats.getMoneySpentByCurrency())
+                .containsExactly(entry("GBP", new BigDecimal("7")), entry("USD", new BigDecimal("15.25")));
+        verifyNoInteractions(postRepository, userRepository);
+    }
+
+    @Test
+    void reconcile_KeepsCreationsCommittedDuringReload() {
+        // Given a post committed while the reload reads a snapshot without it
+        when(postRepository.sumPriceByCurrency()).thenAnswer(invocation -> {
+            service.onPostCreated(new PostCreatedEvent(post("USD", "2")));
+            return List.of(total("USD", "10"));
+        });
+        when(postRepository.count()).thenReturn(1L);
+        when(userRepository.count()).thenReturn(1L);
+
+        // When
+        service.reconcile();
+
+        // Then
+        assertThat(service.getStats().getTotalPosts()).isEqualTo(2);
+        assertThat(service.getStats().getMoneySpentByCurrency()).containsExactly(entry("USD", new BigDecimal("12")));
+    }
+
+    @Test
+    void reconcile_DriftedTotals_AreCorrected() {
+        // Given
+        stored(3, 2, total("USD", "10"));
+        service.reconcile();
+        stored(5, 2, total("USD", "10"));
+
+        // When
+        boolean corrected = service.reconcile();
+
+        // Then
+        assertThat(corrected).isTrue();
+        assertThat(service.getStats().getTotalPosts()).isEqualTo(5);
+        assertThat(meterRegistry.counter("stats.corrections").count()).isEqualTo(1.0);
+
+        // A different scale alone is not a correction
+        stored(5, 2, total("USD", "10.00"));
+        assertThat(service.reconcile()).isFalse();
+    }
+
+    @Test
+    void getStats_BeforeFirstReload_IsEmpty() {
+        Stats stats = service.getStats();
+
+        assertThat(stats.getTotalPosts()).isZero();
+        assertThat(stats.getTotalMoneySpent()).isZero();
+        assertThat(stats.getMoneySpentByCurrency()).isEmpty();
+    }
+
+    private void stored(long posts, long users, CurrencyTotal... totals) {
+        when(postRepository.sumPriceByCurrency()).thenReturn(List.of(totals));
+        when(postRepository.count()).thenReturn(posts);
+        when(userRepository.count()).thenReturn(users);
+    }
+
+    private static CurrencyTotal total(String currency, String amount) {
+        return new CurrencyTotal() {
+            @Override
+            public String getCurrency() {
+                return currency;
+            }
+
+            @Override
+            public BigDecimal getTotal() {
+                return new BigDecimal(amount);
+            }
+        };
+    }
+
+    private static PostResponse post(String currency, String price) {
+        return PostResponse.builder()
+                .id(UUID.randomUUID())
+                .currency(currency)
+                .price(price == null ? null : new BigDecimal(price))
+                .build();
+    }
+}
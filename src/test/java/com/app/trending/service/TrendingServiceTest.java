@@ -0,0 +1,212 @@
+package com.app.trending.service;
+
+import com.app.platform.entity.Platform;
+import com.app.post.dto.PostResponse;
+import com.app.post.entity.Post;
+import com.app.post.event.PostCreatedEvent;
+import com.app.post.event.PostInteractionEvent;
+import com.app.post.mapper.PostMapper;
+import com.app.post.repo.PostRepository;
+import com.app.trending.dto.TrendingItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingServiceTest {
+
+    private static final UUID LOWEST_ID = new UUID(0L, 0L);
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostMapper postMapper;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TrendingService service;
+
+    private Platform amazon;
+    private PostResponse.Platform amazonResponse;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new TrendingService(postRepository, postMapper, meterRegistry,
+                360, 10, 3, 1024, 4, 48, 100);
+        amazon = Platform.builder().id(UUID.randomUUID()).name("Amazon").build();
+        amazonResponse = PostResponse.Platform.builder().id(amazon.getId()).name("Amazon").icon("🛒").build();
+    }
+
+    @Test
+    void refresh_SeedsFromStoredCountsOfRecentPosts() {
+        // Given
+        Post quiet = post("Desk lamp", 0, 0);
+        Post liked = post("Noise cancelling headphones", 4, 0);
+        Post discussed = post("Standing desk", 1, 3);
+        when(postRepository.findChunkAfter(any(Instant.class), eq(LOWEST_ID), eq(PageRequest.of(0, 500))))
+                .thenReturn(List.of(quiet, liked, discussed));
+        when(postRepository.findByIdIn(anyCollection())).thenReturn(List.of(quiet, liked, discussed));
+        when(postMapper.mapPlatform(amazon)).thenReturn(amazonResponse);
+
+        // When
+        service.refresh();
+
+        // Then created 1 + likes 1 + comments 2
+        assertThat(service.getTrendingItems(5))
+                .extracting(TrendingItem::getName, TrendingItem::getRank, TrendingItem::getCategory, TrendingItem::getIcon)
+                .containsExactly(tuple("Standing desk", 1, "Amazon", "🛒"),
+                        tuple("Noise cancelling headphones", 2, "Amazon", "🛒"),
+                        tuple("Desk lamp", 3, "Amazon", "🛒"));
+        assertThat(meterRegistry.get("trending.candidates").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void onPostInteraction_ChangesRankingAtNextRefresh() {
+        // Given
+        when(postRepository.findChunkAfter(any(Instant.class), eq(LOWEST_ID), any())).thenReturn(List.of());
+        PostResponse first = created("First post");
+        PostResponse second = created("Second post");
+        service.onPostCreated(new PostCreatedEvent(first));
+        service.onPostCreated(new PostCreatedEvent(second));
+
+        // When
+        service.onPostInteraction(new PostInteractionEvent(second.getId(), UUID.randomUUID(), PostInteractionEvent.Type.SHARED));
+        service.onPostInteraction(new PostInteractionEvent(first.getId(), UUID.randomUUID(), PostInteractionEvent.Type.LIKED));
+        service.refresh();
+
+        // Then details come from the creation events, not the database
+        assertThat(service.getTrendingItems(5)).extracting(TrendingItem::getId)
+                .containsExactly(second.getId(), first.getId());
+        assertThat(service.getTrendingItems(5).get(0).getScore()).isGreaterThan(service.getTrendingItems(5).get(1).getScore());
+        verify(postRepository, never()).findByIdIn(any());
+    }
+
+    @Test
+    void getTrendingItems_ServesSnapshotWithoutDatabase() {
+        // Given
+        when(postRepository.findChunkAfter(any(Instant.class), eq(LOWEST_ID), any())).thenReturn(List.of());
+        for (int i = 0; i < 5; i++) {
+            service.onPostCreated(new PostCreatedEvent(created("Post " + i)));
+        }
+        service.refresh();
+        clearInvocations(postRepository);
+
+        // When
+        List<TrendingItem> items = service.getTrendingItems(10);
+
+        // Then at most app.trending.size items
+        assertThat(items).hasSize(3);
+        assertThat(service.getTrendingItems(2)).hasSize(2);
+        assertThat(service.getTrendingItems(-1)).isEmpty();
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void refresh_AbbreviatesLongText() {
+        // Given
+        when(postRepository.findChunkAfter(any(Instant.class), eq(LOWEST_ID), any())).thenReturn(List.of());
+        service.onPostCreated(new PostCreatedEvent(created("x".repeat(200))));
+
+        // When
+        service.refresh();
+
+        // Then
+        assertThat(service.getTrendingItems(1).get(0).getName()).hasSize(80).endsWith("…");
+    }
+
+    @Test
+    void onPostCreated_CountsPurchasesPerProduct() {
+        // Given
+        when(postRepository.findChunkAfter(any(Instant.class), eq(LOWEST_ID), any())).thenReturn(List.of());
+        PostResponse first = created("Got the new phone");
+        first.setProductUrl("https://www.amazon.com/Apple-iPhone/dp/B0CMZ4S8VS?tag=x");
+        PostResponse second = created("Phone arrived");
+        second.setProductUrl("https://amazon.com/dp/B0CMZ4S8VS/");
+        PostResponse other = created("Desk lamp");
+        other.setProductUrl("https://amazon.com/dp/B000000001");
+
+        // When
+        service.onPostCreated(new PostCreatedEvent(first));
+        service.onPostCreated(new PostCreatedEvent(other));
+        service.onPostCreated(new PostCreatedEvent(second));
+        service.refresh();
+
+        // Then
+        assertThat(service.getTrendingProducts(5))
+                .extracting(TrendingItem::getName, TrendingItem::getPurchasesToday, TrendingItem::getRank, TrendingItem::getIsRising)
+                .containsExactly(tuple("Phone arrived", 2, 1, true),
+                        tuple("Desk lamp", 1, 2, false));
+        assertThat(service.getTrendingItems(5))
+                .filteredOn(item -> item.getId().equals(first.getId()))
+                .singleElement()
+                .satisfies(item -> assertThat(item.getPurchasesToday()).isEqualTo(2));
+    }
+
+    @Test
+    void refresh_SeedsPurchasesOfLastDay() {
+        // Given
+        Post recent = post("Standing desk", 0, 0);
+        recent.setProductUrl("https://amazon.com/standing-desk");
+        Post old = post("Standing desk", 0, 0);
+        old.setProductUrl("https://amazon.com/standing-desk");
+        old.setCreatedAt(Instant.now().minusSeconds(30 * 3600));
+        when(postRepository.findChunkAfter(any(Instant.class), eq(LOWEST_ID), eq(PageRequest.of(0, 500))))
+                .thenReturn(List.of(old, recent));
+        when(postRepository.findByIdIn(anyCollection())).thenReturn(List.of(old, recent));
+        when(postMapper.mapPlatform(amazon)).thenReturn(amazonResponse);
+
+        // When
+        service.refresh();
+
+        // Then
+        assertThat(service.getTrendingProducts(5)).singleElement()
+                .satisfies(item -> {
+                    assertThat(item.getPurchasesToday()).isEqualTo(1);
+                    assertThat(item.getCategory()).isEqualTo("Amazon");
+                });
+    }
+
+    @Test
+    void constructor_SizeAboveCapacity_Throws() {
+        assertThatThrownBy(() -> new TrendingService(postRepository, postMapper, meterRegistry,
+                360, 10, 11, 1024, 4, 48, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Post post(String text, int likes, int comments) {
+        return Post.builder()
+                .id(UUID.randomUUID())
+                .text(text)
+                .platform(amazon)
+                .likeCount(likes)
+                .commentCount(comments)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private PostResponse created(String content) {
+        return PostResponse.builder()
+                .id(UUID.randomUUID())
+                .content(content)
+                .platform(amazonResponse)
+                .timestamp(Instant.now())
+                .build();
+    }
+}
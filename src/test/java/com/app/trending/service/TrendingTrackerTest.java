@@ -0,0 +1,129 @@
+package com.app.trending.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class TrendingTrackerTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final Duration HALF_LIFE = Duration.ofHours(1);
+
+    @Test
+    void top_OrdersByScoreHighestFirst() {
+        // Given
+        TrendingTracker tracker = new TrendingTracker(10, HALF_LIFE, 1024, 4, T0);
+        UUID quiet = UUID.randomUUID();
+        UUID busy = UUID.randomUUID();
+        tracker.record(quiet, 1, T0);
+        tracker.record(busy, 2, T0);
+        tracker.record(busy, 3, T0);
+
+        // When
+        List<TrendingTracker.Scored> top = tracker.top(T0);
+
+        // Then
+        assertThat(top).extracting(TrendingTracker.Scored::getId).containsExactly(busy, quiet);
+        assertThat(top.get(0).getScore()).isCloseTo(5, within(1e-9));
+    }
+
+    @Test
+    void top_ScoreHalvesEveryHalfLife() {
+        // Given
+        TrendingTracker tracker = new TrendingTracker(10, HALF_LIFE, 1024, 4, T0);
+        UUID id = UUID.randomUUID();
+        tracker.record(id, 8, T0);
+
+        // Then
+        assertThat(tracker.top(T0 + HALF_LIFE.toMillis()).get(0).getScore()).isCloseTo(4, within(1e-9));
+        assertThat(tracker.top(T0 + 3 * HALF_LIFE.toMillis()).get(0).getScore()).isCloseTo(1, within(1e-9));
+    }
+
+    @Test
+    void record_RecentActivityOutranksOlderBurst() {
+        // Given a burst two half-lives ago and less activity now
+        TrendingTracker tracker = new TrendingTracker(10, HALF_LIFE, 1024, 4, T0);
+        UUID old = UUID.randomUUID();
+        UUID fresh = UUID.randomUUID();
+        tracker.record(old, 10, T0);
+        long now = T0 + 2 * HALF_LIFE.toMillis();
+        tracker.record(fresh, 3, now);
+
+        // Then 10 / 4 < 3
+        assertThat(tracker.top(now)).extracting(TrendingTracker.Scored::getId).containsExactly(fresh, old);
+    }
+
+    @Test
+    void record_AtCapacity_EvictsLowestCandidate() {
+        // Given
+        TrendingTracker tracker = new TrendingTracker(2, HALF_LIFE, 1024, 4, T0);
+        UUID low = UUID.randomUUID();
+        UUID mid = UUID.randomUUID();
+        UUID high = UUID.randomUUID();
+        tracker.record(low, 1, T0);
+        tracker.record(mid, 2, T0);
+
+        // When
+        tracker.record(high, 3, T0);
+
+        // Then
+        assertThat(tracker.size()).isEqualTo(2);
+        assertThat(tracker.top(T0)).extracting(TrendingTracker.Scored::getId).containsExactly(high, mid);
+    }
+
+    @Test
+    void record_EvictedPostKeepsItsScoreInSketch() {
+        // Given low is evicted by high
+        TrendingTracker tracker = new TrendingTracker(2, HALF_LIFE, 1024, 4, T0);
+        UUID low = UUID.randomUUID();
+        UUID mid = UUID.randomUUID();
+        UUID high = UUID.randomUUID();
+        tracker.record(low, 2, T0);
+        tracker.record(mid, 3, T0);
+        tracker.record(high, 5, T0);
+
+        // When low gets more activity
+        tracker.record(low, 2, T0);
+
+        // Then its earlier score counts towards getting back in
+        assertThat(tracker.top(T0)).extracting(TrendingTracker.Scored::getId).containsExactly(high, low);
+        assertThat(tracker.top(T0).get(1).getScore()).isCloseTo(4, within(1e-9));
+    }
+
+    @Test
+    void record_LongAfterLandmark_RescalesWithoutLosingOrder() {
+        // Given events far enough apart to force several rescales
+        TrendingTracker tracker = new TrendingTracker(10, HALF_LIFE, 1024, 4, T0);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        long later = T0 + 100 * HALF_LIFE.toMillis();
+        tracker.record(a, 1, T0);
+        tracker.record(b, 1, later);
+        tracker.record(a, 2, later);
+
+        // When
+        List<TrendingTracker.Scored> top = tracker.top(later + HALF_LIFE.toMillis());
+
+        // Then the first event of a has decayed away and nothing overflowed
+        assertThat(top).extracting(TrendingTracker.Scored::getId).containsExactly(a, b);
+        assertThat(top.get(0).getScore()).isCloseTo(1, within(1e-9));
+        assertThat(top.get(1).getScore()).isCloseTo(0.5, within(1e-9));
+    }
+
+    @Test
+    void record_NonPositiveWeight_IsIgnored() {
+        TrendingTracker tracker = new TrendingTracker(10, HALF_LIFE, 1024, 4, T0);
+
+        tracker.record(UUID.randomUUID(), 0, T0);
+
+        assertThat(tracker.size()).isZero();
+        assertThatThrownBy(() -> new TrendingTracker(0, HALF_LIFE, 1024, 4, T0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}